@@ -0,0 +1,80 @@
+package com.example.amortizationschedule.benchmark;
+
+import com.example.amortizationschedule.model.BatchCalculationResult;
+import com.example.amortizationschedule.model.LoanDetails;
+import com.example.amortizationschedule.service.AmortizationService;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Measures the throughput of {@link AmortizationService#calculateAmortizationSchedules(List)} for
+ * an increasing batch pool parallelism, in batches of 2,000 loans of terms of 1 to 30 years. The
+ * schedule cache is turned off, so every batch calculates all its loans.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchCalculationBenchmark {
+
+  private static final int BATCH_SIZE = 2_000;
+
+  @Param({"1", "2", "4", "8"})
+  private int parallelism;
+
+  private ConfigurableApplicationContext context;
+  private AmortizationService amortizationService;
+  private List<LoanDetails> loanDetailsList;
+
+  @Setup
+  public void setUp() {
+    context = BenchmarkApplication.start("amortization.batch.parallelism=" + parallelism,
+        "amortization.engine=FIXED_POINT", "amortization.cache.enabled=false");
+    amortizationService = context.getBean(AmortizationService.class);
+    loanDetailsList = createLoanBook();
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public List<BatchCalculationResult> calculateAmortizationSchedules() {
+    return amortizationService.calculateAmortizationSchedules(loanDetailsList);
+  }
+
+  private static List<LoanDetails> createLoanBook() {
+    Random random = new Random(42);
+    List<LoanDetails> loanDetailsList = new ArrayList<>(BATCH_SIZE);
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      var loanDetails = new LoanDetails();
+      loanDetails.setLoanAmount(BigDecimal.valueOf(5_000_00 + random.nextInt(500_000_00), 2));
+      loanDetails.setDepositAmount(BigDecimal.ZERO);
+      loanDetails.setInterestRate(BigDecimal.valueOf(100 + random.nextInt(1_500), 2));
+      loanDetails.setBalloonPayment(random.nextBoolean() ? BigDecimal.ZERO
+          : BigDecimal.valueOf(random.nextInt(5_000)));
+      loanDetails.setMonthlyPayments(12 * (1 + random.nextInt(30)));
+      loanDetailsList.add(loanDetails);
+    }
+    return loanDetailsList;
+  }
+}
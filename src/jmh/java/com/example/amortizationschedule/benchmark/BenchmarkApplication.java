@@ -0,0 +1,50 @@
+package com.example.amortizationschedule.benchmark;
+
+import com.example.amortizationschedule.AmortizationScheduleApplication;
+import com.example.amortizationschedule.model.LoanDetails;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the application without a web server for the benchmarks that need its beans and its
+ * in-memory database.
+ */
+final class BenchmarkApplication {
+
+  private BenchmarkApplication() {
+  }
+
+  /**
+   * Starts the application.
+   *
+   * @param properties Properties overriding those of {@code application.properties}.
+   * @return The started application context.
+   */
+  static ConfigurableApplicationContext start(String... properties) {
+    return new SpringApplicationBuilder(AmortizationScheduleApplication.class)
+        .web(WebApplicationType.NONE)
+        .properties("spring.main.banner-mode=off", "logging.level.root=WARN")
+        // Default properties give way to application.properties, but command line arguments do not
+        .run(Arrays.stream(properties).map(property -> "--" + property).toArray(String[]::new));
+  }
+
+  /**
+   * Creates the details of a typical loan.
+   *
+   * @param monthlyPayments The term of the loan in months.
+   * @param balloon         Whether a quarter of the loan is repaid as a balloon payment.
+   * @return The loan details.
+   */
+  static LoanDetails createLoanDetails(int monthlyPayments, boolean balloon) {
+    var loanDetails = new LoanDetails();
+    loanDetails.setLoanAmount(BigDecimal.valueOf(300000));
+    loanDetails.setDepositAmount(BigDecimal.valueOf(30000));
+    loanDetails.setInterestRate(BigDecimal.valueOf(4.5));
+    loanDetails.setBalloonPayment(balloon ? BigDecimal.valueOf(75000) : null);
+    loanDetails.setMonthlyPayments(monthlyPayments);
+    return loanDetails;
+  }
+}
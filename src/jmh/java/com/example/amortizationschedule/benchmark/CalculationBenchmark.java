@@ -0,0 +1,64 @@
+package com.example.amortizationschedule.benchmark;
+
+import com.example.amortizationschedule.model.AmortizationSchedule;
+import com.example.amortizationschedule.model.LoanDetails;
+import com.example.amortizationschedule.service.AmortizationService;
+import com.example.amortizationschedule.service.CalculationEngine;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Measures {@link AmortizationService#calculateAmortizationSchedule(LoanDetails,
+ * CalculationEngine)} with the schedule cache turned off, so every invocation evaluates all the
+ * periods of the schedule.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalculationBenchmark {
+
+  @Param({"12", "60", "120", "240", "360", "480"})
+  private int monthlyPayments;
+
+  @Param({"false", "true"})
+  private boolean balloon;
+
+  @Param({"BIG_DECIMAL", "FIXED_POINT"})
+  private CalculationEngine engine;
+
+  private ConfigurableApplicationContext context;
+  private AmortizationService amortizationService;
+  private LoanDetails loanDetails;
+
+  @Setup
+  public void setUp() {
+    context = BenchmarkApplication.start("amortization.cache.enabled=false");
+    amortizationService = context.getBean(AmortizationService.class);
+    loanDetails = BenchmarkApplication.createLoanDetails(monthlyPayments, balloon);
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public AmortizationSchedule calculateAmortizationSchedule() {
+    return amortizationService.calculateAmortizationSchedule(loanDetails, engine);
+  }
+}
@@ -0,0 +1,62 @@
+package com.example.amortizationschedule.benchmark;
+
+import com.example.amortizationschedule.model.AmortizationScheduleDetails;
+import com.example.amortizationschedule.service.AmortizationService;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Measures {@link AmortizationService#listAllAmortizationSchedulesDetails()} for a growing number
+ * of stored schedules. The schedules have a term of 12 months, which keeps the entry rows of the
+ * largest database within the heap of the benchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ListingBenchmark {
+
+  private static final int MONTHLY_PAYMENTS = 12;
+
+  @Param({"1000", "10000", "100000"})
+  private int storedSchedules;
+
+  private ConfigurableApplicationContext context;
+  private AmortizationService amortizationService;
+
+  @Setup
+  public void setUp() {
+    context = BenchmarkApplication.start();
+    amortizationService = context.getBean(AmortizationService.class);
+    for (int i = 0; i < storedSchedules; i++) {
+      amortizationService.createAmortizationSchedule(amortizationService
+          .calculateAmortizationSchedule(
+              BenchmarkApplication.createLoanDetails(MONTHLY_PAYMENTS, false)));
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public List<AmortizationScheduleDetails> listAllAmortizationSchedulesDetails() {
+    return amortizationService.listAllAmortizationSchedulesDetails();
+  }
+}
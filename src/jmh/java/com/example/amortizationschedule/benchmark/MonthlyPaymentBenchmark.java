@@ -0,0 +1,61 @@
+package com.example.amortizationschedule.benchmark;
+
+import com.example.amortizationschedule.service.MonthlyPaymentCalculator;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the monthly payment calculation, with and without a balloon payment, which are
+ * evaluated by separate helpers of {@link MonthlyPaymentCalculator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MonthlyPaymentBenchmark {
+
+  @Param({"12", "60", "120", "240", "360", "480"})
+  private int monthlyPayments;
+
+  @Param({"false", "true"})
+  private boolean balloon;
+
+  @Param({"34", "0"})
+  private int paymentPrecision;
+
+  private MonthlyPaymentCalculator monthlyPaymentCalculator;
+  private BigDecimal loanAmount;
+  private BigDecimal monthlyInterestRate;
+  private BigDecimal balloonPayment;
+
+  @Setup
+  public void setUp() {
+    monthlyPaymentCalculator = new MonthlyPaymentCalculator(
+        new MathContext(paymentPrecision, RoundingMode.HALF_EVEN));
+    loanAmount = BigDecimal.valueOf(270000);
+    monthlyInterestRate = monthlyPaymentCalculator
+        .calculateMonthlyInterestRate(BigDecimal.valueOf(4.5));
+    balloonPayment = balloon ? BigDecimal.valueOf(75000) : BigDecimal.ZERO;
+  }
+
+  @Benchmark
+  public BigDecimal calculateMonthlyPayment() {
+    return monthlyPaymentCalculator.calculateMonthlyPayment(balloonPayment, loanAmount,
+        monthlyInterestRate, monthlyPayments);
+  }
+}
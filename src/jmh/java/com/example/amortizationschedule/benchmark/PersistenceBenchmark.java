@@ -0,0 +1,76 @@
+package com.example.amortizationschedule.benchmark;
+
+import com.example.amortizationschedule.model.AmortizationSchedule;
+import com.example.amortizationschedule.model.StorageMode;
+import com.example.amortizationschedule.repository.AmortizationEntryRepository;
+import com.example.amortizationschedule.repository.AmortizationScheduleRepository;
+import com.example.amortizationschedule.repository.LoanDetailsRepository;
+import com.example.amortizationschedule.repository.PackedAmortizationEntriesRepository;
+import com.example.amortizationschedule.service.AmortizationService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Measures {@link AmortizationService#createAmortizationSchedule(AmortizationSchedule)} against
+ * the in-memory H2 database, for each storage mode. The schedule is calculated before each
+ * invocation, from the schedule cache, and the database is emptied after each iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersistenceBenchmark {
+
+  @Param({"ROWS", "PACKED", "RECOMPUTE"})
+  private StorageMode storageMode;
+
+  private ConfigurableApplicationContext context;
+  private AmortizationService amortizationService;
+  private AmortizationSchedule amortizationSchedule;
+
+  @Setup
+  public void setUp() {
+    context = BenchmarkApplication.start("amortization.storage.mode=" + storageMode);
+    amortizationService = context.getBean(AmortizationService.class);
+  }
+
+  @Setup(Level.Invocation)
+  public void calculateSchedule() {
+    // The created schedule and its loan details are assigned ids, so each invocation needs its own
+    amortizationSchedule = amortizationService.calculateAmortizationSchedule(
+        BenchmarkApplication.createLoanDetails(360, false));
+  }
+
+  @TearDown(Level.Iteration)
+  public void deleteSchedules() {
+    context.getBean(AmortizationScheduleRepository.class).deleteAllInBatch();
+    context.getBean(LoanDetailsRepository.class).deleteAllInBatch();
+    context.getBean(AmortizationEntryRepository.class).deleteAllInBatch();
+    context.getBean(PackedAmortizationEntriesRepository.class).deleteAllInBatch();
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public AmortizationSchedule createAmortizationSchedule() {
+    return amortizationService.createAmortizationSchedule(amortizationSchedule);
+  }
+}
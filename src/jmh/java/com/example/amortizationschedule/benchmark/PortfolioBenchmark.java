@@ -0,0 +1,143 @@
+package com.example.amortizationschedule.benchmark;
+
+import com.example.amortizationschedule.model.AmortizationSchedule;
+import com.example.amortizationschedule.model.PortfolioCashFlow;
+import com.example.amortizationschedule.model.PortfolioFilter;
+import com.example.amortizationschedule.service.AmortizationService;
+import com.example.amortizationschedule.service.PortfolioService;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Measures {@link PortfolioService#aggregateCashFlow(PortfolioFilter)} over a portfolio of a
+ * million loans in each storage mode. The loans are kept in a database file rather than in memory,
+ * and the benchmark runs with a heap of 512 MB, which is less than the loans and their entries
+ * would take if an aggregation held them, so the benchmark fails with an {@link OutOfMemoryError}
+ * if the memory of an aggregation grows with the number of loans.
+ *
+ * <p>A single schedule with a term of 12 months is created through the service, and copied with
+ * SQL into the other loans, each with its own loan amount so that recomputed schedules are not
+ * served from the schedule cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx512m")
+public class PortfolioBenchmark {
+
+  private static final int LOANS = 1_000_000;
+  private static final int MONTHLY_PAYMENTS = 12;
+  private static final int LOANS_PER_COPY = 10_000;
+  // The entry ids of a copy are offset by a multiple of a stride above the ids of the template
+  private static final int ENTRY_ID_STRIDE = 1_000;
+
+  @Param({"ROWS", "PACKED", "RECOMPUTE"})
+  private String storageMode;
+
+  private Path databaseDirectory;
+  private ConfigurableApplicationContext context;
+  private PortfolioService portfolioService;
+
+  @Setup
+  public void setUp() throws IOException {
+    databaseDirectory = Files.createTempDirectory("portfolio-benchmark");
+    context = BenchmarkApplication.start(
+        "spring.datasource.url=jdbc:h2:file:" + databaseDirectory.resolve("portfolio"),
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "amortization.storage.mode=" + storageMode);
+    portfolioService = context.getBean(PortfolioService.class);
+    AmortizationService amortizationService = context.getBean(AmortizationService.class);
+    AmortizationSchedule template = amortizationService.createAmortizationSchedule(
+        amortizationService.calculateAmortizationSchedule(
+            BenchmarkApplication.createLoanDetails(MONTHLY_PAYMENTS, false)));
+
+    JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+    for (int from = 1; from < LOANS; from += LOANS_PER_COPY) {
+      copyTemplate(jdbcTemplate, template, from, Math.min(from + LOANS_PER_COPY, LOANS) - 1);
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    context.close();
+    try (Stream<Path> files = Files.walk(databaseDirectory)) {
+      for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  @Benchmark
+  public PortfolioCashFlow aggregateCashFlow() {
+    return portfolioService.aggregateCashFlow(new PortfolioFilter());
+  }
+
+  /**
+   * Copies the template loan, its schedule and its entries into the loans of a range of copies.
+   *
+   * @param jdbcTemplate The template of the database of the application.
+   * @param template     The schedule to copy.
+   * @param from         The number of the first copy.
+   * @param to           The number of the last copy.
+   */
+  private static void copyTemplate(JdbcTemplate jdbcTemplate, AmortizationSchedule template,
+      int from, int to) {
+    long scheduleId = template.getId();
+    long loanId = template.getLoanDetails().getLoanId();
+    jdbcTemplate.update("""
+        insert into loan_details (loan_id, loan_amount, deposit_amount, interest_rate,
+            balloon_payment, monthly_payments)
+        select l.loan_id + r.x, l.loan_amount + r.x, l.deposit_amount, l.interest_rate,
+            l.balloon_payment, l.monthly_payments
+        from system_range(?, ?) r, loan_details l
+        where l.loan_id = ?""", from, to, loanId);
+    jdbcTemplate.update("""
+        insert into amortization_schedule (id, loan_id, storage_mode, engine_version,
+            payment_precision)
+        select s.id + r.x, s.loan_id + r.x, s.storage_mode, s.engine_version, s.payment_precision
+        from system_range(?, ?) r, amortization_schedule s
+        where s.id = ?""", from, to, scheduleId);
+    jdbcTemplate.update("""
+        insert into packed_amortization_entries (schedule_id, entries, entry_count,
+            monthly_repayment, total_interest_due, total_payments_due)
+        select p.schedule_id + r.x, p.entries, p.entry_count, p.monthly_repayment,
+            p.total_interest_due, p.total_payments_due
+        from system_range(?, ?) r, packed_amortization_entries p
+        where p.schedule_id = ?""", from, to, scheduleId);
+    jdbcTemplate.update("""
+        insert into amortization_entry (id, period, monthly_payment, interest_payment,
+            principal_payment, remaining_balance)
+        select e.id + r.x * ?, e.period, e.monthly_payment, e.interest_payment,
+            e.principal_payment, e.remaining_balance
+        from system_range(?, ?) r, amortization_schedule_amortization_entries j
+        join amortization_entry e on e.id = j.amortization_entries_id
+        where j.amortization_schedule_id = ?""", ENTRY_ID_STRIDE, from, to, scheduleId);
+    jdbcTemplate.update("""
+        insert into amortization_schedule_amortization_entries (amortization_schedule_id,
+            amortization_entries_id, entry_index)
+        select j.amortization_schedule_id + r.x, j.amortization_entries_id + r.x * ?,
+            j.entry_index
+        from system_range(?, ?) r, amortization_schedule_amortization_entries j
+        where j.amortization_schedule_id = ?""", ENTRY_ID_STRIDE, from, to, scheduleId);
+  }
+}
@@ -0,0 +1,99 @@
+package com.example.amortizationschedule.benchmark;
+
+import com.example.amortizationschedule.service.MonthlyPaymentCalculator;
+import com.example.amortizationschedule.service.QuoteEngine;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures quoting a grid of candidate loans, amounts by interest rates by terms of 12 to 480
+ * months, with the {@link QuoteEngine}, vectorized or one candidate at a time, against the
+ * {@link BigDecimal} path that calculates the payment of each candidate with
+ * {@link MonthlyPaymentCalculator} and its total interest from it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class QuoteBenchmark {
+
+  private static final int TERMS = 40;
+  private static final int INTEREST_RATES = 32;
+
+  @Param({"1", "8", "64"})
+  private int loanAmounts;
+
+  @Param({"VECTOR", "SCALAR", "BIG_DECIMAL"})
+  private String path;
+
+  private QuoteEngine quoteEngine;
+  private MonthlyPaymentCalculator monthlyPaymentCalculator;
+  private double[] balances;
+  private double[] interestRates;
+  private double[] terms;
+  private double[] monthlyRepayments;
+  private double[] totalInterestDue;
+
+  @Setup
+  public void setUp() {
+    quoteEngine = new QuoteEngine(path.equals("VECTOR"));
+    if (path.equals("VECTOR") && !quoteEngine.isVectorized()) {
+      throw new IllegalStateException("The jdk.incubator.vector module was not added");
+    }
+    monthlyPaymentCalculator = new MonthlyPaymentCalculator(
+        new MathContext(34, RoundingMode.HALF_EVEN));
+
+    int length = loanAmounts * INTEREST_RATES * TERMS;
+    balances = new double[length];
+    interestRates = new double[length];
+    terms = new double[length];
+    monthlyRepayments = new double[length];
+    totalInterestDue = new double[length];
+    int candidate = 0;
+    for (int amount = 0; amount < loanAmounts; amount++) {
+      for (int rate = 0; rate < INTEREST_RATES; rate++) {
+        for (int term = 0; term < TERMS; term++) {
+          balances[candidate] = 50000 + amount * 5000;
+          interestRates[candidate] = 1 + rate * 0.25;
+          terms[candidate] = 12 + term * 12;
+          candidate++;
+        }
+      }
+    }
+  }
+
+  @Benchmark
+  public double[] quote() {
+    if (!path.equals("BIG_DECIMAL")) {
+      quoteEngine.quote(balances, interestRates, terms, monthlyRepayments, totalInterestDue);
+      return totalInterestDue;
+    }
+
+    for (int i = 0; i < balances.length; i++) {
+      BigDecimal balance = BigDecimal.valueOf(balances[i]);
+      BigDecimal monthlyInterestRate = monthlyPaymentCalculator
+          .calculateMonthlyInterestRate(BigDecimal.valueOf(interestRates[i]));
+      BigDecimal monthlyPayment = monthlyPaymentCalculator.calculateMonthlyPayment(null, balance,
+          monthlyInterestRate, (int) terms[i]);
+      monthlyRepayments[i] = monthlyPayment.doubleValue();
+      totalInterestDue[i] = monthlyPayment.multiply(BigDecimal.valueOf(terms[i]))
+          .subtract(balance).doubleValue();
+    }
+    return totalInterestDue;
+  }
+}
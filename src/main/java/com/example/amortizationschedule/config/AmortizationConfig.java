@@ -0,0 +1,43 @@
+package com.example.amortizationschedule.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class AmortizationConfig {
+
+  /**
+   * The pool that the independent calculations of a batch are spread across, kept separate from
+   * the common pool so that batches cannot starve other parallel work.
+   *
+   * @param amortizationProperties The amortization configuration.
+   * @return The batch calculation pool.
+   */
+  @Bean(destroyMethod = "shutdown")
+  public ForkJoinPool amortizationBatchPool(AmortizationProperties amortizationProperties) {
+    return new ForkJoinPool(amortizationProperties.getBatch().getParallelism());
+  }
+
+  /**
+   * The pool that runs schedule jobs, with a bounded queue, so that long calculations neither hold
+   * the threads serving requests nor pile up without limit.
+   *
+   * @param amortizationProperties The amortization configuration.
+   * @return The job pool.
+   */
+  @Bean(destroyMethod = "shutdownNow")
+  public ThreadPoolExecutor amortizationJobExecutor(AmortizationProperties amortizationProperties) {
+    AmortizationProperties.Jobs jobs = amortizationProperties.getJobs();
+    AtomicInteger threadNumber = new AtomicInteger();
+    return new ThreadPoolExecutor(jobs.getWorkers(), jobs.getWorkers(), 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(jobs.getQueueCapacity()),
+        runnable -> new Thread(runnable, "amortization-job-" + threadNumber.incrementAndGet()));
+  }
+}
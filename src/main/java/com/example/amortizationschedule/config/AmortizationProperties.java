@@ -0,0 +1,308 @@
+package com.example.amortizationschedule.config;
+
+import com.example.amortizationschedule.model.ExportFormat;
+import com.example.amortizationschedule.model.StorageMode;
+import com.example.amortizationschedule.service.CalculationEngine;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuration for the amortization calculation and persistence, bound from the
+ * {@code amortization.*} properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "amortization")
+public class AmortizationProperties {
+
+  /**
+   * The engine used when a caller does not select one explicitly.
+   */
+  private CalculationEngine engine = CalculationEngine.BIG_DECIMAL;
+
+  /**
+   * The number of significant digits of the annuity factor {@code (1 + r)^n}, or 0 to evaluate it
+   * exactly.
+   */
+  private int paymentPrecision = 34;
+
+  private final Batch batch = new Batch();
+
+  private final Listing listing = new Listing();
+
+  private final Cache cache = new Cache();
+
+  private final AnnuityFactors annuityFactors = new AnnuityFactors();
+
+  private final Storage storage = new Storage();
+
+  private final WriteBehind writeBehind = new WriteBehind();
+
+  private final Portfolio portfolio = new Portfolio();
+
+  private final Sweep sweep = new Sweep();
+
+  private final ResponseCache responseCache = new ResponseCache();
+
+  private final LoanTape loanTape = new LoanTape();
+
+  private final Export export = new Export();
+
+  private final Admission admission = new Admission();
+
+  private final Jobs jobs = new Jobs();
+
+  @Data
+  public static class Batch {
+
+    /**
+     * The number of threads that calculate the loans of a batch.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The largest number of loans accepted in a single batch.
+     */
+    private int maxSize = 10_000;
+  }
+
+  @Data
+  public static class Listing {
+
+    /**
+     * The number of schedules in a page when a caller does not give a limit.
+     */
+    private int defaultPageSize = 100;
+
+    /**
+     * The largest number of schedules in a page.
+     */
+    private int maxPageSize = 1_000;
+  }
+
+  @Data
+  public static class Cache {
+
+    /**
+     * Whether calculated schedules are cached by the terms of the loan.
+     */
+    private boolean enabled = true;
+
+    /**
+     * The largest total number of periods held by the schedule cache.
+     */
+    private long maximumPeriods = 250_000;
+  }
+
+  @Data
+  public static class AnnuityFactors {
+
+    /**
+     * Whether the annuity factors are cached by monthly interest rate and term.
+     */
+    private boolean enabled = true;
+
+    /**
+     * The largest number of cached annuity factors.
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * The yearly interest rates, as percentages, whose factors are cached at startup for every
+     * term of {@code warm-up-terms}.
+     */
+    private List<BigDecimal> warmUpInterestRates = new ArrayList<>();
+
+    /**
+     * The terms in months whose factors are cached at startup for every rate of
+     * {@code warm-up-interest-rates}.
+     */
+    private List<Integer> warmUpTerms = new ArrayList<>();
+  }
+
+  @Data
+  public static class Storage {
+
+    /**
+     * How the entries of newly created schedules are persisted.
+     */
+    private StorageMode mode = StorageMode.ROWS;
+
+    /**
+     * Whether schedules stored as rows are packed when the application starts.
+     */
+    private boolean migrateOnStartup = false;
+  }
+
+  @Data
+  public static class WriteBehind {
+
+    /**
+     * Whether {@code /create} returns the calculated schedule before it is persisted.
+     */
+    private boolean enabled = false;
+
+    /**
+     * The largest number of schedules waiting to be persisted.
+     */
+    private int queueCapacity = 10_000;
+
+    /**
+     * The largest number of schedules persisted in a single transaction.
+     */
+    private int batchSize = 100;
+
+    /**
+     * How long a request waits for room in a full queue before it persists its schedule itself.
+     */
+    private Duration offerTimeout = Duration.ofMillis(500);
+  }
+
+  @Data
+  public static class Portfolio {
+
+    /**
+     * The number of loans read from the database and aggregated in parallel at a time, which
+     * bounds the memory of an aggregation however many loans it covers.
+     */
+    private int pageSize = 1_000;
+  }
+
+  @Data
+  public static class Sweep {
+
+    /**
+     * The largest number of interest rate and term combinations accepted in a single sweep.
+     */
+    private int maxCells = 10_000;
+  }
+
+  @Data
+  public static class ResponseCache {
+
+    /**
+     * Whether the JSON of schedules read by id is cached.
+     */
+    private boolean enabled = true;
+
+    /**
+     * The largest total size of the cached JSON.
+     */
+    private DataSize maximumSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Whether the cached JSON is also compressed with gzip, for clients that accept it.
+     */
+    private boolean gzip = false;
+  }
+
+  @Data
+  public static class LoanTape {
+
+    /**
+     * The path of a loan tape to import when the application starts, if any.
+     */
+    private String file;
+
+    /**
+     * The largest number of loans waiting between two stages of an import.
+     */
+    private int queueCapacity = 10_000;
+
+    /**
+     * The largest number of imported schedules persisted in a single transaction.
+     */
+    private int batchSize = 100;
+
+    /**
+     * The largest number of failed rows listed in the report of an import.
+     */
+    private int maxReportedErrors = 1_000;
+
+    /**
+     * The number of created schedules between two progress messages of an import.
+     */
+    private long progressInterval = 100_000;
+  }
+
+  @Data
+  public static class Export {
+
+    /**
+     * When the stored schedules are exported, as a cron expression; {@code -} never exports them.
+     */
+    private String cron = "-";
+
+    /**
+     * The directory that each export is written to a new subdirectory of.
+     */
+    private String directory = "export";
+
+    /**
+     * Whether entries are exported as CSV rows or as one binary file per column.
+     */
+    private ExportFormat format = ExportFormat.CSV;
+
+    /**
+     * The size of the buffer of each file being written.
+     */
+    private DataSize bufferSize = DataSize.ofKilobytes(256);
+  }
+
+  @Data
+  public static class Admission {
+
+    /**
+     * Whether calculation requests are admitted by their cost.
+     */
+    private boolean enabled = true;
+
+    /**
+     * The largest cost, as counted by {@code CalculationAdmission.cost}, of a single request.
+     */
+    private int maxRequestCost = 100_000;
+
+    /**
+     * The largest cost of all requests in flight together.
+     */
+    private int maxInFlightCost = 4_000_000;
+
+    /**
+     * The largest number of requests waiting for the in-flight budget.
+     */
+    private int maxQueued = 64;
+
+    /**
+     * How long a request waits for the in-flight budget before it is rejected.
+     */
+    private Duration maxWait = Duration.ofSeconds(2);
+  }
+
+  @Data
+  public static class Jobs {
+
+    /**
+     * The number of threads that run schedule jobs, apart from the threads serving requests.
+     */
+    private int workers = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The largest number of jobs waiting for a worker.
+     */
+    private int queueCapacity = 1_000;
+
+    /**
+     * How long a job may run before it is stopped.
+     */
+    private Duration timeout = Duration.ofMinutes(5);
+
+    /**
+     * How long a job can be looked up after it was submitted or finished.
+     */
+    private Duration retention = Duration.ofHours(1);
+  }
+}
@@ -1,20 +1,57 @@
 package com.example.amortizationschedule.controller;
 
+import com.example.amortizationschedule.config.AmortizationProperties;
+import com.example.amortizationschedule.model.AmortizationEntry;
 import com.example.amortizationschedule.model.AmortizationSchedule;
 import com.example.amortizationschedule.model.AmortizationScheduleDetails;
+import com.example.amortizationschedule.model.BatchCalculationResult;
+import com.example.amortizationschedule.model.ImportReport;
 import com.example.amortizationschedule.model.LoanDetails;
+import com.example.amortizationschedule.model.PortfolioCashFlow;
+import com.example.amortizationschedule.model.PortfolioFilter;
+import com.example.amortizationschedule.model.ScheduleChange;
+import com.example.amortizationschedule.model.ScheduleJob;
+import com.example.amortizationschedule.model.ScheduleCacheStatistics;
+import com.example.amortizationschedule.model.SweepRequest;
+import com.example.amortizationschedule.model.SweepResult;
 import com.example.amortizationschedule.repository.AmortizationScheduleRepository;
+import com.example.amortizationschedule.service.AmortizationMetrics;
 import com.example.amortizationschedule.service.AmortizationService;
+import com.example.amortizationschedule.service.LoanTapeImporter;
+import com.example.amortizationschedule.service.PortfolioService;
+import com.example.amortizationschedule.service.ScheduleCache;
+import com.example.amortizationschedule.service.ScheduleJobService;
+import com.example.amortizationschedule.service.ScheduleResponseCache;
+import com.example.amortizationschedule.service.SweepService;
+import com.example.amortizationschedule.service.WriteBehindScheduleWriter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/amortization-schedule")
@@ -23,23 +60,249 @@ public class AmortizationController {
 
   private final AmortizationService amortizationService;
   private final AmortizationScheduleRepository amortizationScheduleRepository;
+  private final AmortizationProperties amortizationProperties;
+  private final ScheduleCache scheduleCache;
+  private final ObjectMapper objectMapper;
+  private final AmortizationMetrics amortizationMetrics;
+  private final WriteBehindScheduleWriter writeBehindScheduleWriter;
+  private final PortfolioService portfolioService;
+  private final SweepService sweepService;
+  private final ScheduleResponseCache scheduleResponseCache;
+  private final LoanTapeImporter loanTapeImporter;
+  private final ScheduleJobService scheduleJobService;
 
   @PostMapping("/create")
   public ResponseEntity<AmortizationSchedule> create(@RequestBody LoanDetails loanDetails) {
-    var amortizationSchedule = amortizationService.calculateAmortizationSchedule(loanDetails);
-    return ResponseEntity.ok(amortizationService.createAmortizationSchedule(amortizationSchedule));
+    amortizationMetrics.recordMonthlyPayments("create", loanDetails.getMonthlyPayments());
+    var amortizationSchedule = amortizationMetrics.timeCreate("calculate",
+        () -> amortizationService.calculateAmortizationSchedule(loanDetails));
+    if (writeBehindScheduleWriter.isEnabled()) {
+      amortizationMetrics.timeCreate("enqueue",
+          () -> writeBehindScheduleWriter.enqueue(amortizationSchedule));
+      return ResponseEntity.ok(amortizationSchedule);
+    }
+    return ResponseEntity.ok(amortizationMetrics.timeCreate("persist",
+        () -> amortizationService.createAmortizationSchedule(amortizationSchedule)));
+  }
+
+  @PostMapping("/create/summary")
+  public ResponseEntity<AmortizationScheduleDetails> createSummary(
+      @RequestBody LoanDetails loanDetails) {
+    amortizationMetrics.recordMonthlyPayments("create_summary", loanDetails.getMonthlyPayments());
+    return ResponseEntity.ok(amortizationMetrics.timeCreate("summary",
+        () -> amortizationService.createAmortizationScheduleSummary(loanDetails)));
+  }
+
+  @PostMapping(value = "/create", params = "async=true")
+  public ResponseEntity<ScheduleJob> createAsync(@RequestBody LoanDetails loanDetails) {
+    amortizationMetrics.recordMonthlyPayments("create_async", loanDetails.getMonthlyPayments());
+    ScheduleJob job = scheduleJobService.submitJob(loanDetails);
+    return ResponseEntity.accepted()
+        .location(URI.create("/api/amortization-schedule/jobs/" + job.getId()))
+        .body(job);
+  }
+
+  @GetMapping("/jobs/{id}")
+  public ResponseEntity<ScheduleJob> getJob(@PathVariable String id) {
+    return scheduleJobService.findJob(id)
+        .map(ResponseEntity::ok)
+        .orElseGet(() -> ResponseEntity.notFound().build());
+  }
+
+  @DeleteMapping("/jobs/{id}")
+  public ResponseEntity<ScheduleJob> cancelJob(@PathVariable String id) {
+    return scheduleJobService.cancelJob(id)
+        .map(ResponseEntity::ok)
+        .orElseGet(() -> ResponseEntity.notFound().build());
+  }
+
+  @PostMapping("/batch")
+  public ResponseEntity<List<BatchCalculationResult>> batch(
+      @RequestBody List<LoanDetails> loanDetailsList) {
+    // A null loan is not recorded, and fails on its own in the results of the batch
+    loanDetailsList.stream()
+        .filter(Objects::nonNull)
+        .forEach(loanDetails -> amortizationMetrics.recordMonthlyPayments("batch",
+            loanDetails.getMonthlyPayments()));
+    return ResponseEntity.ok(amortizationService.calculateAmortizationSchedules(loanDetailsList));
+  }
+
+  @PostMapping("/sweep")
+  public ResponseEntity<List<SweepResult>> sweep(@RequestBody SweepRequest sweepRequest) {
+    return ResponseEntity.ok(sweepService.sweep(sweepRequest));
+  }
+
+  @PostMapping(value = "/import", consumes = "text/csv")
+  public ResponseEntity<ImportReport> importLoanTape(InputStream loanTape) throws IOException {
+    // The tape is read from a memory mapped file, so the body is copied to a file first
+    Path file = Files.createTempFile("loan-tape-", ".csv");
+    try {
+      Files.copy(loanTape, file, StandardCopyOption.REPLACE_EXISTING);
+      return ResponseEntity.ok(loanTapeImporter.importLoanTape(file));
+    } finally {
+      Files.deleteIfExists(file);
+    }
   }
 
   @GetMapping("/all")
-  public ResponseEntity<List<AmortizationScheduleDetails>> getAll() {
-    return ResponseEntity.ok(amortizationService.listAllAmortizationSchedulesDetails());
+  public ResponseEntity<List<AmortizationScheduleDetails>> getAll(
+      @RequestParam(required = false) Long after, @RequestParam(required = false) Integer limit) {
+    if (after == null && limit == null) {
+      return ResponseEntity.ok(amortizationService.listAllAmortizationSchedulesDetails());
+    }
+    if (limit != null && limit <= 0) {
+      return ResponseEntity.badRequest().build();
+    }
+    AmortizationProperties.Listing listing = amortizationProperties.getListing();
+    int pageSize = limit == null ? listing.getDefaultPageSize()
+        : Math.min(limit, listing.getMaxPageSize());
+    return ResponseEntity.ok(amortizationService
+        .listAmortizationSchedulesDetails(after == null ? 0 : after, pageSize));
   }
 
-  @GetMapping("/{id}")
-  public ResponseEntity<AmortizationSchedule> getScheduleById(@PathVariable Long id) {
-    Optional<AmortizationSchedule> optionalSchedule = amortizationScheduleRepository.findById(id);
-    return optionalSchedule.map(ResponseEntity::ok)
+  @GetMapping(value = "/all/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> streamAll() {
+    StreamingResponseBody body = outputStream -> {
+      try (SequenceWriter writer = objectMapper.writer()
+          .withRootValueSeparator("\n")
+          .writeValues(outputStream)) {
+        amortizationService.streamAllAmortizationSchedulesDetails(scheduleDetails -> {
+          try {
+            writer.write(scheduleDetails);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+      }
+    };
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+  }
+
+  @GetMapping("/portfolio/cash-flow")
+  public ResponseEntity<PortfolioCashFlow> getPortfolioCashFlow(PortfolioFilter portfolioFilter) {
+    return ResponseEntity.ok(portfolioService.aggregateCashFlow(portfolioFilter));
+  }
+
+  @GetMapping("/cache/statistics")
+  public ResponseEntity<ScheduleCacheStatistics> getCacheStatistics() {
+    return ResponseEntity.ok(scheduleCache.getStatistics());
+  }
+
+  @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<byte[]> getScheduleById(@PathVariable Long id,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+    Optional<ScheduleResponseCache.EncodedSchedule> optionalSchedule = scheduleResponseCache
+        .get(id, () -> amortizationService.findAmortizationSchedule(id));
+    if (optionalSchedule.isEmpty()) {
+      return ResponseEntity.notFound().build();
+    }
+
+    // A matching If-None-Match header turns the response into a 304 without a body
+    ScheduleResponseCache.EncodedSchedule encodedSchedule = optionalSchedule.get();
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_JSON)
+        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if (encodedSchedule.gzipJson() != null && acceptEncoding != null
+        && acceptEncoding.contains("gzip")) {
+      return response.eTag(encodedSchedule.gzipETag())
+          .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+          .body(encodedSchedule.gzipJson());
+    }
+    return response.eTag(encodedSchedule.eTag()).body(encodedSchedule.json());
+  }
+
+  @PostMapping("/{id}/changes")
+  public ResponseEntity<AmortizationSchedule> applyChange(@PathVariable Long id,
+      @RequestBody ScheduleChange scheduleChange) {
+    return amortizationService.applyScheduleChange(id, scheduleChange)
+        .map(ResponseEntity::ok)
+        .orElseGet(() -> ResponseEntity.notFound().build());
+  }
+
+  @GetMapping(value = "/{id}/entries",
+      produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+  public ResponseEntity<StreamingResponseBody> streamEntries(@PathVariable Long id,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+    if (!amortizationScheduleRepository.existsById(id)) {
+      return ResponseEntity.notFound().build();
+    }
+    // Newline-delimited entries unless a JSON array is asked for explicitly
+    boolean jsonArray = accept != null && MediaType.parseMediaTypes(accept).stream()
+        .anyMatch(MediaType.APPLICATION_JSON::equalsTypeAndSubtype);
+    StreamingResponseBody body = outputStream -> {
+      // An array left open by a failure is not closed, so that it does not read as complete
+      JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)
+          .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+      AtomicInteger lastPeriod = new AtomicInteger();
+      try (generator) {
+        generator.setRootValueSeparator(null);
+        if (jsonArray) {
+          generator.writeStartArray();
+        }
+        try {
+          amortizationService.streamAmortizationEntries(id, entry -> {
+            try {
+              writeEntry(generator, entry);
+              if (!jsonArray) {
+                generator.writeRaw('\n');
+              }
+              if (entry.getPeriod() == 1) {
+                // Sends the first entry right away, and the rest as the response buffer fills
+                generator.flush();
+              }
+              lastPeriod.set(entry.getPeriod());
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          });
+        } catch (RuntimeException e) {
+          // Once the first entry is sent the status can no longer change, so the failure ends the
+          // entries with an error record instead
+          if (!jsonArray && lastPeriod.get() > 0) {
+            generator.writeStartObject();
+            generator.writeStringField("error",
+                "Entries after period " + lastPeriod.get() + " could not be read");
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+          }
+          throw e;
+        }
+        if (jsonArray) {
+          generator.writeEndArray();
+        }
+      }
+    };
+    return ResponseEntity.ok()
+        .contentType(jsonArray ? MediaType.APPLICATION_JSON : MediaType.APPLICATION_NDJSON)
+        .body(body);
+  }
+
+  @GetMapping("/{id}/period/{period}")
+  public ResponseEntity<AmortizationEntry> getScheduleEntryByPeriod(@PathVariable Long id,
+      @PathVariable int period) {
+    return amortizationService.findAmortizationEntry(id, period)
+        .map(ResponseEntity::ok)
         .orElseGet(() -> ResponseEntity.notFound().build());
   }
-}
 
+  /**
+   * Writes an entry with the same fields as its Jackson serialization, without the reflective
+   * serializer lookup.
+   */
+  private static void writeEntry(JsonGenerator generator, AmortizationEntry entry)
+      throws IOException {
+    generator.writeStartObject();
+    generator.writeFieldName("id");
+    if (entry.getId() == null) {
+      generator.writeNull();
+    } else {
+      generator.writeNumber(entry.getId());
+    }
+    generator.writeNumberField("period", entry.getPeriod());
+    generator.writeNumberField("monthlyPayment", entry.getMonthlyPayment());
+    generator.writeNumberField("interestPayment", entry.getInterestPayment());
+    generator.writeNumberField("principalPayment", entry.getPrincipalPayment());
+    generator.writeNumberField("remainingBalance", entry.getRemainingBalance());
+    generator.writeEndObject();
+  }
+}
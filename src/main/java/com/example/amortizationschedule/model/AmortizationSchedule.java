@@ -1,7 +1,10 @@
 package com.example.amortizationschedule.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -9,6 +12,9 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.OrderColumn;
+import jakarta.persistence.SequenceGenerator;
+import java.math.BigDecimal;
 import java.util.List;
 import lombok.Data;
 
@@ -17,7 +23,8 @@ import lombok.Data;
 public class AmortizationSchedule {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "amortization_schedule_seq")
+  @SequenceGenerator(name = "amortization_schedule_seq", allocationSize = 50)
   private Long id;
 
   @OneToOne(cascade = {CascadeType.MERGE})
@@ -25,6 +32,34 @@ public class AmortizationSchedule {
   private LoanDetails loanDetails;
 
   @OneToMany(cascade = CascadeType.MERGE, fetch = FetchType.EAGER)
+  @OrderColumn(name = "entry_index")
   private List<AmortizationEntry> amortizationEntries;
+
+  @JsonIgnore
+  @Enumerated(EnumType.STRING)
+  private StorageMode storageMode;
+
+  @JsonIgnore
+  private Integer engineVersion;
+
+  /**
+   * The precision of the monthly payment calculation that created the schedule, or {@code null}
+   * if the schedule was created before the precision was recorded.
+   */
+  @JsonIgnore
+  private Integer paymentPrecision;
+
+  /**
+   * The first period whose entry no longer follows from the loan details, or {@code null} if no
+   * change was applied to the schedule.
+   */
+  @JsonIgnore
+  private Integer changedFromPeriod;
+
+  /**
+   * The yearly interest rate set by the latest change, or {@code null} if no change was applied.
+   */
+  @JsonIgnore
+  private BigDecimal changedInterestRate;
 }
 
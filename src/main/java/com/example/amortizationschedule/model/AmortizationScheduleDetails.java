@@ -6,6 +6,7 @@ import lombok.Data;
 @Data
 public class AmortizationScheduleDetails {
 
+  private Long scheduleId;
   private LoanDetails loanDetails;
   private BigDecimal monthlyRepayment;
   private BigDecimal totalInterestDue;
@@ -0,0 +1,41 @@
+package com.example.amortizationschedule.model;
+
+import java.math.BigDecimal;
+
+/**
+ * The loan details and payment totals of an amortization schedule, as aggregated by the database.
+ */
+public interface AmortizationScheduleSummary {
+
+  Long getScheduleId();
+
+  StorageMode getStorageMode();
+
+  Integer getEngineVersion();
+
+  Integer getPaymentPrecision();
+
+  Long getLoanId();
+
+  BigDecimal getLoanAmount();
+
+  BigDecimal getDepositAmount();
+
+  BigDecimal getInterestRate();
+
+  BigDecimal getBalloonPayment();
+
+  Integer getMonthlyPayments();
+
+  /**
+   * Returns the monthly payment of the first period. A change applied to the schedule later on
+   * does not alter it, and the payments in effect after the change are those of its entries.
+   *
+   * @return The monthly repayment, or {@code null} if the schedule has no entries.
+   */
+  BigDecimal getMonthlyRepayment();
+
+  BigDecimal getTotalInterestDue();
+
+  BigDecimal getTotalPaymentsDue();
+}
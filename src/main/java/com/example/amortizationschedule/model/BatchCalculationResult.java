@@ -0,0 +1,15 @@
+package com.example.amortizationschedule.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchCalculationResult {
+
+  private int index;
+  private AmortizationSchedule amortizationSchedule;
+  private String error;
+}
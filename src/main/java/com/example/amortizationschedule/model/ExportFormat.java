@@ -0,0 +1,19 @@
+package com.example.amortizationschedule.model;
+
+/**
+ * How the entries of the stored amortization schedules are written by an export.
+ */
+public enum ExportFormat {
+
+  /**
+   * One CSV row per entry, with its amounts in decimal notation.
+   */
+  CSV,
+
+  /**
+   * One little-endian binary file per entry field, holding a fixed-width value per entry: the
+   * schedule id as a 64-bit integer, the period as a 32-bit integer, and every amount as a 64-bit
+   * number of cents.
+   */
+  COLUMNAR
+}
@@ -0,0 +1,22 @@
+package com.example.amortizationschedule.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ExportReport {
+
+  private String directory;
+  private ExportFormat format;
+  private long schedulesExported;
+  private long entriesExported;
+
+  /**
+   * The number of recomputed schedules left out of the export, as they were created by another
+   * version of the calculation and their entries can no longer be reproduced.
+   */
+  private long schedulesSkipped;
+}
@@ -0,0 +1,14 @@
+package com.example.amortizationschedule.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportError {
+
+  private long line;
+  private String message;
+}
@@ -0,0 +1,21 @@
+package com.example.amortizationschedule.model;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The outcome of a loan tape import. Only the first failed rows are listed, up to
+ * {@code amortization.loan-tape.max-reported-errors}, while every one of them is counted.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportReport {
+
+  private long rowsRead;
+  private long schedulesCreated;
+  private long rowsFailed;
+  private List<ImportError> errors;
+}
@@ -0,0 +1,37 @@
+package com.example.amortizationschedule.model;
+
+/**
+ * The state of a schedule job.
+ */
+public enum JobStatus {
+
+  /**
+   * Waiting for a worker.
+   */
+  QUEUED,
+
+  /**
+   * Being calculated or persisted by a worker.
+   */
+  RUNNING,
+
+  /**
+   * The schedule was calculated and persisted.
+   */
+  SUCCEEDED,
+
+  /**
+   * The schedule could not be calculated or persisted.
+   */
+  FAILED,
+
+  /**
+   * Cancelled before it finished.
+   */
+  CANCELLED,
+
+  /**
+   * Stopped because it ran longer than the job timeout.
+   */
+  TIMED_OUT
+}
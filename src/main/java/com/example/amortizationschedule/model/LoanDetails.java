@@ -6,6 +6,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import java.math.BigDecimal;
 import lombok.Data;
 
@@ -14,7 +15,8 @@ import lombok.Data;
 public class LoanDetails {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "loan_details_seq")
+  @SequenceGenerator(name = "loan_details_seq", allocationSize = 50)
   @JsonProperty(access = Access.READ_ONLY)
   private Long loanId;
   private BigDecimal loanAmount;
@@ -0,0 +1,48 @@
+package com.example.amortizationschedule.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Transient;
+import java.math.BigDecimal;
+import lombok.Data;
+import org.springframework.data.domain.Persistable;
+
+@Data
+@Entity
+public class PackedAmortizationEntries implements Persistable<Long> {
+
+  @Id
+  private Long scheduleId;
+  private int entryCount;
+
+  @Lob
+  @Column(nullable = false)
+  private byte[] entries;
+  private BigDecimal monthlyRepayment;
+  private BigDecimal totalInterestDue;
+  private BigDecimal totalPaymentsDue;
+
+  // The id is assigned from the schedule, so saving a new row must not look it up first
+  @Transient
+  private boolean newEntity = true;
+
+  @Override
+  public Long getId() {
+    return scheduleId;
+  }
+
+  @Override
+  public boolean isNew() {
+    return newEntity;
+  }
+
+  @PostLoad
+  @PostPersist
+  void markNotNew() {
+    newEntity = false;
+  }
+}
@@ -0,0 +1,21 @@
+package com.example.amortizationschedule.model;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PortfolioCashFlow {
+
+  private long loanCount;
+
+  /**
+   * The number of loans left out of the sums, as their entries were calculated by another version
+   * of the calculation and can no longer be reproduced.
+   */
+  private long skippedLoanCount;
+  private List<PortfolioPeriod> periods;
+}
@@ -0,0 +1,16 @@
+package com.example.amortizationschedule.model;
+
+import java.math.BigDecimal;
+import lombok.Data;
+
+/**
+ * Selects the stored schedules of a portfolio. A criterion that is not set selects every
+ * schedule.
+ */
+@Data
+public class PortfolioFilter {
+
+  private BigDecimal minLoanAmount;
+  private BigDecimal maxLoanAmount;
+  private Integer monthlyPayments;
+}
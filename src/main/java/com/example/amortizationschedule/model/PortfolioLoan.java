@@ -0,0 +1,22 @@
+package com.example.amortizationschedule.model;
+
+import java.math.BigDecimal;
+import lombok.Value;
+
+/**
+ * The storage and loan details of a stored amortization schedule, as needed to aggregate its
+ * entries into a portfolio.
+ */
+@Value
+public class PortfolioLoan {
+
+  Long scheduleId;
+  StorageMode storageMode;
+  Integer engineVersion;
+  Integer paymentPrecision;
+  BigDecimal loanAmount;
+  BigDecimal depositAmount;
+  BigDecimal interestRate;
+  BigDecimal balloonPayment;
+  int monthlyPayments;
+}
@@ -0,0 +1,19 @@
+package com.example.amortizationschedule.model;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PortfolioPeriod {
+
+  private int period;
+  private long loanCount;
+  private BigDecimal monthlyPayment;
+  private BigDecimal interestPayment;
+  private BigDecimal principalPayment;
+  private BigDecimal remainingBalance;
+}
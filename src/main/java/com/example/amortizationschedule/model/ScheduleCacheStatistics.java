@@ -0,0 +1,17 @@
+package com.example.amortizationschedule.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ScheduleCacheStatistics {
+
+  private long hitCount;
+  private long missCount;
+  private long evictionCount;
+  private double hitRate;
+  private long estimatedSize;
+}
@@ -0,0 +1,32 @@
+package com.example.amortizationschedule.model;
+
+import java.math.BigDecimal;
+import lombok.Data;
+
+/**
+ * A change to the terms of a stored loan, taking effect at a given period. A term that is not set
+ * stays as it was before the change.
+ */
+@Data
+public class ScheduleChange {
+
+  /**
+   * The first period affected by the change, starting from 1.
+   */
+  private int period;
+
+  /**
+   * An extra payment that reduces the balance at the start of the period.
+   */
+  private BigDecimal extraPrincipal;
+
+  /**
+   * The new yearly interest rate as a percentage.
+   */
+  private BigDecimal interestRate;
+
+  /**
+   * The new number of monthly payments from the period onwards.
+   */
+  private Integer monthlyPayments;
+}
@@ -0,0 +1,26 @@
+package com.example.amortizationschedule.model;
+
+import java.time.Instant;
+import lombok.Data;
+
+/**
+ * A schedule created in the background, with the id of the schedule once it is stored or the
+ * reason it was not. The schedule itself is not kept with the job, so that finished jobs do not
+ * hold their entries for the retention period; it is read through its id instead.
+ */
+@Data
+public class ScheduleJob {
+
+  private String id;
+  private JobStatus status;
+  private Instant submittedAt;
+  private Instant startedAt;
+  private Instant finishedAt;
+  private String error;
+
+  /**
+   * The id of the stored schedule, also set when the job was stopped after its schedule was
+   * stored.
+   */
+  private Long scheduleId;
+}
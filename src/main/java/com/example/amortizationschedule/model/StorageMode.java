@@ -0,0 +1,22 @@
+package com.example.amortizationschedule.model;
+
+/**
+ * How the entries of an amortization schedule are persisted.
+ */
+public enum StorageMode {
+
+  /**
+   * One {@link AmortizationEntry} row per period, joined to the schedule.
+   */
+  ROWS,
+
+  /**
+   * All periods packed into a single binary column of {@link PackedAmortizationEntries}.
+   */
+  PACKED,
+
+  /**
+   * No entries at all; they are recalculated from the {@link LoanDetails} whenever they are read.
+   */
+  RECOMPUTE
+}
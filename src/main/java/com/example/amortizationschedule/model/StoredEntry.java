@@ -0,0 +1,20 @@
+package com.example.amortizationschedule.model;
+
+import java.math.BigDecimal;
+import lombok.Value;
+
+/**
+ * An entry stored as a row, together with the id of its schedule, as read by an export or a
+ * portfolio aggregation. It is created by a constructor expression rather than as a projection
+ * proxy, as a portfolio reads millions of them.
+ */
+@Value
+public class StoredEntry {
+
+  Long scheduleId;
+  int period;
+  BigDecimal monthlyPayment;
+  BigDecimal interestPayment;
+  BigDecimal principalPayment;
+  BigDecimal remainingBalance;
+}
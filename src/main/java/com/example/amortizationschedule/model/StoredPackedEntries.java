@@ -0,0 +1,12 @@
+package com.example.amortizationschedule.model;
+
+/**
+ * The packed entries of a schedule, read without managing a {@link PackedAmortizationEntries}
+ * entity.
+ */
+public interface StoredPackedEntries {
+
+  Long getScheduleId();
+
+  byte[] getEntries();
+}
@@ -0,0 +1,18 @@
+package com.example.amortizationschedule.model;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A cell of a sweep grid, given by its yearly interest rate and number of monthly payments.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SweepPoint {
+
+  private BigDecimal interestRate;
+  private int monthlyPayments;
+}
@@ -0,0 +1,23 @@
+package com.example.amortizationschedule.model;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+
+/**
+ * A loan evaluated over a grid of interest rates and terms. The interest rate and the number of
+ * monthly payments of the loan details are replaced by those of each cell.
+ */
+@Data
+public class SweepRequest {
+
+  private LoanDetails loanDetails;
+  private List<BigDecimal> interestRates = new ArrayList<>();
+  private List<Integer> monthlyPayments = new ArrayList<>();
+
+  /**
+   * The cells whose full schedules are returned along with their totals.
+   */
+  private List<SweepPoint> schedules = new ArrayList<>();
+}
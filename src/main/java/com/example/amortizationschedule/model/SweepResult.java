@@ -0,0 +1,19 @@
+package com.example.amortizationschedule.model;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SweepResult {
+
+  private BigDecimal interestRate;
+  private int monthlyPayments;
+  private BigDecimal monthlyRepayment;
+  private BigDecimal totalInterestDue;
+  private BigDecimal totalPaymentsDue;
+  private AmortizationSchedule amortizationSchedule;
+}
@@ -1,13 +1,147 @@
 package com.example.amortizationschedule.repository;
 
+import com.example.amortizationschedule.model.AmortizationEntry;
 import com.example.amortizationschedule.model.AmortizationSchedule;
+import com.example.amortizationschedule.model.AmortizationScheduleSummary;
+import com.example.amortizationschedule.model.LoanDetails;
+import com.example.amortizationschedule.model.PortfolioLoan;
+import com.example.amortizationschedule.model.StorageMode;
+import com.example.amortizationschedule.model.StoredEntry;
+import jakarta.persistence.QueryHint;
+import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface AmortizationScheduleRepository extends JpaRepository<AmortizationSchedule, Long> {
 
+  // The monthly repayment is the payment of the first period, even after a change
+  String SUMMARY_SELECT = """
+      select s.id as scheduleId, s.storageMode as storageMode, s.engineVersion as engineVersion,
+          s.paymentPrecision as paymentPrecision, l.loanId as loanId, l.loanAmount as loanAmount,
+          l.depositAmount as depositAmount, l.interestRate as interestRate,
+          l.balloonPayment as balloonPayment, l.monthlyPayments as monthlyPayments,
+          coalesce(max(case when e.period = 1 then e.monthlyPayment end), p.monthlyRepayment)
+              as monthlyRepayment,
+          coalesce(sum(e.interestPayment), p.totalInterestDue) as totalInterestDue,
+          coalesce(sum(e.monthlyPayment), p.totalPaymentsDue) as totalPaymentsDue
+      from AmortizationSchedule s
+      left join s.loanDetails l
+      left join s.amortizationEntries e
+      left join PackedAmortizationEntries p on p.scheduleId = s.id
+      """;
+
+  String SUMMARY_GROUP_BY = """
+      group by s.id, s.storageMode, s.engineVersion, s.paymentPrecision, l.loanId, l.loanAmount,
+          l.depositAmount, l.interestRate, l.balloonPayment, l.monthlyPayments, p.monthlyRepayment,
+          p.totalInterestDue, p.totalPaymentsDue
+      order by s.id
+      """;
+
+  String PORTFOLIO_LOAN_SELECT = """
+      select new com.example.amortizationschedule.model.PortfolioLoan(s.id, s.storageMode,
+          s.engineVersion, s.paymentPrecision, l.loanAmount, l.depositAmount, l.interestRate,
+          l.balloonPayment, l.monthlyPayments)
+      from AmortizationSchedule s
+      join s.loanDetails l
+      """;
+
   Optional<AmortizationSchedule> findById(Long id);
-}
 
+  @Query("""
+      select s.loanDetails from AmortizationSchedule s
+      where s.id = :id and (s.changedFromPeriod is null or s.changedFromPeriod > :period)
+          and (s.engineVersion is null or s.engineVersion = :engineVersion)
+          and (s.paymentPrecision is null or s.paymentPrecision = :paymentPrecision)""")
+  Optional<LoanDetails> findLoanDetailsUnchangedAtPeriod(@Param("id") Long id,
+      @Param("period") int period, @Param("engineVersion") int engineVersion,
+      @Param("paymentPrecision") int paymentPrecision);
+
+  @Query("select s.storageMode from AmortizationSchedule s where s.id = :id")
+  Optional<StorageMode> findStorageModeById(@Param("id") Long id);
+
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query("""
+      select new com.example.amortizationschedule.model.AmortizationEntry(e.id, e.period,
+          e.monthlyPayment, e.interestPayment, e.principalPayment, e.remainingBalance)
+      from AmortizationSchedule s
+      join s.amortizationEntries e
+      where s.id = :id
+      order by e.period""")
+  Stream<AmortizationEntry> streamEntriesById(@Param("id") Long id);
+
+  @Query(SUMMARY_SELECT + SUMMARY_GROUP_BY)
+  List<AmortizationScheduleSummary> findAllSummaries();
+
+  @Query(SUMMARY_SELECT + "where s.id > :after " + SUMMARY_GROUP_BY)
+  List<AmortizationScheduleSummary> findSummariesAfter(@Param("after") long after,
+      Pageable pageable);
+
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query(SUMMARY_SELECT + SUMMARY_GROUP_BY)
+  Stream<AmortizationScheduleSummary> streamAllSummaries();
+
+  @Query("""
+      select s.id from AmortizationSchedule s
+      where (s.storageMode is null or s.storageMode = :storageMode) and s.id > :after
+      order by s.id""")
+  List<Long> findIdsByStorageModeAfter(@Param("storageMode") StorageMode storageMode,
+      @Param("after") long after, Pageable pageable);
+
+  @Query(PORTFOLIO_LOAN_SELECT + """
+      where s.id > :after
+          and (:minLoanAmount is null or l.loanAmount >= :minLoanAmount)
+          and (:maxLoanAmount is null or l.loanAmount <= :maxLoanAmount)
+          and (:monthlyPayments is null or l.monthlyPayments = :monthlyPayments)
+      order by s.id""")
+  List<PortfolioLoan> findPortfolioLoansAfter(@Param("after") long after,
+      @Param("minLoanAmount") BigDecimal minLoanAmount,
+      @Param("maxLoanAmount") BigDecimal maxLoanAmount,
+      @Param("monthlyPayments") Integer monthlyPayments, Pageable pageable);
+
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query(PORTFOLIO_LOAN_SELECT + "order by s.id")
+  Stream<PortfolioLoan> streamAllPortfolioLoans();
+
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query("""
+      select new com.example.amortizationschedule.model.StoredEntry(s.id, e.period,
+          e.monthlyPayment, e.interestPayment, e.principalPayment, e.remainingBalance)
+      from AmortizationSchedule s
+      join s.amortizationEntries e
+      order by s.id, e.period""")
+  Stream<StoredEntry> streamAllStoredEntries();
+
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query("""
+      select new com.example.amortizationschedule.model.StoredEntry(s.id, e.period,
+          e.monthlyPayment, e.interestPayment, e.principalPayment, e.remainingBalance)
+      from AmortizationSchedule s
+      join s.amortizationEntries e
+      where s.id in :scheduleIds""")
+  Stream<StoredEntry> streamStoredEntriesByScheduleIds(
+      @Param("scheduleIds") List<Long> scheduleIds);
+}
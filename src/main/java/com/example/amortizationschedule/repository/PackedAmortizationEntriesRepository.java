@@ -0,0 +1,26 @@
+package com.example.amortizationschedule.repository;
+
+import com.example.amortizationschedule.model.PackedAmortizationEntries;
+import com.example.amortizationschedule.model.StoredPackedEntries;
+import jakarta.persistence.QueryHint;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PackedAmortizationEntriesRepository extends
+    JpaRepository<PackedAmortizationEntries, Long> {
+
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query("""
+      select p.scheduleId as scheduleId, p.entries as entries
+      from PackedAmortizationEntries p
+      order by p.scheduleId""")
+  Stream<StoredPackedEntries> streamAllStoredPackedEntries();
+}
@@ -0,0 +1,280 @@
+package com.example.amortizationschedule.service;
+
+import com.example.amortizationschedule.model.StorageMode;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records the Micrometer metrics of the stages of creating and listing amortization schedules.
+ *
+ * <p>Every timer publishes a percentile histogram, so latency objectives can be set per stage on
+ * the Prometheus endpoint. The persistence stages are timed inside the transaction that creates
+ * the schedule, while its inserts are sent when the transaction commits, so the
+ * {@value #CREATE_TIMER} timer of the {@code persist} phase, taken around the transaction, is the
+ * one that includes them.
+ */
+@Component
+@RequiredArgsConstructor
+public class AmortizationMetrics {
+
+  static final String CALCULATION_TIMER = "amortization.calculation";
+  static final String PERSISTENCE_TIMER = "amortization.persistence";
+  static final String LISTING_TIMER = "amortization.listing";
+  static final String CREATE_TIMER = "amortization.create";
+  static final String PERIODS_GENERATED_COUNTER = "amortization.periods.generated";
+  static final String ENTRIES_PERSISTED_COUNTER = "amortization.entries.persisted";
+  static final String MONTHLY_PAYMENTS_SUMMARY = "amortization.loan.monthly.payments";
+  static final String WRITE_BEHIND_QUEUE_GAUGE = "amortization.write.behind.queue";
+  static final String WRITE_BEHIND_FALLBACK_COUNTER = "amortization.write.behind.fallbacks";
+  static final String WRITE_BEHIND_FAILURE_COUNTER = "amortization.write.behind.failures";
+  static final String IMPORTED_ROWS_COUNTER = "amortization.import.rows";
+  static final String ADMISSION_QUEUE_GAUGE = "amortization.admission.queue";
+  static final String ADMISSION_IN_FLIGHT_GAUGE = "amortization.admission.in.flight.cost";
+  static final String ADMISSION_REJECTION_COUNTER = "amortization.admission.rejections";
+  static final String JOB_QUEUE_GAUGE = "amortization.jobs.queue";
+  static final String JOB_ACTIVE_GAUGE = "amortization.jobs.active";
+  static final String ANNUITY_FACTOR_CACHE = "amortization.annuity.factors";
+  static final String ANNUITY_FACTOR_HIT_RATE_GAUGE = "amortization.annuity.factors.hit.rate";
+
+  private final MeterRegistry meterRegistry;
+
+  /**
+   * Times the calculation of the entries of a schedule, which is skipped on a cache hit.
+   *
+   * @param engine      The engine used to evaluate the periods of the schedule.
+   * @param calculation The calculation.
+   * @param <T>         The type of the result of the calculation.
+   * @return The result of the calculation.
+   */
+  public <T> T timeCalculation(CalculationEngine engine, Supplier<T> calculation) {
+    return timer(CALCULATION_TIMER, "engine", engine).record(calculation);
+  }
+
+  /**
+   * Times a stage of persisting a schedule.
+   *
+   * @param stage       The stage, such as {@code entries} or {@code schedule}.
+   * @param persistence The persistence stage.
+   * @param <T>         The type of the result of the stage.
+   * @return The result of the stage.
+   */
+  public <T> T timePersistence(String stage, Supplier<T> persistence) {
+    return timer(PERSISTENCE_TIMER, "stage", stage).record(persistence);
+  }
+
+  /**
+   * Times a stage of persisting a schedule that has no result.
+   *
+   * @param stage       The stage, such as {@code loan_details}.
+   * @param persistence The persistence stage.
+   */
+  public void timePersistence(String stage, Runnable persistence) {
+    timer(PERSISTENCE_TIMER, "stage", stage).record(persistence);
+  }
+
+  /**
+   * Times the listing of schedule details.
+   *
+   * @param operation The listing operation, such as {@code all} or {@code page}.
+   * @param listing   The listing.
+   * @param <T>       The type of the result of the listing.
+   * @return The result of the listing.
+   */
+  public <T> T timeListing(String operation, Supplier<T> listing) {
+    return timer(LISTING_TIMER, "operation", operation).record(listing);
+  }
+
+  /**
+   * Times the listing of schedule details that are passed on rather than returned.
+   *
+   * @param operation The listing operation, such as {@code stream}.
+   * @param listing   The listing.
+   */
+  public void timeListing(String operation, Runnable listing) {
+    timer(LISTING_TIMER, "operation", operation).record(listing);
+  }
+
+  /**
+   * Times a phase of a request to create a schedule that has no result.
+   *
+   * @param phase    The phase, such as {@code enqueue}.
+   * @param creation The phase of the request.
+   */
+  public void timeCreate(String phase, Runnable creation) {
+    timer(CREATE_TIMER, "phase", phase).record(creation);
+  }
+
+  /**
+   * Times a phase of a request to create a schedule.
+   *
+   * @param phase    The phase, such as {@code calculate} or {@code persist}.
+   * @param creation The phase of the request.
+   * @param <T>      The type of the result of the phase.
+   * @return The result of the phase.
+   */
+  public <T> T timeCreate(String phase, Supplier<T> creation) {
+    return timer(CREATE_TIMER, "phase", phase).record(creation);
+  }
+
+  /**
+   * Counts the periods of a calculated schedule.
+   *
+   * @param periods The number of calculated periods.
+   */
+  public void recordPeriodsGenerated(int periods) {
+    Counter.builder(PERIODS_GENERATED_COUNTER)
+        .description("Periods of calculated amortization schedules")
+        .register(meterRegistry)
+        .increment(periods);
+  }
+
+  /**
+   * Counts the entries of a persisted schedule.
+   *
+   * @param storageMode The storage mode the entries were persisted with.
+   * @param entries     The number of persisted entries.
+   */
+  public void recordEntriesPersisted(StorageMode storageMode, int entries) {
+    Counter.builder(ENTRIES_PERSISTED_COUNTER)
+        .description("Entries of persisted amortization schedules")
+        .tag("storage", storageMode.name().toLowerCase(Locale.ROOT))
+        .register(meterRegistry)
+        .increment(entries);
+  }
+
+  /**
+   * Records the term of a loan of a request.
+   *
+   * @param endpoint        The endpoint that received the loan.
+   * @param monthlyPayments The number of monthly payments of the loan.
+   */
+  public void recordMonthlyPayments(String endpoint, int monthlyPayments) {
+    DistributionSummary.builder(MONTHLY_PAYMENTS_SUMMARY)
+        .description("Number of monthly payments of the requested loans")
+        .baseUnit("periods")
+        .tag("endpoint", endpoint)
+        .publishPercentileHistogram()
+        .register(meterRegistry)
+        .record(monthlyPayments);
+  }
+
+  /**
+   * Reports the number of schedules waiting to be persisted by the write-behind writer.
+   *
+   * @param queue The queue of the writer.
+   */
+  public void registerWriteBehindQueue(Collection<?> queue) {
+    Gauge.builder(WRITE_BEHIND_QUEUE_GAUGE, queue, Collection::size)
+        .description("Schedules waiting to be persisted")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Counts a schedule that was persisted by its request, because the write-behind queue was full
+   * or not running.
+   */
+  public void recordWriteBehindFallback() {
+    meterRegistry.counter(WRITE_BEHIND_FALLBACK_COUNTER).increment();
+  }
+
+  /**
+   * Counts a schedule that the write-behind writer could not persist.
+   */
+  public void recordWriteBehindFailure() {
+    meterRegistry.counter(WRITE_BEHIND_FAILURE_COUNTER).increment();
+  }
+
+  /**
+   * Reports the number of requests waiting for calculation capacity and the cost of the
+   * calculations in flight.
+   *
+   * @param waiting         The number of waiting requests.
+   * @param budget          The unused in-flight cost budget.
+   * @param maxInFlightCost The in-flight cost budget.
+   */
+  public void registerAdmission(AtomicInteger waiting, Semaphore budget, int maxInFlightCost) {
+    Gauge.builder(ADMISSION_QUEUE_GAUGE, waiting, AtomicInteger::get)
+        .description("Requests waiting for calculation capacity")
+        .register(meterRegistry);
+    Gauge.builder(ADMISSION_IN_FLIGHT_GAUGE, budget,
+            semaphore -> maxInFlightCost - semaphore.availablePermits())
+        .description("Periods of the calculations in flight")
+        .baseUnit("periods")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Counts a request that was rejected by admission control.
+   *
+   * @param reason Either {@code too_large} or {@code busy}.
+   */
+  public void recordAdmissionRejection(String reason) {
+    Counter.builder(ADMISSION_REJECTION_COUNTER)
+        .description("Calculation requests rejected by admission control")
+        .tag("reason", reason)
+        .register(meterRegistry)
+        .increment();
+  }
+
+  /**
+   * Reports the gets, hits, misses, evictions and size of the annuity factor cache as the
+   * {@value #ANNUITY_FACTOR_CACHE} cache, and its hit rate since startup.
+   *
+   * @param annuityFactorCache The annuity factor cache, which must record its statistics.
+   */
+  public void registerAnnuityFactorCache(Cache<?, ?> annuityFactorCache) {
+    CaffeineCacheMetrics.monitor(meterRegistry, annuityFactorCache, ANNUITY_FACTOR_CACHE);
+    Gauge.builder(ANNUITY_FACTOR_HIT_RATE_GAUGE, annuityFactorCache,
+            cache -> cache.stats().hitRate())
+        .description("Share of annuity factor lookups served from the cache")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Reports the number of schedule jobs waiting for a worker and the number being run.
+   *
+   * @param jobExecutor The job pool.
+   */
+  public void registerJobExecutor(ThreadPoolExecutor jobExecutor) {
+    Gauge.builder(JOB_QUEUE_GAUGE, jobExecutor, executor -> executor.getQueue().size())
+        .description("Schedule jobs waiting for a worker")
+        .register(meterRegistry);
+    Gauge.builder(JOB_ACTIVE_GAUGE, jobExecutor, ThreadPoolExecutor::getActiveCount)
+        .description("Schedule jobs being run")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Counts the rows of a loan tape import.
+   *
+   * @param outcome Whether the rows were {@code created} or {@code failed}.
+   * @param rows    The number of rows.
+   */
+  public void recordImportedRows(String outcome, long rows) {
+    Counter.builder(IMPORTED_ROWS_COUNTER)
+        .description("Rows of imported loan tapes")
+        .tag("outcome", outcome)
+        .register(meterRegistry)
+        .increment(rows);
+  }
+
+  private Timer timer(String name, String tagKey, Object tagValue) {
+    return Timer.builder(name)
+        .tag(tagKey, tagValue.toString().toLowerCase(Locale.ROOT))
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+  }
+}
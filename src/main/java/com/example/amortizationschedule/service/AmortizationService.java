@@ -1,16 +1,50 @@
 package com.example.amortizationschedule.service;
 
+import com.example.amortizationschedule.model.AmortizationEntry;
 import com.example.amortizationschedule.model.AmortizationSchedule;
 import com.example.amortizationschedule.model.AmortizationScheduleDetails;
+import com.example.amortizationschedule.model.BatchCalculationResult;
 import com.example.amortizationschedule.model.LoanDetails;
+import com.example.amortizationschedule.model.ScheduleChange;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface AmortizationService {
 
   AmortizationSchedule createAmortizationSchedule(AmortizationSchedule amortizationSchedule);
 
+  Optional<AmortizationSchedule> findAmortizationSchedule(Long id);
+
+  void streamAmortizationEntries(Long id, Consumer<AmortizationEntry> consumer);
+
+  Optional<AmortizationEntry> findAmortizationEntry(Long id, int period);
+
+  Optional<AmortizationSchedule> applyScheduleChange(Long id, ScheduleChange scheduleChange);
+
   AmortizationSchedule calculateAmortizationSchedule(LoanDetails loanDetails);
 
+  AmortizationSchedule calculateAmortizationSchedule(LoanDetails loanDetails,
+      CalculationEngine engine);
+
+  AmortizationScheduleDetails calculateAmortizationScheduleDetails(LoanDetails loanDetails);
+
+  AmortizationScheduleDetails createAmortizationScheduleSummary(LoanDetails loanDetails);
+
+  List<BatchCalculationResult> calculateAmortizationSchedules(List<LoanDetails> loanDetailsList);
+
+  Optional<AmortizationEntry> calculateAmortizationEntry(LoanDetails loanDetails, int period);
+
+  Optional<List<AmortizationEntry>> recalculateStoredEntries(LoanDetails loanDetails,
+      Integer engineVersion, Integer paymentPrecision);
+
+  Optional<List<AmortizationEntry>> recalculateStoredEntries(LoanDetails loanDetails,
+      Integer engineVersion, Integer paymentPrecision, CalculationAdmission.Wait wait);
+
   List<AmortizationScheduleDetails> listAllAmortizationSchedulesDetails();
+
+  List<AmortizationScheduleDetails> listAmortizationSchedulesDetails(long after, int limit);
+
+  void streamAllAmortizationSchedulesDetails(Consumer<AmortizationScheduleDetails> consumer);
 }
 
@@ -1,17 +1,36 @@
 package com.example.amortizationschedule.service;
 
+import com.example.amortizationschedule.config.AmortizationProperties;
 import com.example.amortizationschedule.model.AmortizationEntry;
 import com.example.amortizationschedule.model.AmortizationSchedule;
 import com.example.amortizationschedule.model.AmortizationScheduleDetails;
+import com.example.amortizationschedule.model.AmortizationScheduleSummary;
+import com.example.amortizationschedule.model.BatchCalculationResult;
 import com.example.amortizationschedule.model.LoanDetails;
+import com.example.amortizationschedule.model.ScheduleChange;
+import com.example.amortizationschedule.model.StorageMode;
 import com.example.amortizationschedule.repository.AmortizationEntryRepository;
 import com.example.amortizationschedule.repository.AmortizationScheduleRepository;
+import com.example.amortizationschedule.repository.PackedAmortizationEntriesRepository;
 import java.math.BigDecimal;
+import java.math.MathContext;
 import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Implementation of the {@link AmortizationService} interface.
@@ -22,135 +41,779 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class AmortizationServiceImpl implements AmortizationService {
 
-  private static final int INTEREST_ROUNDING_SCALE = 5;
-  private static final int INPUT_ROUNDING_SCALE = 15;
   private static final int OUTPUT_ROUNDING_SCALE = 2;
-  private static final int NUMBER_OF_MONTHS_IN_YEAR = 12;
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(AmortizationServiceImpl.class);
+
+  /**
+   * The version of the calculation stamped on every created schedule, next to the configured
+   * payment precision. It must be increased with any change to the calculation that changes the
+   * entries of a loan, as schedules stored with {@link StorageMode#RECOMPUTE} are only
+   * recalculated with the version and the precision that created them.
+   */
+  static final int ENGINE_VERSION = 1;
+
+  private final AmortizationProperties amortizationProperties;
+  private final MonthlyPaymentCalculator monthlyPaymentCalculator;
   private final LoanDetailsService loanDetailsService;
   private final AmortizationScheduleRepository amortizationScheduleRepository;
   private final AmortizationEntryRepository amortizationEntryRepository;
+  private final PackedAmortizationEntriesRepository packedAmortizationEntriesRepository;
+  private final ForkJoinPool amortizationBatchPool;
+  private final ScheduleCache scheduleCache;
+  private final ScheduleResponseCache scheduleResponseCache;
+  private final AmortizationMetrics amortizationMetrics;
+  private final CalculationAdmission calculationAdmission;
 
   /**
-   * Creates an amortization schedule.
+   * Creates an amortization schedule. The loan details, the entries and the schedule are written
+   * in a single transaction, so that their inserts are sent as JDBC batches when it commits. With
+   * the {@link StorageMode#PACKED} storage mode the entries are written as a single packed row
+   * instead of one row each, and with {@link StorageMode#RECOMPUTE} they are not written at all.
    *
    * @param amortizationSchedule The amortization schedule to create.
    * @return The created amortization schedule.
    */
   @Override
+  @Transactional
   public AmortizationSchedule createAmortizationSchedule(
       AmortizationSchedule amortizationSchedule) {
-    loanDetailsService.saveLoanDetails(amortizationSchedule.getLoanDetails());
-    amortizationSchedule.getAmortizationEntries().forEach(amortizationEntryRepository::save);
-    return amortizationScheduleRepository.save(amortizationSchedule);
+    amortizationMetrics.timePersistence("loan_details",
+        () -> loanDetailsService.saveLoanDetails(amortizationSchedule.getLoanDetails()));
+    StorageMode storageMode = amortizationProperties.getStorage().getMode();
+    if (storageMode != StorageMode.ROWS) {
+      return createScheduleWithoutEntryRows(amortizationSchedule, storageMode);
+    }
+    amortizationSchedule.setStorageMode(StorageMode.ROWS);
+    stampCalculationVersion(amortizationSchedule);
+    List<AmortizationEntry> amortizationEntries = amortizationSchedule.getAmortizationEntries();
+    amortizationMetrics.timePersistence("entries",
+        () -> amortizationEntryRepository.saveAll(amortizationEntries));
+    amortizationMetrics.recordEntriesPersisted(StorageMode.ROWS, amortizationEntries.size());
+    return amortizationMetrics.timePersistence("schedule",
+        () -> amortizationScheduleRepository.save(amortizationSchedule));
+  }
+
+  /**
+   * Finds an amortization schedule. The entries of a packed schedule are decoded when they are
+   * first read, and those of a recomputed schedule are recalculated, or served from the
+   * {@link ScheduleCache} if they were calculated recently.
+   *
+   * @param id The id of the amortization schedule.
+   * @return The amortization schedule, or an empty optional if there is none with the id.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public Optional<AmortizationSchedule> findAmortizationSchedule(Long id) {
+    return amortizationScheduleRepository.findById(id).map(this::withStoredEntries);
   }
 
   /**
-   * Calculates the amortization schedule for the provided loan details.
+   * Finds a single period of a stored amortization schedule. A period before the first change of
+   * a schedule created by the current version of the calculation with the configured payment
+   * precision follows from the loan details, so it is calculated on its own. Any other period is
+   * read from the stored or recalculated entries of the schedule, as created.
+   *
+   * @param id     The id of the amortization schedule.
+   * @param period The period of the entry.
+   * @return The entry, or an empty optional if there is no schedule with the id or it has no such
+   * period.
+   * @throws IllegalStateException If the schedule is stored with {@link StorageMode#RECOMPUTE} by
+   *                               another version of the calculation.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public Optional<AmortizationEntry> findAmortizationEntry(Long id, int period) {
+    return amortizationScheduleRepository.findLoanDetailsUnchangedAtPeriod(id, period,
+            ENGINE_VERSION, amortizationProperties.getPaymentPrecision())
+        .map(loanDetails -> calculateAmortizationEntry(loanDetails, period))
+        .orElseGet(() -> findAmortizationSchedule(id)
+            .flatMap(schedule -> schedule.getAmortizationEntries().stream()
+                .filter(entry -> entry.getPeriod() == period)
+                .findFirst()));
+  }
+
+  /**
+   * Passes the entries of an amortization schedule to a consumer in period order. Entry rows are
+   * read from a forward-only result set as unmanaged objects, so they are never collected in
+   * memory, packed entries are decoded one at a time, and the entries of a recomputed schedule are
+   * recalculated, or served from the {@link ScheduleCache}.
+   *
+   * @param id       The id of the amortization schedule.
+   * @param consumer The consumer of each entry.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public void streamAmortizationEntries(Long id, Consumer<AmortizationEntry> consumer) {
+    amortizationMetrics.timeListing("entries", () -> {
+      // Schedules stored before the storage mode was recorded are stored as rows
+      StorageMode storageMode = amortizationScheduleRepository.findStorageModeById(id)
+          .orElse(StorageMode.ROWS);
+      if (storageMode == StorageMode.PACKED) {
+        packedAmortizationEntriesRepository.findById(id).ifPresent(packedEntries ->
+            PackedEntryCodec.decode(packedEntries.getEntries(),
+                (period, payment, interest, principal, balance) -> consumer.accept(
+                    new AmortizationEntry(null, period, PackedEntryCodec.fromCents(payment),
+                        PackedEntryCodec.fromCents(interest), PackedEntryCodec.fromCents(principal),
+                        PackedEntryCodec.fromCents(balance)))));
+      } else if (storageMode == StorageMode.RECOMPUTE) {
+        findAmortizationSchedule(id).ifPresent(amortizationSchedule ->
+            amortizationSchedule.getAmortizationEntries().forEach(consumer));
+      } else {
+        try (Stream<AmortizationEntry> amortizationEntries = amortizationScheduleRepository
+            .streamEntriesById(id)) {
+          amortizationEntries.forEach(consumer);
+        }
+      }
+    });
+  }
+
+  /**
+   * Applies a change to the terms of a stored loan from a given period. The entries before the
+   * period are kept, and the entries from the period onwards are recalculated from the remaining
+   * balance of the period before it, less any extra principal, with the monthly payment
+   * re-amortized over the remaining term. The recalculated entries are written over the stored
+   * entries of the same periods, of which only those whose amounts differ are updated, and rows are
+   * only added or removed where the number of periods changes.
+   *
+   * <p>The loan details keep describing the original loan, so the schedule records the first
+   * period that no longer follows from them and the interest rate a later change continues with.
+   *
+   * @param id             The id of the amortization schedule.
+   * @param scheduleChange The change and the period it takes effect at.
+   * @return The changed amortization schedule, or an empty optional if there is none with the id.
+   * @throws IllegalArgumentException     If the schedule has no such period, the new term is not
+   *                                      positive, or the extra principal is negative or not less
+   *                                      than the remaining balance.
+   * @throws IllegalStateException        If the entries of the schedule are not stored as rows.
+   * @throws CalculationTooLargeException If the new term costs more than a single request may.
+   */
+  @Override
+  @Transactional
+  public Optional<AmortizationSchedule> applyScheduleChange(Long id,
+      ScheduleChange scheduleChange) {
+    return amortizationScheduleRepository.findById(id)
+        .map(amortizationSchedule -> applyScheduleChange(amortizationSchedule, scheduleChange));
+  }
+
+  /**
+   * Calculates the amortization schedule for the provided loan details, using the configured
+   * calculation engine.
    *
    * @param loanDetails The details of the loan including loan amount, interest rate, etc.
    * @return The list of amortization entries representing the schedule.
    */
   @Override
   public AmortizationSchedule calculateAmortizationSchedule(LoanDetails loanDetails) {
+    return calculateAmortizationSchedule(loanDetails, amortizationProperties.getEngine());
+  }
+
+  /**
+   * Calculates the amortization schedule for the provided loan details. The entries of loans with
+   * the same terms are served from the {@link ScheduleCache}.
+   *
+   * @param loanDetails The details of the loan including loan amount, interest rate, etc.
+   * @param engine      The engine used to evaluate the periods of the schedule.
+   * @return The list of amortization entries representing the schedule.
+   */
+  @Override
+  public AmortizationSchedule calculateAmortizationSchedule(LoanDetails loanDetails,
+      CalculationEngine engine) {
+    return calculateAmortizationSchedule(loanDetails, engine, CalculationAdmission.Wait.BOUNDED);
+  }
+
+  /**
+   * Calculates the amortization schedule for the provided loan details, waiting for the in-flight
+   * budget as long as the caller may. The entries of loans with the same terms are served from
+   * the {@link ScheduleCache}.
+   *
+   * @param loanDetails The details of the loan including loan amount, interest rate, etc.
+   * @param engine      The engine used to evaluate the periods of the schedule.
+   * @param wait        How long the calculation waits for the in-flight budget.
+   * @return The list of amortization entries representing the schedule.
+   */
+  private AmortizationSchedule calculateAmortizationSchedule(LoanDetails loanDetails,
+      CalculationEngine engine, CalculationAdmission.Wait wait) {
 
     validateLoanDetails(loanDetails);
 
-    BigDecimal yearlyInterestRateInDecimal = calculateYearlyInterestRate(
-        loanDetails.getInterestRate());
-    BigDecimal monthlyInterestRate = calculateMonthlyInterestRate(yearlyInterestRateInDecimal);
+    List<AmortizationEntry> amortizationEntries = scheduleCache.getEntries(loanDetails,
+        () -> amortizationMetrics.timeCalculation(engine,
+            () -> calculateScheduleEntries(loanDetails, engine, monthlyPaymentCalculator, wait)));
+
+    AmortizationSchedule amortizationSchedule = new AmortizationSchedule();
+    amortizationSchedule.setAmortizationEntries(amortizationEntries);
+    amortizationSchedule.setLoanDetails(loanDetails);
+    return amortizationSchedule;
+  }
+
+  /**
+   * Calculates the monthly repayment and the totals of a loan without creating its entries. The
+   * periods are evaluated in fixed point and summed in cents, unless they cannot be guaranteed to
+   * match the {@link BigDecimal} loop, in which case the entries are calculated and summed. Either
+   * way the figures are the ones listed for the same schedule once it is stored.
+   *
+   * @param loanDetails The details of the loan.
+   * @return The details of the loan, without a schedule id.
+   * @throws IllegalArgumentException If the loan details are invalid.
+   */
+  @Override
+  public AmortizationScheduleDetails calculateAmortizationScheduleDetails(
+      LoanDetails loanDetails) {
+    validateLoanDetails(loanDetails);
+    AmortizationScheduleDetails scheduleDetails = new AmortizationScheduleDetails();
+    scheduleDetails.setLoanDetails(loanDetails);
+
+    BigDecimal monthlyInterestRate = monthlyPaymentCalculator
+        .calculateMonthlyInterestRate(loanDetails.getInterestRate());
     BigDecimal remainingBalance = loanDetails.getLoanAmount()
         .subtract(loanDetails.getDepositAmount());
-    BigDecimal balloonPayment = loanDetails.getBalloonPayment();
-    int monthlyPayments = loanDetails.getMonthlyPayments();
+    BigDecimal monthlyPayment = monthlyPaymentCalculator.calculateMonthlyPayment(
+        loanDetails.getBalloonPayment(), remainingBalance, monthlyInterestRate,
+        loanDetails.getMonthlyPayments());
+    ScheduleTotals scheduleTotals = calculationAdmission.runAdmitted(
+            CalculationAdmission.cost(loanDetails, CalculationEngine.FIXED_POINT),
+            () -> ScheduleTotals.sumFixedPoint(remainingBalance, monthlyInterestRate,
+                monthlyPayment, loanDetails.getMonthlyPayments()))
+        .orElseGet(() -> ScheduleTotals.of(
+            calculateAmortizationSchedule(loanDetails).getAmortizationEntries()));
+    return withTotals(scheduleDetails, scheduleTotals);
+  }
 
-    BigDecimal monthlyPayment = calculateMonthlyPayment(balloonPayment, remainingBalance,
-        monthlyInterestRate, monthlyPayments);
+  /**
+   * Creates an amortization schedule without creating its entries, and returns its figures
+   * instead. The schedule is stored with the {@link StorageMode#RECOMPUTE} storage mode whatever
+   * the configured mode, so that no entries are ever written for it; they are recalculated if the
+   * schedule is read.
+   *
+   * @param loanDetails The details of the loan.
+   * @return The details of the created schedule.
+   * @throws IllegalArgumentException If the loan details are invalid.
+   */
+  @Override
+  @Transactional
+  public AmortizationScheduleDetails createAmortizationScheduleSummary(LoanDetails loanDetails) {
+    AmortizationScheduleDetails scheduleDetails = calculateAmortizationScheduleDetails(
+        loanDetails);
+    amortizationMetrics.timePersistence("loan_details",
+        () -> loanDetailsService.saveLoanDetails(loanDetails));
+    AmortizationSchedule storedSchedule = new AmortizationSchedule();
+    storedSchedule.setLoanDetails(loanDetails);
+    storedSchedule.setAmortizationEntries(new ArrayList<>());
+    storedSchedule.setStorageMode(StorageMode.RECOMPUTE);
+    stampCalculationVersion(storedSchedule);
+    amortizationMetrics.timePersistence("schedule",
+        () -> amortizationScheduleRepository.save(storedSchedule));
+    scheduleDetails.setScheduleId(storedSchedule.getId());
+    return scheduleDetails;
+  }
 
-    AmortizationSchedule amortizationSchedule = new AmortizationSchedule();
-    List<AmortizationEntry> amortizationEntries = new ArrayList<>();
 
-    for (int i = 1; i <= monthlyPayments; i++) {
-      BigDecimal interestPayment = remainingBalance.multiply(monthlyInterestRate);
-      BigDecimal principalPayment = calculatePrincipalPayment(monthlyPayment, interestPayment,
-          remainingBalance);
-      principalPayment = remainingBalance.min(principalPayment);
-      remainingBalance = remainingBalance.subtract(principalPayment);
-      AmortizationEntry entry = new AmortizationEntry();
-      entry.setPeriod(i);
-      entry.setMonthlyPayment(monthlyPayment.setScale(OUTPUT_ROUNDING_SCALE, RoundingMode.HALF_UP));
-      entry.setInterestPayment(
-          interestPayment.setScale(OUTPUT_ROUNDING_SCALE, RoundingMode.HALF_UP));
-      entry.setPrincipalPayment(
-          principalPayment.setScale(OUTPUT_ROUNDING_SCALE, RoundingMode.HALF_UP));
-      entry.setRemainingBalance(
-          remainingBalance.setScale(OUTPUT_ROUNDING_SCALE, RoundingMode.HALF_UP));
-      amortizationEntries.add(entry);
-      if (remainingBalance.compareTo(BigDecimal.ZERO) <= 0) {
-        break;
-      }
+  /**
+   * Calculates the amortization schedules of a batch of loans in parallel on the batch calculation
+   * pool. Every loan is admitted by its own cost as it is calculated, so the size of a batch is
+   * only bounded by {@code amortization.batch.max-size}. A loan that cannot be calculated, or costs
+   * more than a single request may, is reported in its own result and does not affect the rest of
+   * the batch.
+   *
+   * @param loanDetailsList The details of the loans to calculate.
+   * @return One result per loan, in the order of the loans, holding either the calculated schedule
+   * or the reason it could not be calculated.
+   * @throws CalculationTooLargeException If the batch holds more loans than allowed.
+   */
+  @Override
+  public List<BatchCalculationResult> calculateAmortizationSchedules(
+      List<LoanDetails> loanDetailsList) {
+    int maxSize = amortizationProperties.getBatch().getMaxSize();
+    if (loanDetailsList.size() > maxSize) {
+      throw new CalculationTooLargeException("A batch cannot contain more than " + maxSize
+          + " loans");
     }
 
-    amortizationSchedule.setAmortizationEntries(amortizationEntries);
-    amortizationSchedule.setLoanDetails(loanDetails);
-    return amortizationSchedule;
+    try {
+      return amortizationBatchPool.submit(() -> IntStream.range(0, loanDetailsList.size())
+          .parallel()
+          .mapToObj(i -> calculateBatchItem(i, loanDetailsList.get(i)))
+          .toList()).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Batch calculation was interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Batch calculation failed", e.getCause());
+    }
   }
 
   /**
-   * Retrieves a list of all amortization schedules with detailed information.
+   * Calculates a single period of the amortization schedule for the provided loan details, without
+   * evaluating the periods before it.
+   *
+   * <p>The balance after {@code k} periods follows from the annuity balance formula
+   * {@code B(k) = B(0) * (1 + r)^k - P * ((1 + r)^k - 1) / r}, evaluated exactly, so it is the same
+   * value the iterative calculation reaches. As the balance moves in one direction only, the
+   * schedule ends before the requested period exactly when the balance after the first or the
+   * previous period is no longer positive.
+   *
+   * @param loanDetails The details of the loan including loan amount, interest rate, etc.
+   * @param period      The period to calculate, starting from 1.
+   * @return The amortization entry for the period, or an empty optional if the schedule has no
+   * such period.
+   */
+  @Override
+  public Optional<AmortizationEntry> calculateAmortizationEntry(LoanDetails loanDetails,
+      int period) {
+
+    validateLoanDetails(loanDetails);
+
+    if (period < 1 || period > loanDetails.getMonthlyPayments()) {
+      return Optional.empty();
+    }
+
+    BigDecimal monthlyInterestRate = monthlyPaymentCalculator
+        .calculateMonthlyInterestRate(loanDetails.getInterestRate());
+    BigDecimal initialBalance = loanDetails.getLoanAmount()
+        .subtract(loanDetails.getDepositAmount());
+    BigDecimal monthlyPayment = monthlyPaymentCalculator.calculateMonthlyPayment(
+        loanDetails.getBalloonPayment(), initialBalance, monthlyInterestRate,
+        loanDetails.getMonthlyPayments());
+
+    BigDecimal openingBalance = calculateRemainingBalance(initialBalance, monthlyInterestRate,
+        monthlyPayment, period - 1);
+    if (period > 1 && (openingBalance.compareTo(BigDecimal.ZERO) <= 0
+        || calculateRemainingBalance(initialBalance, monthlyInterestRate, monthlyPayment, 1)
+        .compareTo(BigDecimal.ZERO) <= 0)) {
+      return Optional.empty();
+    }
+
+    BigDecimal interestPayment = openingBalance.multiply(monthlyInterestRate);
+    BigDecimal principalPayment = calculatePrincipalPayment(monthlyPayment, interestPayment,
+        openingBalance);
+    principalPayment = openingBalance.min(principalPayment);
+    BigDecimal remainingBalance = openingBalance.subtract(principalPayment);
+
+    AmortizationEntry entry = new AmortizationEntry();
+    entry.setPeriod(period);
+    entry.setMonthlyPayment(monthlyPayment.setScale(OUTPUT_ROUNDING_SCALE, RoundingMode.HALF_UP));
+    entry.setInterestPayment(interestPayment.setScale(OUTPUT_ROUNDING_SCALE, RoundingMode.HALF_UP));
+    entry.setPrincipalPayment(
+        principalPayment.setScale(OUTPUT_ROUNDING_SCALE, RoundingMode.HALF_UP));
+    entry.setRemainingBalance(
+        remainingBalance.setScale(OUTPUT_ROUNDING_SCALE, RoundingMode.HALF_UP));
+    return Optional.of(entry);
+  }
+
+  /**
+   * Recalculates the entries of a schedule stored with {@link StorageMode#RECOMPUTE} with the
+   * version of the calculation and the payment precision that created it. Schedules stored before
+   * the version was stamped were created by the first version, and those stored before the
+   * precision was recorded with the configured precision. Entries calculated with the configured
+   * precision are served from the {@link ScheduleCache}, and those of any other precision are
+   * calculated without it.
+   *
+   * @param loanDetails      The stored details of the loan.
+   * @param engineVersion    The version of the calculation that created the schedule.
+   * @param paymentPrecision The payment precision that created the schedule.
+   * @return The entries of the schedule, or an empty optional if it was created by another version
+   * of the calculation, whose entries can no longer be reproduced.
+   */
+  @Override
+  public Optional<List<AmortizationEntry>> recalculateStoredEntries(LoanDetails loanDetails,
+      Integer engineVersion, Integer paymentPrecision) {
+    return recalculateStoredEntries(loanDetails, engineVersion, paymentPrecision,
+        CalculationAdmission.Wait.BOUNDED);
+  }
+
+  /**
+   * Recalculates the entries of a schedule stored with {@link StorageMode#RECOMPUTE}, as
+   * {@link #recalculateStoredEntries(LoanDetails, Integer, Integer)} does, waiting for the
+   * in-flight budget as long as the caller may. Exports and aggregations, which recalculate one
+   * schedule after another, wait until the budget is free rather than fail partway.
+   *
+   * @param loanDetails      The stored details of the loan.
+   * @param engineVersion    The version of the calculation that created the schedule.
+   * @param paymentPrecision The payment precision that created the schedule.
+   * @param wait             How long the calculation waits for the in-flight budget.
+   * @return The entries of the schedule, or an empty optional if it was created by another version
+   * of the calculation, whose entries can no longer be reproduced.
+   */
+  @Override
+  public Optional<List<AmortizationEntry>> recalculateStoredEntries(LoanDetails loanDetails,
+      Integer engineVersion, Integer paymentPrecision, CalculationAdmission.Wait wait) {
+    if (engineVersion != null && engineVersion != ENGINE_VERSION) {
+      return Optional.empty();
+    }
+    if (paymentPrecision == null
+        || paymentPrecision == amortizationProperties.getPaymentPrecision()) {
+      return Optional.of(calculateAmortizationSchedule(loanDetails,
+          amortizationProperties.getEngine(), wait).getAmortizationEntries());
+    }
+
+    validateLoanDetails(loanDetails);
+    CalculationEngine engine = amortizationProperties.getEngine();
+    var storedPrecisionCalculator = new MonthlyPaymentCalculator(
+        new MathContext(paymentPrecision, RoundingMode.HALF_EVEN));
+    return Optional.of(amortizationMetrics.timeCalculation(engine,
+        () -> calculateScheduleEntries(loanDetails, engine, storedPrecisionCalculator, wait)));
+  }
+
+  /**
+   * Retrieves a list of all amortization schedules with detailed information. The monthly
+   * repayment and the totals are aggregated by the database, so the entries of the schedules are
+   * never loaded.
    *
    * @return A list of {@link AmortizationScheduleDetails} objects representing the details of each
    * amortization schedule.
    */
   @Override
   public List<AmortizationScheduleDetails> listAllAmortizationSchedulesDetails() {
-    List<AmortizationSchedule> schedules = amortizationScheduleRepository.findAll();
-    List<AmortizationScheduleDetails> scheduleDetailsList = new ArrayList<>();
+    return amortizationMetrics.timeListing("all",
+        () -> createScheduleDetailsList(amortizationScheduleRepository.findAllSummaries()));
+  }
+
+  /**
+   * Retrieves a page of amortization schedules with detailed information, ordered by schedule id.
+   * The page starts after a given schedule id rather than at an offset, so every page costs the
+   * same however far into the schedules it is.
+   *
+   * @param after The schedule id the page starts after, or 0 for the first page.
+   * @param limit The largest number of schedules in the page.
+   * @return A list of {@link AmortizationScheduleDetails} objects for the schedules of the page.
+   */
+  @Override
+  public List<AmortizationScheduleDetails> listAmortizationSchedulesDetails(long after,
+      int limit) {
+    return amortizationMetrics.timeListing("page",
+        () -> createScheduleDetailsList(amortizationScheduleRepository
+            .findSummariesAfter(after, PageRequest.of(0, limit))));
+  }
+
+  /**
+   * Passes the details of every amortization schedule to a consumer, ordered by schedule id, as
+   * they are read from a forward-only result set. The details are never collected in memory.
+   *
+   * @param consumer The consumer of the details of each schedule.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public void streamAllAmortizationSchedulesDetails(
+      Consumer<AmortizationScheduleDetails> consumer) {
+    amortizationMetrics.timeListing("stream", () -> {
+      try (Stream<AmortizationScheduleSummary> summaries = amortizationScheduleRepository
+          .streamAllSummaries()) {
+        summaries.map(this::createScheduleDetails).forEach(consumer);
+      }
+    });
+  }
 
-    for (AmortizationSchedule schedule : schedules) {
-      AmortizationScheduleDetails scheduleDetails = new AmortizationScheduleDetails();
+  /**
+   * Stores the schedule row without entry rows, followed by its packed entries if the storage mode
+   * is {@link StorageMode#PACKED}.
+   *
+   * @param amortizationSchedule The amortization schedule to create.
+   * @param storageMode          The storage mode of the schedule.
+   * @return The created amortization schedule, with the entries it was created with.
+   */
+  private AmortizationSchedule createScheduleWithoutEntryRows(
+      AmortizationSchedule amortizationSchedule, StorageMode storageMode) {
+    AmortizationSchedule storedSchedule = new AmortizationSchedule();
+    storedSchedule.setLoanDetails(amortizationSchedule.getLoanDetails());
+    storedSchedule.setAmortizationEntries(new ArrayList<>());
+    storedSchedule.setStorageMode(storageMode);
+    stampCalculationVersion(storedSchedule);
+    amortizationMetrics.timePersistence("schedule",
+        () -> amortizationScheduleRepository.save(storedSchedule));
 
-      LoanDetails loanDetails = schedule.getLoanDetails();
+    if (storageMode == StorageMode.PACKED) {
+      List<AmortizationEntry> amortizationEntries = amortizationSchedule.getAmortizationEntries();
+      amortizationMetrics.timePersistence("packed_entries",
+          () -> packedAmortizationEntriesRepository.save(
+              PackedEntryCodec.pack(storedSchedule.getId(), amortizationEntries)));
+      amortizationMetrics.recordEntriesPersisted(StorageMode.PACKED, amortizationEntries.size());
+    }
 
-      // Retrieve the first monthly payment (Its the same for each entry)
-      BigDecimal monthlyRepayment = schedule.getAmortizationEntries().isEmpty() ?
-          BigDecimal.ZERO : schedule.getAmortizationEntries().get(0).getMonthlyPayment();
+    amortizationSchedule.setId(storedSchedule.getId());
+    amortizationSchedule.setStorageMode(storageMode);
+    stampCalculationVersion(amortizationSchedule);
+    return amortizationSchedule;
+  }
 
-      // Calculate total interest due
-      BigDecimal totalInterestDue = schedule.getAmortizationEntries()
-          .stream()
-          .map(AmortizationEntry::getInterestPayment)
-          .reduce(BigDecimal.ZERO, BigDecimal::add);
+  /**
+   * Records the version of the calculation and the payment precision that create a schedule.
+   *
+   * @param amortizationSchedule The amortization schedule to create.
+   */
+  private void stampCalculationVersion(AmortizationSchedule amortizationSchedule) {
+    amortizationSchedule.setEngineVersion(ENGINE_VERSION);
+    amortizationSchedule.setPaymentPrecision(amortizationProperties.getPaymentPrecision());
+  }
 
-      // Calculate total payments due
-      BigDecimal totalPaymentsDue = schedule.getAmortizationEntries()
-          .stream()
-          .map(AmortizationEntry::getMonthlyPayment)
-          .reduce(BigDecimal.ZERO, BigDecimal::add);
+  /**
+   * Replaces the entries of a packed or recomputed schedule with its decoded or recalculated
+   * entries. The returned schedule is detached from the persistence context, so the stored schedule
+   * is left as it is.
+   *
+   * @param amortizationSchedule The stored amortization schedule.
+   * @return The amortization schedule with its entries.
+   */
+  private AmortizationSchedule withStoredEntries(AmortizationSchedule amortizationSchedule) {
+    StorageMode storageMode = amortizationSchedule.getStorageMode();
+    List<AmortizationEntry> amortizationEntries;
+    if (storageMode == StorageMode.PACKED) {
+      amortizationEntries = packedAmortizationEntriesRepository
+          .findById(amortizationSchedule.getId())
+          .<List<AmortizationEntry>>map(
+              packedEntries -> new PackedAmortizationEntryList(packedEntries.getEntries()))
+          .orElseGet(List::of);
+    } else if (storageMode == StorageMode.RECOMPUTE) {
+      amortizationEntries = recalculateStoredEntries(amortizationSchedule.getLoanDetails(),
+          amortizationSchedule.getEngineVersion(), amortizationSchedule.getPaymentPrecision())
+          .orElseThrow(() -> new IllegalStateException("Amortization schedule "
+              + amortizationSchedule.getId() + " was created by calculation engine version "
+              + amortizationSchedule.getEngineVersion() + ", but only version " + ENGINE_VERSION
+              + " is available"));
+    } else {
+      return amortizationSchedule;
+    }
 
-      scheduleDetails.setLoanDetails(loanDetails);
-      scheduleDetails.setMonthlyRepayment(monthlyRepayment
-          .setScale(OUTPUT_ROUNDING_SCALE, RoundingMode.HALF_UP));
-      scheduleDetails.setTotalInterestDue(totalInterestDue
-          .setScale(OUTPUT_ROUNDING_SCALE, RoundingMode.HALF_UP));
-      scheduleDetails.setTotalPaymentsDue(totalPaymentsDue
-          .setScale(OUTPUT_ROUNDING_SCALE, RoundingMode.HALF_UP));
+    AmortizationSchedule unpackedSchedule = new AmortizationSchedule();
+    unpackedSchedule.setId(amortizationSchedule.getId());
+    unpackedSchedule.setLoanDetails(amortizationSchedule.getLoanDetails());
+    unpackedSchedule.setAmortizationEntries(amortizationEntries);
+    unpackedSchedule.setStorageMode(storageMode);
+    unpackedSchedule.setEngineVersion(amortizationSchedule.getEngineVersion());
+    unpackedSchedule.setPaymentPrecision(amortizationSchedule.getPaymentPrecision());
+    return unpackedSchedule;
+  }
+
+  /**
+   * Recalculates the entries of a stored schedule from the period of a change.
+   *
+   * @param amortizationSchedule The stored amortization schedule.
+   * @param scheduleChange       The change and the period it takes effect at.
+   * @return The changed amortization schedule.
+   */
+  private AmortizationSchedule applyScheduleChange(AmortizationSchedule amortizationSchedule,
+      ScheduleChange scheduleChange) {
+    StorageMode storageMode = amortizationSchedule.getStorageMode();
+    if (storageMode != null && storageMode != StorageMode.ROWS) {
+      throw new IllegalStateException("Amortization schedule " + amortizationSchedule.getId()
+          + " is stored as " + storageMode + ", but only schedules stored as rows can be changed");
+    }
+
+    List<AmortizationEntry> storedEntries = amortizationSchedule.getAmortizationEntries();
+    int period = scheduleChange.getPeriod();
+    if (period < 1 || period > storedEntries.size()) {
+      throw new IllegalArgumentException("The amortization schedule has no period " + period);
+    }
+
+    LoanDetails loanDetails = amortizationSchedule.getLoanDetails();
+    BigDecimal remainingBalance = period == 1
+        ? loanDetails.getLoanAmount().subtract(loanDetails.getDepositAmount())
+        : storedEntries.get(period - 2).getRemainingBalance();
+    BigDecimal extraPrincipal = scheduleChange.getExtraPrincipal();
+    if (extraPrincipal != null) {
+      if (extraPrincipal.signum() < 0 || extraPrincipal.compareTo(remainingBalance) >= 0) {
+        throw new IllegalArgumentException(
+            "Extra principal cannot be negative and must be less than the remaining balance");
+      }
+      remainingBalance = remainingBalance.subtract(extraPrincipal);
+    }
+    int monthlyPayments = Objects.requireNonNullElse(scheduleChange.getMonthlyPayments(),
+        storedEntries.size() - period + 1);
+    if (monthlyPayments <= 0) {
+      throw new IllegalArgumentException("Monthly payments must be a positive integer");
+    }
+    // The changed periods are calculated with the BigDecimal loop
+    long changeCost = CalculationAdmission.cost(monthlyPayments, CalculationEngine.BIG_DECIMAL);
+    calculationAdmission.checkCost(changeCost);
+    BigDecimal interestRate = Objects.requireNonNullElse(scheduleChange.getInterestRate(),
+        Objects.requireNonNullElse(amortizationSchedule.getChangedInterestRate(),
+            loanDetails.getInterestRate()));
+
+    BigDecimal monthlyInterestRate = monthlyPaymentCalculator
+        .calculateMonthlyInterestRate(interestRate);
+    BigDecimal monthlyPayment = monthlyPaymentCalculator.calculateMonthlyPayment(
+        loanDetails.getBalloonPayment(), remainingBalance, monthlyInterestRate, monthlyPayments);
+    BigDecimal changedBalance = remainingBalance;
+    List<AmortizationEntry> changedEntries = calculationAdmission.runAdmitted(changeCost,
+        () -> calculateEntries(changedBalance, monthlyInterestRate, monthlyPayment,
+            monthlyPayments, period));
+    amortizationMetrics.recordPeriodsGenerated(changedEntries.size());
 
-      scheduleDetailsList.add(scheduleDetails);
+    int writtenEntries = amortizationMetrics.timePersistence("entries",
+        () -> replaceEntriesFrom(storedEntries, period, changedEntries));
+    amortizationMetrics.recordEntriesPersisted(StorageMode.ROWS, writtenEntries);
+
+    Integer changedFromPeriod = amortizationSchedule.getChangedFromPeriod();
+    amortizationSchedule.setChangedFromPeriod(changedFromPeriod == null ? period
+        : Math.min(changedFromPeriod, period));
+    amortizationSchedule.setChangedInterestRate(interestRate);
+    scheduleResponseCache.invalidate(amortizationSchedule.getId());
+    return amortizationSchedule;
+  }
+
+  /**
+   * Writes recalculated entries over the stored entries from a period onwards. A stored entry is
+   * only updated if one of its amounts differs, stored entries past the end of the recalculated
+   * ones are removed, and recalculated entries past the end of the stored ones are added.
+   *
+   * @param storedEntries  The stored entries of the schedule, in period order.
+   * @param period         The period of the first recalculated entry.
+   * @param changedEntries The recalculated entries.
+   * @return The number of entry rows that were updated, removed or added.
+   */
+  private int replaceEntriesFrom(List<AmortizationEntry> storedEntries, int period,
+      List<AmortizationEntry> changedEntries) {
+    int firstIndex = period - 1;
+    int overlappingEntries = Math.min(storedEntries.size() - firstIndex, changedEntries.size());
+    int writtenEntries = 0;
+
+    for (int i = 0; i < overlappingEntries; i++) {
+      AmortizationEntry changedEntry = changedEntries.get(i);
+      changedEntry.setId(storedEntries.get(firstIndex + i).getId());
+      if (!changedEntry.equals(storedEntries.get(firstIndex + i))) {
+        // Merged into the stored entry, which stays at its position in the schedule
+        amortizationEntryRepository.save(changedEntry);
+        writtenEntries++;
+      }
+    }
+
+    List<AmortizationEntry> removedEntries = new ArrayList<>();
+    while (storedEntries.size() > firstIndex + changedEntries.size()) {
+      removedEntries.add(storedEntries.remove(storedEntries.size() - 1));
+    }
+    // Deleted one by one, so that the flush removes the join rows referencing them first
+    amortizationEntryRepository.deleteAll(removedEntries);
+
+    List<AmortizationEntry> addedEntries = amortizationEntryRepository.saveAll(
+        changedEntries.subList(overlappingEntries, changedEntries.size()));
+    storedEntries.addAll(addedEntries);
+
+    return writtenEntries + removedEntries.size() + addedEntries.size();
+  }
+
+  /**
+   * Calculates the amortization schedule of a single loan of a batch.
+   *
+   * @param index       The position of the loan in the batch.
+   * @param loanDetails The details of the loan.
+   * @return The result holding either the schedule or the reason it could not be calculated.
+   */
+  private BatchCalculationResult calculateBatchItem(int index, LoanDetails loanDetails) {
+    try {
+      return new BatchCalculationResult(index, calculateAmortizationSchedule(loanDetails), null);
+    } catch (RuntimeException e) {
+      return new BatchCalculationResult(index, null, e.getMessage());
+    }
+  }
+
+  /**
+   * Creates the details of amortization schedules from their aggregated summaries.
+   *
+   * @param summaries The loan details and payment totals of the schedules.
+   * @return The details of the schedules.
+   */
+  private List<AmortizationScheduleDetails> createScheduleDetailsList(
+      List<AmortizationScheduleSummary> summaries) {
+    List<AmortizationScheduleDetails> scheduleDetailsList = new ArrayList<>();
+
+    for (AmortizationScheduleSummary summary : summaries) {
+      scheduleDetailsList.add(createScheduleDetails(summary));
     }
 
     return scheduleDetailsList;
   }
 
+  /**
+   * Creates the details of an amortization schedule from its aggregated summary.
+   *
+   * @param summary The loan details and payment totals of the schedule.
+   * @return The details of the schedule.
+   */
+  private AmortizationScheduleDetails createScheduleDetails(AmortizationScheduleSummary summary) {
+    AmortizationScheduleDetails scheduleDetails = new AmortizationScheduleDetails();
+    scheduleDetails.setScheduleId(summary.getScheduleId());
+
+    if (summary.getLoanId() != null) {
+      LoanDetails loanDetails = new LoanDetails();
+      loanDetails.setLoanId(summary.getLoanId());
+      loanDetails.setLoanAmount(summary.getLoanAmount());
+      loanDetails.setDepositAmount(summary.getDepositAmount());
+      loanDetails.setInterestRate(summary.getInterestRate());
+      loanDetails.setBalloonPayment(summary.getBalloonPayment());
+      loanDetails.setMonthlyPayments(summary.getMonthlyPayments());
+      scheduleDetails.setLoanDetails(loanDetails);
+    }
+
+    if (summary.getStorageMode() == StorageMode.RECOMPUTE
+        && scheduleDetails.getLoanDetails() != null) {
+      return withRecalculatedTotals(scheduleDetails, summary.getEngineVersion(),
+          summary.getPaymentPrecision());
+    }
+
+    // A schedule without entries has no monthly repayment and nothing due
+    scheduleDetails.setMonthlyRepayment(Objects.requireNonNullElse(summary.getMonthlyRepayment(),
+        BigDecimal.ZERO).setScale(OUTPUT_ROUNDING_SCALE, RoundingMode.HALF_UP));
+    scheduleDetails.setTotalInterestDue(Objects.requireNonNullElse(summary.getTotalInterestDue(),
+        BigDecimal.ZERO).setScale(OUTPUT_ROUNDING_SCALE, RoundingMode.HALF_UP));
+    scheduleDetails.setTotalPaymentsDue(Objects.requireNonNullElse(summary.getTotalPaymentsDue(),
+        BigDecimal.ZERO).setScale(OUTPUT_ROUNDING_SCALE, RoundingMode.HALF_UP));
+
+    return scheduleDetails;
+  }
+
+  /**
+   * Fills in the monthly repayment and the totals of a schedule stored with
+   * {@link StorageMode#RECOMPUTE}, which the database cannot aggregate, from its recalculated
+   * entries. The figures of a schedule created by another version of the calculation are left
+   * empty, so that it does not fail the listing of every other schedule.
+   *
+   * @param scheduleDetails  The details of the schedule, with its loan details.
+   * @param engineVersion    The version of the calculation that created the schedule.
+   * @param paymentPrecision The payment precision that created the schedule.
+   * @return The details of the schedule.
+   */
+  private AmortizationScheduleDetails withRecalculatedTotals(
+      AmortizationScheduleDetails scheduleDetails, Integer engineVersion,
+      Integer paymentPrecision) {
+    // A listing recalculates one schedule after another, so it waits for the budget
+    Optional<List<AmortizationEntry>> amortizationEntries = recalculateStoredEntries(
+        scheduleDetails.getLoanDetails(), engineVersion, paymentPrecision,
+        CalculationAdmission.Wait.UNBOUNDED);
+    if (amortizationEntries.isEmpty()) {
+      LOGGER.warn("Amortization schedule {} was created by calculation engine version {}, but "
+          + "only version {} is available", scheduleDetails.getScheduleId(), engineVersion,
+          ENGINE_VERSION);
+      return scheduleDetails;
+    }
+    return withTotals(scheduleDetails, ScheduleTotals.of(amortizationEntries.get()));
+  }
+
+  /**
+   * Fills in the monthly repayment and the totals of a schedule.
+   *
+   * @param scheduleDetails The details of the schedule.
+   * @param scheduleTotals  The monthly repayment and the totals of the schedule.
+   * @return The details of the schedule.
+   */
+  private static AmortizationScheduleDetails withTotals(
+      AmortizationScheduleDetails scheduleDetails, ScheduleTotals scheduleTotals) {
+    scheduleDetails.setMonthlyRepayment(scheduleTotals.monthlyRepayment());
+    scheduleDetails.setTotalInterestDue(scheduleTotals.totalInterestDue());
+    scheduleDetails.setTotalPaymentsDue(scheduleTotals.totalPaymentsDue());
+    return scheduleDetails;
+  }
 
   /**
    * Validates the provided loan details.
    *
    * @param loanDetails The details of the loan to be validated.
-   * @throws IllegalArgumentException If loan amount or interest rate is null, or monthly payments
-   *                                  are non-positive.
+   * @throws IllegalArgumentException If the loan details, loan amount or interest rate are null,
+   *                                  or monthly payments are non-positive.
    */
   private void validateLoanDetails(LoanDetails loanDetails) {
+    if (loanDetails == null) {
+      throw new IllegalArgumentException("Loan details cannot be null");
+    }
     if (loanDetails.getLoanAmount() == null || loanDetails.getInterestRate() == null) {
       throw new IllegalArgumentException("Loan amount and interest rate cannot be null");
     }
@@ -160,26 +823,108 @@ public class AmortizationServiceImpl implements AmortizationService {
   }
 
   /**
-   * Calculates the yearly interest rate in decimal form.
+   * Calculates the amortization entries for the provided loan details with a given monthly payment
+   * calculator. The calculation takes its cost from the in-flight budget of the
+   * {@link CalculationAdmission}, so every path that calculates periods is admitted, whether it
+   * serves a request, a job, an import or a recomputed read. The fixed-point engine is admitted by
+   * its own cost, and the {@link BigDecimal} loop it falls back to is admitted again by the cost
+   * of the loop.
    *
-   * @param yearlyInterestRate The yearly interest rate as a percentage.
-   * @return The yearly interest rate in decimal form.
+   * @param loanDetails              The validated details of the loan.
+   * @param engine                   The engine used to evaluate the periods of the schedule.
+   * @param monthlyPaymentCalculator The calculator of the monthly payment.
+   * @param wait                     How long the calculation waits for the in-flight budget.
+   * @return The list of amortization entries.
    */
-  private BigDecimal calculateYearlyInterestRate(BigDecimal yearlyInterestRate) {
-    return yearlyInterestRate
-        .divide(BigDecimal.valueOf(100), INTEREST_ROUNDING_SCALE, RoundingMode.HALF_UP);
+  private List<AmortizationEntry> calculateScheduleEntries(LoanDetails loanDetails,
+      CalculationEngine engine, MonthlyPaymentCalculator monthlyPaymentCalculator,
+      CalculationAdmission.Wait wait) {
+    BigDecimal monthlyInterestRate = monthlyPaymentCalculator
+        .calculateMonthlyInterestRate(loanDetails.getInterestRate());
+    BigDecimal remainingBalance = loanDetails.getLoanAmount()
+        .subtract(loanDetails.getDepositAmount());
+    int monthlyPayments = loanDetails.getMonthlyPayments();
+    BigDecimal monthlyPayment = monthlyPaymentCalculator.calculateMonthlyPayment(
+        loanDetails.getBalloonPayment(), remainingBalance, monthlyInterestRate, monthlyPayments);
+
+    Optional<List<AmortizationEntry>> fixedPointEntries = Optional.empty();
+    if (engine == CalculationEngine.FIXED_POINT) {
+      fixedPointEntries = calculationAdmission.runAdmitted(
+          CalculationAdmission.cost(monthlyPayments, CalculationEngine.FIXED_POINT), wait,
+          () -> FixedPointScheduleEngine.calculateEntries(remainingBalance, monthlyInterestRate,
+              monthlyPayment, monthlyPayments));
+    }
+    List<AmortizationEntry> amortizationEntries = fixedPointEntries.orElseGet(() ->
+        calculationAdmission.runAdmitted(
+            CalculationAdmission.cost(monthlyPayments, CalculationEngine.BIG_DECIMAL), wait,
+            () -> calculateEntries(remainingBalance, monthlyInterestRate, monthlyPayment,
+                monthlyPayments, 1)));
+    amortizationMetrics.recordPeriodsGenerated(amortizationEntries.size());
+    return amortizationEntries;
   }
 
   /**
-   * Calculates the monthly interest rate in decimal form.
+   * Calculates the amortization entries with {@link BigDecimal} arithmetic.
    *
-   * @param yearlyInterestRate The yearly interest rate as a percentage.
-   * @return The monthly interest rate in decimal form.
+   * @param remainingBalance    The amount financed.
+   * @param monthlyInterestRate The monthly interest rate.
+   * @param monthlyPayment      The monthly payment.
+   * @param monthlyPayments     The total number of monthly payments.
+   * @param firstPeriod         The period of the first entry.
+   * @return The list of amortization entries.
+   * @throws CancellationException If the thread is interrupted, as a cancelled job is.
    */
-  private BigDecimal calculateMonthlyInterestRate(BigDecimal yearlyInterestRate) {
-    return yearlyInterestRate
-        .divide(BigDecimal.valueOf(NUMBER_OF_MONTHS_IN_YEAR), INTEREST_ROUNDING_SCALE,
-            RoundingMode.HALF_UP);
+  private List<AmortizationEntry> calculateEntries(BigDecimal remainingBalance,
+      BigDecimal monthlyInterestRate, BigDecimal monthlyPayment, int monthlyPayments,
+      int firstPeriod) {
+    List<AmortizationEntry> amortizationEntries = new ArrayList<>();
+
+    for (int i = 1; i <= monthlyPayments; i++) {
+      if (Thread.currentThread().isInterrupted()) {
+        throw new CancellationException("The calculation was interrupted");
+      }
+      BigDecimal interestPayment = remainingBalance.multiply(monthlyInterestRate);
+      BigDecimal principalPayment = calculatePrincipalPayment(monthlyPayment, interestPayment,
+          remainingBalance);
+      principalPayment = remainingBalance.min(principalPayment);
+      remainingBalance = remainingBalance.subtract(principalPayment);
+      AmortizationEntry entry = new AmortizationEntry();
+      entry.setPeriod(firstPeriod + i - 1);
+      entry.setMonthlyPayment(monthlyPayment.setScale(OUTPUT_ROUNDING_SCALE, RoundingMode.HALF_UP));
+      entry.setInterestPayment(
+          interestPayment.setScale(OUTPUT_ROUNDING_SCALE, RoundingMode.HALF_UP));
+      entry.setPrincipalPayment(
+          principalPayment.setScale(OUTPUT_ROUNDING_SCALE, RoundingMode.HALF_UP));
+      entry.setRemainingBalance(
+          remainingBalance.setScale(OUTPUT_ROUNDING_SCALE, RoundingMode.HALF_UP));
+      amortizationEntries.add(entry);
+      if (remainingBalance.compareTo(BigDecimal.ZERO) <= 0) {
+        break;
+      }
+    }
+
+    return amortizationEntries;
+  }
+
+  /**
+   * Calculates the unclamped remaining balance after a number of periods with the annuity balance
+   * formula.
+   *
+   * @param initialBalance      The amount financed.
+   * @param monthlyInterestRate The monthly interest rate.
+   * @param monthlyPayment      The monthly payment.
+   * @param periods             The number of periods paid.
+   * @return The exact remaining balance.
+   */
+  private BigDecimal calculateRemainingBalance(BigDecimal initialBalance,
+      BigDecimal monthlyInterestRate, BigDecimal monthlyPayment, int periods) {
+    if (periods == 0) {
+      return initialBalance;
+    }
+    BigDecimal factor = monthlyInterestRate.add(BigDecimal.ONE).pow(periods);
+    // (1 + r)^k - 1 is a multiple of r, so the division terminates
+    BigDecimal accumulatedPayments = factor.subtract(BigDecimal.ONE).divide(monthlyInterestRate);
+    return initialBalance.multiply(factor).subtract(monthlyPayment.multiply(accumulatedPayments));
   }
 
   /**
@@ -196,60 +941,4 @@ public class AmortizationServiceImpl implements AmortizationService {
     BigDecimal principalPayment = monthlyPayment.subtract(interestPayment);
     return remainingBalance.min(principalPayment);
   }
-
-  /**
-   * Calculates the monthly payment for the loan.
-   *
-   * @param balloonPayment      The balloon payment amount (if applicable).
-   * @param remainingBalance    The remaining loan balance.
-   * @param monthlyInterestRate The monthly interest rate.
-   * @param monthlyPayments     The total number of monthly payments.
-   * @return The monthly payment amount.
-   */
-  private BigDecimal calculateMonthlyPayment(BigDecimal balloonPayment, BigDecimal remainingBalance,
-      BigDecimal monthlyInterestRate, int monthlyPayments) {
-    return (balloonPayment == null || balloonPayment.compareTo(BigDecimal.ZERO) == 0)
-        ? calculateMonthlyPaymentWithoutBalloon(remainingBalance, monthlyInterestRate,
-        monthlyPayments)
-        : calculateMonthlyPaymentWithBalloon(remainingBalance, monthlyInterestRate, monthlyPayments,
-            balloonPayment);
-  }
-
-  /**
-   * Calculates the monthly payment for the loan without a balloon payment.
-   *
-   * @param loanAmount          The total loan amount.
-   * @param monthlyInterestRate The monthly interest rate.
-   * @param termMonths          The term of the loan in months.
-   * @return The monthly payment without a balloon payment.
-   */
-  private BigDecimal calculateMonthlyPaymentWithoutBalloon(BigDecimal loanAmount,
-      BigDecimal monthlyInterestRate,
-      int termMonths) {
-    BigDecimal factor = monthlyInterestRate.add(BigDecimal.ONE).pow(termMonths);
-    BigDecimal numerator = loanAmount.multiply(monthlyInterestRate).multiply(factor);
-    BigDecimal denominator = factor.subtract(BigDecimal.ONE);
-    return numerator.divide(denominator, INPUT_ROUNDING_SCALE, RoundingMode.HALF_UP);
-  }
-
-  /**
-   * Calculates the monthly payment for the loan with a balloon payment.
-   *
-   * @param loanAmount          The total loan amount.
-   * @param monthlyInterestRate The monthly interest rate.
-   * @param termMonths          The term of the loan in months.
-   * @param balloonPayment      The balloon payment amount.
-   * @return The monthly payment with a balloon payment.
-   */
-  private BigDecimal calculateMonthlyPaymentWithBalloon(BigDecimal loanAmount,
-      BigDecimal monthlyInterestRate,
-      int termMonths, BigDecimal balloonPayment) {
-    BigDecimal factor = monthlyInterestRate.add(BigDecimal.ONE).pow(termMonths);
-    BigDecimal adjustedLoanAmount = loanAmount
-        .subtract(balloonPayment.divide(factor, INPUT_ROUNDING_SCALE, RoundingMode.HALF_UP));
-    BigDecimal numerator = adjustedLoanAmount.multiply(monthlyInterestRate);
-    BigDecimal denominator = BigDecimal.ONE
-        .subtract(BigDecimal.ONE.divide(factor, INPUT_ROUNDING_SCALE, RoundingMode.HALF_UP));
-    return numerator.divide(denominator, INPUT_ROUNDING_SCALE, RoundingMode.HALF_UP);
-  }
-}
\ No newline at end of file
+}
@@ -0,0 +1,119 @@
+package com.example.amortizationschedule.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a new file through a direct buffer that is handed to its channel only when full, so a
+ * value is written without a stream or any allocation. Binary values are little-endian, and
+ * numbers written as text use ASCII digits.
+ */
+final class BufferedChannelWriter implements Closeable {
+
+  private static final int MAX_LONG_DIGITS = 20;
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+  private final byte[] digits = new byte[MAX_LONG_DIGITS];
+
+  BufferedChannelWriter(Path path, int bufferSize) throws IOException {
+    this.channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+        StandardOpenOption.WRITE);
+    this.buffer = ByteBuffer.allocateDirect(Math.max(bufferSize, MAX_LONG_DIGITS + 4))
+        .order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  void writeInt(int value) {
+    ensureRemaining(Integer.BYTES);
+    buffer.putInt(value);
+  }
+
+  void writeLong(long value) {
+    ensureRemaining(Long.BYTES);
+    buffer.putLong(value);
+  }
+
+  void writeByte(char ascii) {
+    ensureRemaining(1);
+    buffer.put((byte) ascii);
+  }
+
+  void writeText(String text) {
+    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+    for (int written = 0; written < bytes.length; ) {
+      ensureRemaining(1);
+      int length = Math.min(buffer.remaining(), bytes.length - written);
+      buffer.put(bytes, written, length);
+      written += length;
+    }
+  }
+
+  /**
+   * Writes an integer as decimal digits.
+   */
+  void writeDigits(long value) {
+    writeDecimal(value, 0);
+  }
+
+  /**
+   * Writes an amount in cents as a decimal with two fraction digits, such as {@code -12.05}.
+   */
+  void writeCents(long cents) {
+    writeDecimal(cents, 2);
+  }
+
+  private void writeDecimal(long unscaledValue, int scale) {
+    ensureRemaining(MAX_LONG_DIGITS + 3);
+    if (unscaledValue < 0) {
+      buffer.put((byte) '-');
+    }
+    int count = 0;
+    long remaining = unscaledValue;
+    do {
+      digits[count++] = (byte) ('0' + Math.abs(remaining % 10));
+      remaining /= 10;
+    } while (remaining != 0 || count <= scale);
+    while (count > 0) {
+      if (count == scale) {
+        buffer.put((byte) '.');
+      }
+      buffer.put(digits[--count]);
+    }
+  }
+
+  private void ensureRemaining(int bytes) {
+    if (buffer.remaining() < bytes) {
+      flush();
+    }
+  }
+
+  private void flush() {
+    buffer.flip();
+    try {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    buffer.clear();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    } catch (UncheckedIOException e) {
+      channel.close();
+      throw e.getCause();
+    }
+    channel.close();
+  }
+}
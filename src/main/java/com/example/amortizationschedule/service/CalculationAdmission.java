@@ -0,0 +1,238 @@
+package com.example.amortizationschedule.service;
+
+import com.example.amortizationschedule.config.AmortizationProperties;
+import com.example.amortizationschedule.model.LoanDetails;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Admits calculations by their cost, so that a few large requests cannot exhaust the memory or the
+ * processors of the node. The cost follows the run time of the engine that calculates the periods,
+ * which grows linearly with the term for the fixed-point engine, and with the square of the term
+ * for the exact {@link java.math.BigDecimal} loop. The services admit every calculation of periods
+ * themselves, whichever request or job it is made for.
+ *
+ * <p>A request that costs more than {@code amortization.admission.max-request-cost} is rejected
+ * outright. Every other request takes its cost from a budget of
+ * {@code amortization.admission.max-in-flight-cost} shared by all requests in flight, and
+ * returns it when it completes. A request that does not fit in the budget waits for it in first
+ * come, first served order for up to {@code amortization.admission.max-wait}, unless
+ * {@code amortization.admission.max-queued} requests are waiting already, in which case it is
+ * rejected at once. Exports, portfolio aggregations and listings, which calculate one schedule
+ * after another and would otherwise fail partway, wait for the budget for as long as it takes
+ * instead.
+ */
+@Component
+public class CalculationAdmission {
+
+  private static final Permit NO_PERMIT = () -> {
+  };
+
+  // A BigDecimal period costs one more for every 50 periods before it
+  private static final long BIG_DECIMAL_SCALE_GROWTH_PERIODS = 100;
+
+  private final AmortizationProperties.Admission admissionProperties;
+  private final AmortizationMetrics amortizationMetrics;
+  private final Semaphore budget;
+  private final AtomicInteger waiting = new AtomicInteger();
+
+  public CalculationAdmission(AmortizationProperties amortizationProperties,
+      AmortizationMetrics amortizationMetrics) {
+    this.admissionProperties = amortizationProperties.getAdmission();
+    this.amortizationMetrics = amortizationMetrics;
+    this.budget = new Semaphore(admissionProperties.getMaxInFlightCost(), true);
+    amortizationMetrics.registerAdmission(waiting, budget,
+        admissionProperties.getMaxInFlightCost());
+  }
+
+  /**
+   * How long a calculation waits for the in-flight budget.
+   */
+  public enum Wait {
+
+    /**
+     * Up to {@code amortization.admission.max-wait}, behind at most
+     * {@code amortization.admission.max-queued} others, as a request does.
+     */
+    BOUNDED,
+
+    /**
+     * Until the budget is free, as an export, aggregation or listing does.
+     */
+    UNBOUNDED
+  }
+
+  /**
+   * The cost of a request taken from the in-flight budget, returned when it is closed.
+   */
+  public interface Permit extends AutoCloseable {
+
+    @Override
+    void close();
+  }
+
+  /**
+   * Estimates the cost of calculating the schedule of a loan with an engine. A balloon payment
+   * does not lower the cost, as the balance of a balloon loan is never paid off before its last
+   * period.
+   *
+   * @param loanDetails The details of the loan.
+   * @param engine      The engine that evaluates the periods.
+   * @return The cost of the schedule.
+   */
+  public static long cost(LoanDetails loanDetails, CalculationEngine engine) {
+    return cost(loanDetails.getMonthlyPayments(), engine);
+  }
+
+  /**
+   * Estimates the cost of calculating a number of periods with an engine. A period of the
+   * fixed-point engine costs one. The exact {@link java.math.BigDecimal} loop adds the scale of
+   * the monthly rate to the scale of the balance every period, so a period costs more the later
+   * it is, and a term of {@code n} periods costs {@code n + n^2 / 100}: 1,656 for a term of 30
+   * years, and 4,020,000 for a term of 20,000 periods, which runs for minutes.
+   *
+   * @param periods The number of periods.
+   * @param engine  The engine that evaluates the periods.
+   * @return The cost of the periods.
+   */
+  public static long cost(int periods, CalculationEngine engine) {
+    long term = Math.max(periods, 1);
+    return engine == CalculationEngine.FIXED_POINT ? term
+        : term + term * term / BIG_DECIMAL_SCALE_GROWTH_PERIODS;
+  }
+
+  /**
+   * Takes the cost of a request from the in-flight budget, waiting for it if necessary.
+   *
+   * @param cost The cost of the request.
+   * @return The permit, to be closed when the request completes.
+   * @throws CalculationTooLargeException         If the request costs more than a single request
+   *                                              may.
+   * @throws CalculationCapacityExceededException If too many requests are waiting already, or the
+   *                                              budget did not become free in time.
+   * @throws CancellationException                If the thread is interrupted while it waits.
+   */
+  public Permit admit(long cost) {
+    return admit(cost, Wait.BOUNDED);
+  }
+
+  /**
+   * Takes the cost of a request from the in-flight budget, waiting for it as long as the request
+   * may.
+   *
+   * @param cost The cost of the request.
+   * @param wait How long the request waits for the budget.
+   * @return The permit, to be closed when the request completes.
+   * @throws CalculationTooLargeException         If the request costs more than a single request
+   *                                              may.
+   * @throws CalculationCapacityExceededException If the wait is bounded, and too many requests are
+   *                                              waiting already or the budget did not become
+   *                                              free in time.
+   * @throws CancellationException                If the thread is interrupted while it waits.
+   */
+  public Permit admit(long cost, Wait wait) {
+    if (!admissionProperties.isEnabled()) {
+      return NO_PERMIT;
+    }
+    checkCost(cost);
+
+    int permits = (int) Math.max(cost, 1);
+    // Only a request that fits in the budget without overtaking a waiting one skips the queue
+    if (!budget.hasQueuedThreads() && budget.tryAcquire(permits)) {
+      return () -> budget.release(permits);
+    }
+    if (waiting.incrementAndGet() > admissionProperties.getMaxQueued() && wait == Wait.BOUNDED) {
+      waiting.decrementAndGet();
+      throw rejectBusy();
+    }
+    try {
+      if (wait == Wait.UNBOUNDED) {
+        budget.acquire(permits);
+      } else if (!budget.tryAcquire(permits, admissionProperties.getMaxWait().toMillis(),
+          TimeUnit.MILLISECONDS)) {
+        throw rejectBusy();
+      }
+    } catch (InterruptedException e) {
+      // An interrupted wait is a cancelled calculation, as an interrupted loop is
+      Thread.currentThread().interrupt();
+      throw new CancellationException("The calculation was interrupted while it waited for "
+          + "admission");
+    } finally {
+      waiting.decrementAndGet();
+    }
+    return () -> budget.release(permits);
+  }
+
+  /**
+   * Runs a calculation once its cost is taken from the in-flight budget, and returns the cost to
+   * the budget when the calculation completes.
+   *
+   * @param cost        The cost of the calculation.
+   * @param calculation The calculation.
+   * @param <T>         The type of the result of the calculation.
+   * @return The result of the calculation.
+   * @throws CalculationTooLargeException         If the calculation costs more than a single
+   *                                              request may.
+   * @throws CalculationCapacityExceededException If too many calculations are waiting already, or
+   *                                              the budget did not become free in time.
+   * @throws CancellationException                If the thread is interrupted while it waits.
+   */
+  public <T> T runAdmitted(long cost, Supplier<T> calculation) {
+    return runAdmitted(cost, Wait.BOUNDED, calculation);
+  }
+
+  /**
+   * Runs a calculation once its cost is taken from the in-flight budget, waiting for it as long as
+   * the calculation may, and returns the cost to the budget when the calculation completes.
+   *
+   * @param cost        The cost of the calculation.
+   * @param wait        How long the calculation waits for the budget.
+   * @param calculation The calculation.
+   * @param <T>         The type of the result of the calculation.
+   * @return The result of the calculation.
+   * @throws CalculationTooLargeException         If the calculation costs more than a single
+   *                                              request may.
+   * @throws CalculationCapacityExceededException If the wait is bounded, and too many calculations
+   *                                              are waiting already or the budget did not
+   *                                              become free in time.
+   * @throws CancellationException                If the thread is interrupted while it waits.
+   */
+  public <T> T runAdmitted(long cost, Wait wait, Supplier<T> calculation) {
+    Permit permit = admit(cost, wait);
+    try {
+      return calculation.get();
+    } finally {
+      permit.close();
+    }
+  }
+
+  /**
+   * Checks that a request does not cost more than a single request may, without taking its cost
+   * from the in-flight budget.
+   *
+   * @param cost The cost of the request.
+   * @throws CalculationTooLargeException If the request costs more than a single request may.
+   */
+  public void checkCost(long cost) {
+    if (!admissionProperties.isEnabled()) {
+      return;
+    }
+    int maxCost = Math.min(admissionProperties.getMaxRequestCost(),
+        admissionProperties.getMaxInFlightCost());
+    if (cost > maxCost) {
+      amortizationMetrics.recordAdmissionRejection("too_large");
+      throw new CalculationTooLargeException("A request cannot cost more than " + maxCost
+          + ", but this one costs " + cost);
+    }
+  }
+
+  private CalculationCapacityExceededException rejectBusy() {
+    amortizationMetrics.recordAdmissionRejection("busy");
+    return new CalculationCapacityExceededException(
+        "The server is calculating too many periods; retry later");
+  }
+}
@@ -0,0 +1,16 @@
+package com.example.amortizationschedule.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a request cannot be admitted because the calculations in flight use the budget and
+ * too many requests are waiting for it, or the request waited too long.
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class CalculationCapacityExceededException extends RuntimeException {
+
+  public CalculationCapacityExceededException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,19 @@
+package com.example.amortizationschedule.service;
+
+/**
+ * The arithmetic engines available for generating the periods of an amortization schedule. Every
+ * engine produces identical entries; they differ only in how the period loop is evaluated.
+ */
+public enum CalculationEngine {
+
+  /**
+   * Evaluates every period with unbounded {@link java.math.BigDecimal} arithmetic.
+   */
+  BIG_DECIMAL,
+
+  /**
+   * Evaluates the period loop on scaled {@code long} values and falls back to
+   * {@link #BIG_DECIMAL} whenever the result could differ from it.
+   */
+  FIXED_POINT
+}
@@ -0,0 +1,16 @@
+package com.example.amortizationschedule.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a calculation would cost more, or a batch hold more loans, than a single request
+ * may.
+ */
+@ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+public class CalculationTooLargeException extends RuntimeException {
+
+  public CalculationTooLargeException(String message) {
+    super(message);
+  }
+}
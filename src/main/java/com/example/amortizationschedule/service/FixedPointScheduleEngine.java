@@ -0,0 +1,179 @@
+package com.example.amortizationschedule.service;
+
+import com.example.amortizationschedule.model.AmortizationEntry;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Evaluates the period loop of an amortization schedule on scaled {@code long} values.
+ *
+ * <p>Amounts are held as {@code long} units of the finest scale that leaves the balance about
+ * 18 digits, and the monthly interest rate, which always has a scale of 5, as its unscaled value.
+ * Unlike the {@link BigDecimal} loop, whose balance gains five decimal places every period, the
+ * intermediate values here are truncated, so every value carries an upper bound on its distance
+ * from the exact result. Whenever that bound means a HALF_UP
+ * rounding to cents, the final-period clamp or an overflow could come out differently, no result is
+ * returned and the caller falls back to the exact loop.
+ */
+final class FixedPointScheduleEngine {
+
+  private static final int OUTPUT_ROUNDING_SCALE = 2;
+  private static final int INTEREST_ROUNDING_SCALE = 5;
+  private static final int MIN_INTERNAL_SCALE = 4;
+  private static final int MAX_INTERNAL_SCALE = 15;
+  private static final int INTERNAL_DIGITS = 18;
+  private static final long RATE_DENOMINATOR = 100_000L;
+
+  private FixedPointScheduleEngine() {
+  }
+
+  /**
+   * Calculates the amortization entries for an already prepared loan.
+   *
+   * @param remainingBalance    The amount financed.
+   * @param monthlyInterestRate The monthly interest rate, with a scale of 5.
+   * @param monthlyPayment      The unrounded monthly payment.
+   * @param monthlyPayments     The total number of monthly payments.
+   * @return The amortization entries, or an empty optional if they cannot be guaranteed to match
+   * the {@link BigDecimal} loop.
+   */
+  static Optional<List<AmortizationEntry>> calculateEntries(BigDecimal remainingBalance,
+      BigDecimal monthlyInterestRate, BigDecimal monthlyPayment, int monthlyPayments) {
+    List<AmortizationEntry> amortizationEntries = new ArrayList<>(monthlyPayments);
+    boolean calculated = visitEntries(remainingBalance, monthlyInterestRate, monthlyPayment,
+        monthlyPayments, (period, payment, interest, principal, balance) ->
+            amortizationEntries.add(new AmortizationEntry(null, period,
+                PackedEntryCodec.fromCents(payment), PackedEntryCodec.fromCents(interest),
+                PackedEntryCodec.fromCents(principal), PackedEntryCodec.fromCents(balance))));
+    return calculated ? Optional.of(amortizationEntries) : Optional.empty();
+  }
+
+  /**
+   * Evaluates the periods of an already prepared loan without creating entries.
+   *
+   * @param remainingBalance    The amount financed.
+   * @param monthlyInterestRate The monthly interest rate, with a scale of 5.
+   * @param monthlyPayment      The unrounded monthly payment.
+   * @param monthlyPayments     The total number of monthly payments.
+   * @param visitor             Receives the amounts of each period, in cents.
+   * @return {@code true} if every period was passed to the visitor, or {@code false} if the
+   * periods cannot be guaranteed to match the {@link BigDecimal} loop, in which case the periods
+   * passed so far must be discarded.
+   */
+  static boolean visitEntries(BigDecimal remainingBalance, BigDecimal monthlyInterestRate,
+      BigDecimal monthlyPayment, int monthlyPayments, PackedEntryCodec.EntryVisitor visitor) {
+    try {
+      return visitEntriesExact(remainingBalance, monthlyInterestRate, monthlyPayment,
+          monthlyPayments, visitor);
+    } catch (ArithmeticException e) {
+      // Inexact input conversion or long overflow
+      return false;
+    }
+  }
+
+  private static boolean visitEntriesExact(BigDecimal remainingBalance,
+      BigDecimal monthlyInterestRate, BigDecimal monthlyPayment, int monthlyPayments,
+      PackedEntryCodec.EntryVisitor visitor) {
+    int internalScale = Math.max(MIN_INTERNAL_SCALE, Math.min(MAX_INTERNAL_SCALE,
+        INTERNAL_DIGITS - (remainingBalance.precision() - remainingBalance.scale())));
+    long unitsPerCent = BigDecimal.ONE.movePointRight(internalScale - OUTPUT_ROUNDING_SCALE)
+        .longValueExact();
+
+    long rate = monthlyInterestRate.setScale(INTEREST_ROUNDING_SCALE).unscaledValue()
+        .longValueExact();
+    long balance = remainingBalance.setScale(internalScale).unscaledValue().longValueExact();
+    long payment = monthlyPayment.setScale(internalScale, RoundingMode.HALF_UP).unscaledValue()
+        .longValueExact();
+    if (rate < 0 || balance <= 0) {
+      return false;
+    }
+
+    long roundedMonthlyPayment = monthlyPayment
+        .setScale(OUTPUT_ROUNDING_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    // The payment is off by at most half a unit, the balance starts exact
+    long paymentError = 1;
+    long balanceError = 0;
+
+    for (int i = 1; i <= monthlyPayments; i++) {
+      long interestPayment = Math.addExact(
+          Math.multiplyExact(balance / RATE_DENOMINATOR, rate),
+          Math.multiplyExact(balance % RATE_DENOMINATOR, rate) / RATE_DENOMINATOR);
+      long interestError = ceilDiv(Math.multiplyExact(balanceError, rate), RATE_DENOMINATOR) + 1;
+
+      long principalPayment = Math.subtractExact(payment, interestPayment);
+      long principalError = Math.addExact(paymentError, interestError);
+
+      long clampMargin = Math.subtractExact(principalPayment, balance);
+      long clampError = Math.addExact(principalError, balanceError);
+      boolean finalPeriod;
+      if (Math.abs(clampMargin) > clampError) {
+        finalPeriod = clampMargin > 0;
+        if (finalPeriod) {
+          // The remaining balance is paid off exactly, whatever error it carried
+          principalPayment = balance;
+          principalError = balanceError;
+          balance = 0;
+          balanceError = 0;
+        }
+      } else if (i == monthlyPayments) {
+        // Whether or not the exact loop clamps the last payment, both the principal and the
+        // remaining balance are within the margin of the clamped values
+        finalPeriod = true;
+        principalPayment = balance;
+        principalError = Math.addExact(clampError, Math.abs(clampMargin));
+        balance = 0;
+        balanceError = principalError;
+      } else {
+        return false;
+      }
+      if (!finalPeriod) {
+        balance = Math.subtractExact(balance, principalPayment);
+        balanceError = Math.addExact(balanceError, principalError);
+      }
+
+      if (isRoundingAmbiguous(interestPayment, interestError, unitsPerCent)
+          || isRoundingAmbiguous(principalPayment, principalError, unitsPerCent)
+          || isRoundingAmbiguous(balance, balanceError, unitsPerCent)) {
+        return false;
+      }
+
+      visitor.visit(i, roundedMonthlyPayment, toCents(interestPayment, unitsPerCent),
+          toCents(principalPayment, unitsPerCent), toCents(balance, unitsPerCent));
+      if (finalPeriod) {
+        break;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Checks whether a value could lie on either side of a half-cent boundary.
+   *
+   * @param units        The value in internal units.
+   * @param error        The upper bound on the distance between the value and the exact result.
+   * @param unitsPerCent The number of internal units in a cent.
+   * @return {@code true} if rounding the exact result could give a different number of cents.
+   */
+  private static boolean isRoundingAmbiguous(long units, long error, long unitsPerCent) {
+    return Math.abs(Math.abs(units) % unitsPerCent - unitsPerCent / 2) <= error;
+  }
+
+  /**
+   * Rounds a value to cents with {@link RoundingMode#HALF_UP}.
+   *
+   * @param units        The value in internal units.
+   * @param unitsPerCent The number of internal units in a cent.
+   * @return The value in cents.
+   */
+  private static long toCents(long units, long unitsPerCent) {
+    long cents = (Math.abs(units) + unitsPerCent / 2) / unitsPerCent;
+    return units < 0 ? -cents : cents;
+  }
+
+  private static long ceilDiv(long dividend, long divisor) {
+    return (dividend + divisor - 1) / divisor;
+  }
+}
@@ -0,0 +1,274 @@
+package com.example.amortizationschedule.service;
+
+import com.example.amortizationschedule.config.AmortizationProperties;
+import com.example.amortizationschedule.model.AmortizationSchedule;
+import com.example.amortizationschedule.model.ImportError;
+import com.example.amortizationschedule.model.ImportReport;
+import com.example.amortizationschedule.model.LoanDetails;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Imports the loans of a loan tape, calculating and persisting the amortization schedule of each.
+ *
+ * <p>An import is a pipeline of three stages connected by bounded queues of
+ * {@code amortization.loan-tape.queue-capacity} rows: a single thread reads the rows of the
+ * memory mapped file with a {@link LoanTapeReader}, {@code amortization.batch.parallelism} threads
+ * calculate their schedules, and a single thread persists up to
+ * {@code amortization.loan-tape.batch-size} schedules in one transaction. A stage that falls behind
+ * fills the queue in front of it, which blocks the stages before it, so the memory of an import is
+ * bounded however large the tape is. Rows that cannot be parsed, calculated or persisted are
+ * counted and reported with their line numbers, and do not stop the import.
+ *
+ * <p>When {@code amortization.loan-tape.file} is set, that tape is imported once the application
+ * has started.
+ */
+@Component
+@RequiredArgsConstructor
+public class LoanTapeImporter implements ApplicationRunner {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(LoanTapeImporter.class);
+
+  private static final ImportRow END = new ImportRow(0, null, null);
+
+  private final AmortizationProperties amortizationProperties;
+  private final AmortizationService amortizationService;
+  private final TransactionTemplate transactionTemplate;
+  private final AmortizationMetrics amortizationMetrics;
+  private final AtomicInteger threadNumber = new AtomicInteger();
+
+  /**
+   * A row on its way through the pipeline: its loan details once read, and its schedule once
+   * calculated.
+   */
+  private record ImportRow(long line, LoanDetails loanDetails,
+      AmortizationSchedule amortizationSchedule) {
+  }
+
+  @Override
+  public void run(ApplicationArguments args) throws IOException {
+    String file = amortizationProperties.getLoanTape().getFile();
+    if (file != null && !file.isBlank()) {
+      ImportReport importReport = importLoanTape(Path.of(file));
+      LOGGER.info("Imported {} of {} rows of {}, {} rows failed",
+          importReport.getSchedulesCreated(), importReport.getRowsRead(), file,
+          importReport.getRowsFailed());
+    }
+  }
+
+  /**
+   * Imports a loan tape, a CSV file with a header row naming the {@code loanAmount},
+   * {@code depositAmount}, {@code interestRate}, {@code balloonPayment} and
+   * {@code monthlyPayments} columns.
+   *
+   * @param path The path of the loan tape.
+   * @return The numbers of rows read, schedules created and rows failed, and the first errors.
+   * @throws IOException           If the file cannot be read or has no header naming the required
+   *                               columns.
+   * @throws IllegalStateException If the import is interrupted.
+   */
+  public ImportReport importLoanTape(Path path) throws IOException {
+    AmortizationProperties.LoanTape loanTapeProperties = amortizationProperties.getLoanTape();
+    int calculators = Math.max(1, amortizationProperties.getBatch().getParallelism());
+    BlockingQueue<ImportRow> readRows = new ArrayBlockingQueue<>(
+        loanTapeProperties.getQueueCapacity());
+    BlockingQueue<ImportRow> calculatedRows = new ArrayBlockingQueue<>(
+        loanTapeProperties.getQueueCapacity());
+    ImportProgress progress = new ImportProgress(path, loanTapeProperties);
+
+    ExecutorService executor = Executors.newFixedThreadPool(calculators + 2,
+        runnable -> new Thread(runnable, "loan-tape-import-" + threadNumber.incrementAndGet()));
+    CompletionService<Long> stages = new ExecutorCompletionService<>(executor);
+    try {
+      stages.submit(() -> read(path, readRows, calculators, progress));
+      for (int i = 0; i < calculators; i++) {
+        stages.submit(() -> calculate(readRows, calculatedRows, progress));
+      }
+      stages.submit(() -> write(calculatedRows, calculators, progress));
+
+      for (int i = 0; i < calculators + 2; i++) {
+        stages.take().get();
+      }
+      return progress.toReport();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Loan tape import was interrupted", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException ioException) {
+        throw ioException;
+      }
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException("Loan tape import failed", e.getCause());
+    } finally {
+      // Stops the other stages when one of them failed
+      executor.shutdownNow();
+    }
+  }
+
+  private long read(Path path, BlockingQueue<ImportRow> readRows, int calculators,
+      ImportProgress progress) throws IOException, InterruptedException {
+    long rows = new LoanTapeReader(path).read(new LoanTapeReader.RowHandler() {
+      @Override
+      public void loan(long line, LoanDetails loanDetails) throws InterruptedException {
+        readRows.put(new ImportRow(line, loanDetails, null));
+      }
+
+      @Override
+      public void error(long line, String message) {
+        progress.fail(line, message);
+      }
+    });
+    progress.setRowsRead(rows);
+    for (int i = 0; i < calculators; i++) {
+      readRows.put(END);
+    }
+    return rows;
+  }
+
+  private long calculate(BlockingQueue<ImportRow> readRows,
+      BlockingQueue<ImportRow> calculatedRows, ImportProgress progress)
+      throws InterruptedException {
+    long calculated = 0;
+    for (ImportRow row = readRows.take(); row != END; row = readRows.take()) {
+      AmortizationSchedule amortizationSchedule;
+      try {
+        amortizationSchedule = amortizationService.calculateAmortizationSchedule(
+            row.loanDetails());
+      } catch (RuntimeException e) {
+        progress.fail(row.line(), e.getMessage());
+        continue;
+      }
+      calculatedRows.put(new ImportRow(row.line(), null, amortizationSchedule));
+      calculated++;
+    }
+    calculatedRows.put(END);
+    return calculated;
+  }
+
+  private long write(BlockingQueue<ImportRow> calculatedRows, int calculators,
+      ImportProgress progress) throws InterruptedException {
+    int batchSize = amortizationProperties.getLoanTape().getBatchSize();
+    List<ImportRow> batch = new ArrayList<>(batchSize);
+    long written = 0;
+    int finishedCalculators = 0;
+    while (finishedCalculators < calculators) {
+      ImportRow row = calculatedRows.take();
+      if (row == END) {
+        finishedCalculators++;
+        continue;
+      }
+      batch.add(row);
+      if (batch.size() == batchSize) {
+        written += writeBatch(batch, progress);
+        batch.clear();
+      }
+    }
+    return written + writeBatch(batch, progress);
+  }
+
+  /**
+   * Persists a batch of schedules in a single transaction. As one schedule that cannot be
+   * persisted rolls the whole transaction back, the schedules of a failed batch are persisted
+   * again one by one, from copies without the ids of the rolled back attempt.
+   *
+   * @param batch    The calculated rows to persist.
+   * @param progress The progress of the import.
+   * @return The number of schedules persisted.
+   */
+  private int writeBatch(List<ImportRow> batch, ImportProgress progress) {
+    if (batch.isEmpty()) {
+      return 0;
+    }
+    int created = 0;
+    try {
+      amortizationMetrics.timePersistence("import_batch",
+          () -> transactionTemplate.executeWithoutResult(status -> batch.forEach(
+              row -> amortizationService.createAmortizationSchedule(
+                  row.amortizationSchedule()))));
+      created = batch.size();
+    } catch (RuntimeException e) {
+      for (ImportRow row : batch) {
+        try {
+          amortizationService.createAmortizationSchedule(
+              WriteBehindScheduleWriter.copyForPersisting(row.amortizationSchedule()));
+          created++;
+        } catch (RuntimeException rowException) {
+          progress.fail(row.line(), rowException.getMessage());
+        }
+      }
+    }
+    progress.created(created);
+    return created;
+  }
+
+  /**
+   * The counts and reported errors of an import, updated by every stage.
+   */
+  private final class ImportProgress {
+
+    private final Path path;
+    private final int maxReportedErrors;
+    private final long progressInterval;
+    private final List<ImportError> errors = new ArrayList<>();
+
+    private long rowsRead;
+    private long schedulesCreated;
+    private long rowsFailed;
+
+    private ImportProgress(Path path, AmortizationProperties.LoanTape loanTapeProperties) {
+      this.path = path;
+      this.maxReportedErrors = loanTapeProperties.getMaxReportedErrors();
+      this.progressInterval = Math.max(1, loanTapeProperties.getProgressInterval());
+    }
+
+    private synchronized void setRowsRead(long rowsRead) {
+      this.rowsRead = rowsRead;
+    }
+
+    private synchronized void fail(long line, String message) {
+      rowsFailed++;
+      if (errors.size() < maxReportedErrors) {
+        errors.add(new ImportError(line, message));
+      }
+      amortizationMetrics.recordImportedRows("failed", 1);
+    }
+
+    private void created(int schedules) {
+      long created;
+      synchronized (this) {
+        long before = schedulesCreated;
+        schedulesCreated += schedules;
+        created = before / progressInterval == schedulesCreated / progressInterval
+            ? 0 : schedulesCreated;
+      }
+      amortizationMetrics.recordImportedRows("created", schedules);
+      if (created > 0) {
+        LOGGER.info("Imported {} schedules of {}", created, path);
+      }
+    }
+
+    private synchronized ImportReport toReport() {
+      errors.sort((first, second) -> Long.compare(first.getLine(), second.getLine()));
+      return new ImportReport(rowsRead, schedulesCreated, rowsFailed, List.copyOf(errors));
+    }
+  }
+}
@@ -0,0 +1,309 @@
+package com.example.amortizationschedule.service;
+
+import com.example.amortizationschedule.model.LoanDetails;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads the loans of a loan tape, a CSV file whose first row names the {@link LoanDetails} field of
+ * each column.
+ *
+ * <p>The file is mapped into memory rather than read through a stream, and the fields of a row are
+ * parsed straight from the mapped bytes into the unscaled value and scale of a decimal, so reading
+ * a row creates no string and copies no bytes. A file larger than a mapping is mapped a region at a
+ * time, each region starting at the first row that the previous region did not hold completely.
+ *
+ * <p>The {@code loanAmount}, {@code interestRate} and {@code monthlyPayments} columns are required.
+ * An empty or missing {@code depositAmount} is zero and an empty or missing {@code balloonPayment}
+ * is no balloon payment. Columns with other names are ignored, and blank rows are skipped.
+ */
+final class LoanTapeReader {
+
+  static final List<String> COLUMNS = List.of("loanAmount", "depositAmount", "interestRate",
+      "balloonPayment", "monthlyPayments");
+
+  private static final int LOAN_AMOUNT = 0;
+  private static final int DEPOSIT_AMOUNT = 1;
+  private static final int INTEREST_RATE = 2;
+  private static final int BALLOON_PAYMENT = 3;
+  private static final int MONTHLY_PAYMENTS = 4;
+  private static final int IGNORED = -1;
+
+  private static final long MAX_REGION_SIZE = 1L << 30;
+  private static final int MAX_DECIMAL_DIGITS = 18;
+  private static final int MAX_INTEGER_DIGITS = 9;
+  private static final byte[] BYTE_ORDER_MARK = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+  /**
+   * Receives the rows of a loan tape in the order of the file.
+   */
+  interface RowHandler {
+
+    /**
+     * Receives a row that was parsed into loan details.
+     *
+     * @param line        The line number of the row in the file, starting at 1.
+     * @param loanDetails The loan details of the row.
+     * @throws InterruptedException If the thread is interrupted while handing the row on.
+     */
+    void loan(long line, LoanDetails loanDetails) throws InterruptedException;
+
+    /**
+     * Receives a row that could not be parsed.
+     *
+     * @param line    The line number of the row in the file, starting at 1.
+     * @param message The reason the row could not be parsed.
+     * @throws InterruptedException If the thread is interrupted while handing the error on.
+     */
+    void error(long line, String message) throws InterruptedException;
+  }
+
+  private final Path path;
+  private final long maxRegionSize;
+
+  private int[] columns;
+  private final long[] unscaledValues = new long[COLUMNS.size()];
+  private final int[] scales = new int[COLUMNS.size()];
+  private final boolean[] present = new boolean[COLUMNS.size()];
+  private String error;
+
+  LoanTapeReader(Path path) {
+    this(path, MAX_REGION_SIZE);
+  }
+
+  LoanTapeReader(Path path, long maxRegionSize) {
+    this.path = path;
+    this.maxRegionSize = maxRegionSize;
+  }
+
+  /**
+   * Reads every row of the loan tape.
+   *
+   * @param rowHandler The handler receiving the loans and errors of the rows.
+   * @return The number of rows read, not counting the header and blank rows.
+   * @throws IOException          If the file cannot be read, its header does not name the required
+   *                              columns, or a row is longer than a mapped region.
+   * @throws InterruptedException If the thread is interrupted while handing a row on.
+   */
+  long read(RowHandler rowHandler) throws IOException, InterruptedException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      long position = 0;
+      long line = 0;
+      long rows = 0;
+
+      while (position < size) {
+        int regionSize = (int) Math.min(size - position, maxRegionSize);
+        boolean lastRegion = position + regionSize == size;
+        MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, regionSize);
+        int rowStart = position == 0 ? skipByteOrderMark(region) : 0;
+
+        while (rowStart < regionSize) {
+          int rowEnd = indexOfLineEnd(region, rowStart, regionSize);
+          if (rowEnd == regionSize && !lastRegion) {
+            // The rest of the row is read from the next region
+            break;
+          }
+          line++;
+          int fieldsEnd = rowEnd > rowStart && region.get(rowEnd - 1) == '\r' ? rowEnd - 1 : rowEnd;
+          if (isBlank(region, rowStart, fieldsEnd)) {
+            // Blank rows, such as a final line break, hold no loan
+          } else if (columns == null) {
+            readHeader(region, rowStart, fieldsEnd);
+          } else {
+            rows++;
+            if (parseRow(region, rowStart, fieldsEnd)) {
+              rowHandler.loan(line, createLoanDetails());
+            } else {
+              rowHandler.error(line, error);
+            }
+          }
+          rowStart = rowEnd + 1;
+        }
+
+        if (rowStart == 0) {
+          throw new IOException("Line " + (line + 1) + " of " + path + " is longer than "
+              + maxRegionSize + " bytes");
+        }
+        position += Math.min(rowStart, regionSize);
+      }
+      return rows;
+    }
+  }
+
+  private static int skipByteOrderMark(MappedByteBuffer region) {
+    if (region.limit() < BYTE_ORDER_MARK.length) {
+      return 0;
+    }
+    for (int i = 0; i < BYTE_ORDER_MARK.length; i++) {
+      if (region.get(i) != BYTE_ORDER_MARK[i]) {
+        return 0;
+      }
+    }
+    return BYTE_ORDER_MARK.length;
+  }
+
+  private static int indexOfLineEnd(MappedByteBuffer region, int from, int limit) {
+    for (int i = from; i < limit; i++) {
+      if (region.get(i) == '\n') {
+        return i;
+      }
+    }
+    return limit;
+  }
+
+  private static boolean isBlank(MappedByteBuffer region, int from, int to) {
+    for (int i = from; i < to; i++) {
+      if (!isSpace(region.get(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isSpace(byte b) {
+    return b == ' ' || b == '\t';
+  }
+
+  /**
+   * Maps each column of the header to the field it holds. The header is the only row read into
+   * strings.
+   *
+   * @throws IOException If the header does not name every required column.
+   */
+  private void readHeader(MappedByteBuffer region, int from, int to) throws IOException {
+    byte[] bytes = new byte[to - from];
+    region.get(from, bytes);
+    String[] names = new String(bytes, StandardCharsets.UTF_8).split(",", -1);
+    columns = new int[names.length];
+    for (int i = 0; i < names.length; i++) {
+      String name = names[i].strip();
+      columns[i] = COLUMNS.contains(name) ? COLUMNS.indexOf(name) : IGNORED;
+    }
+
+    for (int required : new int[] {LOAN_AMOUNT, INTEREST_RATE, MONTHLY_PAYMENTS}) {
+      if (Arrays.stream(columns).noneMatch(column -> column == required)) {
+        throw new IOException("The header of " + path + " has no "
+            + COLUMNS.get(required) + " column");
+      }
+    }
+  }
+
+  /**
+   * Parses the fields of a row into {@link #unscaledValues} and {@link #scales}.
+   *
+   * @return {@code true} if the row was parsed, otherwise {@code false} with the reason in
+   *     {@link #error}.
+   */
+  private boolean parseRow(MappedByteBuffer region, int from, int to) {
+    Arrays.fill(present, false);
+    int column = 0;
+    int fieldStart = from;
+    for (int i = from; i <= to; i++) {
+      if (i < to && region.get(i) != ',') {
+        continue;
+      }
+      if (column >= columns.length) {
+        error = "The row has more than the " + columns.length + " columns of the header";
+        return false;
+      }
+      int field = columns[column++];
+      if (field != IGNORED && !parseField(region, fieldStart, i, field)) {
+        return false;
+      }
+      fieldStart = i + 1;
+    }
+
+    if (!present[LOAN_AMOUNT] || !present[INTEREST_RATE] || !present[MONTHLY_PAYMENTS]) {
+      error = "The row has no " + COLUMNS.get(!present[LOAN_AMOUNT] ? LOAN_AMOUNT
+          : !present[INTEREST_RATE] ? INTEREST_RATE : MONTHLY_PAYMENTS);
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Parses a decimal field, or an integer one for the number of monthly payments. An empty field
+   * is left absent.
+   */
+  private boolean parseField(MappedByteBuffer region, int from, int to, int field) {
+    while (from < to && isSpace(region.get(from))) {
+      from++;
+    }
+    while (to > from && isSpace(region.get(to - 1))) {
+      to--;
+    }
+    if (from == to) {
+      return true;
+    }
+
+    int i = from;
+    boolean negative = region.get(i) == '-';
+    if (negative || region.get(i) == '+') {
+      i++;
+    }
+    long unscaledValue = 0;
+    int digits = 0;
+    int scale = 0;
+    boolean point = false;
+    boolean anyDigit = false;
+    for (; i < to; i++) {
+      byte b = region.get(i);
+      if (b >= '0' && b <= '9') {
+        anyDigit = true;
+        if (unscaledValue != 0 || b != '0') {
+          digits++;
+        }
+        unscaledValue = unscaledValue * 10 + (b - '0');
+        if (point) {
+          scale++;
+        }
+        if (digits > MAX_DECIMAL_DIGITS) {
+          return invalidField(region, from, to, field);
+        }
+      } else if (b == '.' && !point && field != MONTHLY_PAYMENTS) {
+        point = true;
+      } else {
+        return invalidField(region, from, to, field);
+      }
+    }
+    if (!anyDigit || field == MONTHLY_PAYMENTS && digits > MAX_INTEGER_DIGITS) {
+      return invalidField(region, from, to, field);
+    }
+
+    unscaledValues[field] = negative ? -unscaledValue : unscaledValue;
+    scales[field] = scale;
+    present[field] = true;
+    return true;
+  }
+
+  private boolean invalidField(MappedByteBuffer region, int from, int to, int field) {
+    byte[] bytes = new byte[to - from];
+    region.get(from, bytes);
+    error = "Invalid " + COLUMNS.get(field) + " '" + new String(bytes, StandardCharsets.UTF_8)
+        + "'";
+    return false;
+  }
+
+  private LoanDetails createLoanDetails() {
+    var loanDetails = new LoanDetails();
+    loanDetails.setLoanAmount(decimal(LOAN_AMOUNT));
+    loanDetails.setDepositAmount(present[DEPOSIT_AMOUNT] ? decimal(DEPOSIT_AMOUNT)
+        : BigDecimal.ZERO);
+    loanDetails.setInterestRate(decimal(INTEREST_RATE));
+    loanDetails.setBalloonPayment(present[BALLOON_PAYMENT] ? decimal(BALLOON_PAYMENT) : null);
+    loanDetails.setMonthlyPayments((int) unscaledValues[MONTHLY_PAYMENTS]);
+    return loanDetails;
+  }
+
+  private BigDecimal decimal(int field) {
+    return BigDecimal.valueOf(unscaledValues[field], scales[field]);
+  }
+}
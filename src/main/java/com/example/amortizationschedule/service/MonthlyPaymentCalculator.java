@@ -0,0 +1,264 @@
+package com.example.amortizationschedule.service;
+
+import com.example.amortizationschedule.config.AmortizationProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Comparator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Calculates the interest rates and monthly payment of a loan.
+ *
+ * <p>The annuity factor {@code (1 + r)^n} is evaluated with a bounded {@link MathContext} rather
+ * than exactly, which would give it {@code 5n} decimal places. {@link BigDecimal#pow(int,
+ * MathContext)} is within two ulps of the exact factor, a relative error of at most
+ * {@code e = 2 * 10^(1 - precision)}. As the monthly payment {@code P = Lr F / (F - 1)} has a
+ * relative sensitivity of {@code 1 / (F - 1)} to the factor, and {@code F - 1 >= nr >= 10^-5}, the
+ * payment is within {@code 2 * 10^(6 - precision) * P} of the exact one before it is rounded to 15
+ * decimal places. With the default precision of 34 that is below 2 * 10<sup>-16</sup> for any
+ * payment under 10<sup>12</sup>, so the payment, and every rounded amount derived from it, only
+ * differs when the exact value lies within that distance of a rounding boundary at the 15th
+ * decimal place. A precision of 0 evaluates the factor exactly.
+ *
+ * <p>The factors of several terms at the same rate are built incrementally, each from the factor of
+ * the next shorter term, with five guard digits. The {@code k}-th factor
+ * then carries at most {@code k} power and {@code k - 1} multiplication errors at the working
+ * precision, a relative error below {@code 2.5k * 10^(1 - precision - 5)}, which stays within the
+ * bound above for fewer than 80,000 terms.
+ *
+ * <p>The factor of a monthly rate and term, together with its reciprocal rounded like the balloon
+ * payment calculation rounds it, is cached by the rate and the term, as the loans of a product
+ * share a few rates once they are rounded to 5 decimal places. The rate is compared with its scale,
+ * so a cached factor is exactly the one that would be evaluated, and every payment is the same
+ * whether its factor was cached or not. The factors of the rates and terms of
+ * {@code amortization.annuity-factors.warm-up-interest-rates} and
+ * {@code amortization.annuity-factors.warm-up-terms} are cached at startup. The incrementally built
+ * factors are not cached, but a cached factor is used in their place.
+ */
+@Component
+public class MonthlyPaymentCalculator {
+
+  private static final int INTEREST_ROUNDING_SCALE = 5;
+  private static final int INPUT_ROUNDING_SCALE = 15;
+  private static final int NUMBER_OF_MONTHS_IN_YEAR = 12;
+  private static final int FACTOR_GUARD_DIGITS = 5;
+
+  private final MathContext mathContext;
+  private final MathContext incrementalFactorContext;
+  private final Cache<FactorKey, AnnuityFactor> annuityFactors;
+
+  @Autowired
+  public MonthlyPaymentCalculator(AmortizationProperties amortizationProperties,
+      AmortizationMetrics amortizationMetrics) {
+    this(new MathContext(amortizationProperties.getPaymentPrecision(), RoundingMode.HALF_EVEN),
+        createAnnuityFactorCache(amortizationProperties.getAnnuityFactors()));
+    if (annuityFactors != null) {
+      amortizationMetrics.registerAnnuityFactorCache(annuityFactors);
+      warmUp(amortizationProperties.getAnnuityFactors());
+    }
+  }
+
+  public MonthlyPaymentCalculator(MathContext mathContext) {
+    this(mathContext, null);
+  }
+
+  private MonthlyPaymentCalculator(MathContext mathContext,
+      Cache<FactorKey, AnnuityFactor> annuityFactors) {
+    this.mathContext = mathContext;
+    this.incrementalFactorContext = mathContext.getPrecision() == 0 ? mathContext
+        : new MathContext(mathContext.getPrecision() + FACTOR_GUARD_DIGITS,
+            mathContext.getRoundingMode());
+    this.annuityFactors = annuityFactors;
+  }
+
+  private static Cache<FactorKey, AnnuityFactor> createAnnuityFactorCache(
+      AmortizationProperties.AnnuityFactors annuityFactorsProperties) {
+    if (!annuityFactorsProperties.isEnabled()) {
+      return null;
+    }
+    return Caffeine.newBuilder()
+        .maximumSize(annuityFactorsProperties.getMaximumSize())
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * Calculates the monthly interest rate in decimal form.
+   *
+   * @param interestRate The yearly interest rate as a percentage.
+   * @return The monthly interest rate in decimal form, with a scale of 5.
+   */
+  public BigDecimal calculateMonthlyInterestRate(BigDecimal interestRate) {
+    BigDecimal yearlyInterestRate = interestRate
+        .divide(BigDecimal.valueOf(100), INTEREST_ROUNDING_SCALE, RoundingMode.HALF_UP);
+    return yearlyInterestRate
+        .divide(BigDecimal.valueOf(NUMBER_OF_MONTHS_IN_YEAR), INTEREST_ROUNDING_SCALE,
+            RoundingMode.HALF_UP);
+  }
+
+  /**
+   * Calculates the annuity factors {@code (1 + r)^n} of a monthly interest rate for several terms.
+   * The terms are evaluated from the shortest, and the factor of each term is the factor of the
+   * previous one multiplied by the power for the months between them, so a longer term costs only
+   * the power of the difference.
+   *
+   * @param monthlyInterestRate The monthly interest rate.
+   * @param termMonths          The terms of the loan in months, in any order.
+   * @return The annuity factor of each term, in the order of the terms.
+   */
+  public BigDecimal[] calculateAnnuityFactors(BigDecimal monthlyInterestRate, int... termMonths) {
+    Integer[] order = new Integer[termMonths.length];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, Comparator.comparingInt(i -> termMonths[i]));
+
+    BigDecimal base = monthlyInterestRate.add(BigDecimal.ONE);
+    BigDecimal[] factors = new BigDecimal[termMonths.length];
+    BigDecimal factor = BigDecimal.ONE;
+    int previousTermMonths = 0;
+    for (int i : order) {
+      AnnuityFactor cachedFactor = annuityFactors == null ? null
+          : annuityFactors.getIfPresent(new FactorKey(monthlyInterestRate, termMonths[i]));
+      factor = cachedFactor != null ? cachedFactor.factor()
+          : factor.multiply(base.pow(termMonths[i] - previousTermMonths,
+              incrementalFactorContext), incrementalFactorContext);
+      factors[i] = factor;
+      previousTermMonths = termMonths[i];
+    }
+    return factors;
+  }
+
+  /**
+   * Calculates the monthly payment for the loan.
+   *
+   * @param balloonPayment      The balloon payment amount (if applicable).
+   * @param remainingBalance    The remaining loan balance.
+   * @param monthlyInterestRate The monthly interest rate.
+   * @param monthlyPayments     The total number of monthly payments.
+   * @return The monthly payment amount.
+   */
+  public BigDecimal calculateMonthlyPayment(BigDecimal balloonPayment, BigDecimal remainingBalance,
+      BigDecimal monthlyInterestRate, int monthlyPayments) {
+    AnnuityFactor annuityFactor = annuityFactors == null
+        ? evaluateAnnuityFactor(monthlyInterestRate, monthlyPayments)
+        : annuityFactors.get(new FactorKey(monthlyInterestRate, monthlyPayments),
+            key -> evaluateAnnuityFactor(key.monthlyInterestRate(), key.monthlyPayments()));
+    return calculateMonthlyPayment(balloonPayment, remainingBalance, monthlyInterestRate,
+        annuityFactor);
+  }
+
+  /**
+   * Calculates the monthly payment for the loan from an already evaluated annuity factor.
+   *
+   * @param balloonPayment      The balloon payment amount (if applicable).
+   * @param remainingBalance    The remaining loan balance.
+   * @param monthlyInterestRate The monthly interest rate.
+   * @param factor              The annuity factor {@code (1 + r)^n} of the term of the loan.
+   * @return The monthly payment amount.
+   */
+  public BigDecimal calculateMonthlyPayment(BigDecimal balloonPayment, BigDecimal remainingBalance,
+      BigDecimal monthlyInterestRate, BigDecimal factor) {
+    return calculateMonthlyPayment(balloonPayment, remainingBalance, monthlyInterestRate,
+        AnnuityFactor.of(factor));
+  }
+
+  private BigDecimal calculateMonthlyPayment(BigDecimal balloonPayment,
+      BigDecimal remainingBalance, BigDecimal monthlyInterestRate, AnnuityFactor annuityFactor) {
+    return (balloonPayment == null || balloonPayment.compareTo(BigDecimal.ZERO) == 0)
+        ? calculateMonthlyPaymentWithoutBalloon(remainingBalance, monthlyInterestRate,
+            annuityFactor)
+        : calculateMonthlyPaymentWithBalloon(remainingBalance, monthlyInterestRate, annuityFactor,
+            balloonPayment);
+  }
+
+  /**
+   * Caches the annuity factors of the configured rates and terms. Loading them is not counted as
+   * a miss.
+   *
+   * @param annuityFactorsProperties The annuity factor cache configuration.
+   */
+  private void warmUp(AmortizationProperties.AnnuityFactors annuityFactorsProperties) {
+    for (BigDecimal interestRate : annuityFactorsProperties.getWarmUpInterestRates()) {
+      BigDecimal monthlyInterestRate = calculateMonthlyInterestRate(interestRate);
+      for (int monthlyPayments : annuityFactorsProperties.getWarmUpTerms()) {
+        annuityFactors.put(new FactorKey(monthlyInterestRate, monthlyPayments),
+            evaluateAnnuityFactor(monthlyInterestRate, monthlyPayments));
+      }
+    }
+  }
+
+  private AnnuityFactor evaluateAnnuityFactor(BigDecimal monthlyInterestRate,
+      int monthlyPayments) {
+    return AnnuityFactor.of(
+        monthlyInterestRate.add(BigDecimal.ONE).pow(monthlyPayments, mathContext));
+  }
+
+  /**
+   * Calculates the monthly payment for the loan without a balloon payment.
+   *
+   * @param loanAmount          The total loan amount.
+   * @param monthlyInterestRate The monthly interest rate.
+   * @param annuityFactor       The annuity factor of the term of the loan.
+   * @return The monthly payment without a balloon payment.
+   */
+  private BigDecimal calculateMonthlyPaymentWithoutBalloon(BigDecimal loanAmount,
+      BigDecimal monthlyInterestRate,
+      AnnuityFactor annuityFactor) {
+    BigDecimal numerator = loanAmount.multiply(monthlyInterestRate)
+        .multiply(annuityFactor.factor());
+    return numerator.divide(annuityFactor.factorLessOne(), INPUT_ROUNDING_SCALE,
+        RoundingMode.HALF_UP);
+  }
+
+  /**
+   * Calculates the monthly payment for the loan with a balloon payment.
+   *
+   * @param loanAmount          The total loan amount.
+   * @param monthlyInterestRate The monthly interest rate.
+   * @param annuityFactor       The annuity factor of the term of the loan.
+   * @param balloonPayment      The balloon payment amount.
+   * @return The monthly payment with a balloon payment.
+   */
+  private BigDecimal calculateMonthlyPaymentWithBalloon(BigDecimal loanAmount,
+      BigDecimal monthlyInterestRate,
+      AnnuityFactor annuityFactor, BigDecimal balloonPayment) {
+    BigDecimal adjustedLoanAmount = loanAmount.subtract(balloonPayment
+        .divide(annuityFactor.factor(), INPUT_ROUNDING_SCALE, RoundingMode.HALF_UP));
+    BigDecimal numerator = adjustedLoanAmount.multiply(monthlyInterestRate);
+    return numerator.divide(annuityFactor.oneLessDiscountFactor(), INPUT_ROUNDING_SCALE,
+        RoundingMode.HALF_UP);
+  }
+
+  /**
+   * The key of a cached annuity factor. The rate is compared with its scale.
+   */
+  private record FactorKey(BigDecimal monthlyInterestRate, int monthlyPayments) {
+
+  }
+
+  /**
+   * An annuity factor {@code F = (1 + r)^n} with the values derived from it that do not depend on
+   * the loan.
+   *
+   * @param factor                The annuity factor.
+   * @param factorLessOne         {@code F - 1}.
+   * @param oneLessDiscountFactor {@code 1 - 1 / F}, with the reciprocal rounded to 15 decimal
+   *                              places.
+   */
+  record AnnuityFactor(BigDecimal factor, BigDecimal factorLessOne,
+                       BigDecimal oneLessDiscountFactor) {
+
+    static AnnuityFactor of(BigDecimal factor) {
+      // A zero factor fails the balloon payment calculation before its reciprocal is needed
+      BigDecimal oneLessDiscountFactor = factor.signum() == 0 ? null : BigDecimal.ONE
+          .subtract(BigDecimal.ONE.divide(factor, INPUT_ROUNDING_SCALE, RoundingMode.HALF_UP));
+      return new AnnuityFactor(factor, factor.subtract(BigDecimal.ONE), oneLessDiscountFactor);
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package com.example.amortizationschedule.service;
+
+import com.example.amortizationschedule.model.AmortizationEntry;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * A read-only view of packed amortization entries. The entries are only decoded, into primitive
+ * arrays, when the first one is read, and each {@link #get(int)} creates a new entry.
+ */
+final class PackedAmortizationEntryList extends AbstractList<AmortizationEntry> implements
+    RandomAccess {
+
+  private final byte[] packedEntries;
+  private final int size;
+  private long[] cents;
+
+  PackedAmortizationEntryList(byte[] packedEntries) {
+    this.packedEntries = packedEntries;
+    this.size = PackedEntryCodec.entryCount(packedEntries);
+  }
+
+  @Override
+  public AmortizationEntry get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    long[] decoded = decode();
+    int offset = index * 4;
+    return new AmortizationEntry(null, index + 1, PackedEntryCodec.fromCents(decoded[offset]),
+        PackedEntryCodec.fromCents(decoded[offset + 1]),
+        PackedEntryCodec.fromCents(decoded[offset + 2]),
+        PackedEntryCodec.fromCents(decoded[offset + 3]));
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  private long[] decode() {
+    if (cents == null) {
+      long[] decoded = new long[size * 4];
+      PackedEntryCodec.decode(packedEntries,
+          (period, monthlyPayment, interestPayment, principalPayment, remainingBalance) -> {
+            int offset = (period - 1) * 4;
+            decoded[offset] = monthlyPayment;
+            decoded[offset + 1] = interestPayment;
+            decoded[offset + 2] = principalPayment;
+            decoded[offset + 3] = remainingBalance;
+          });
+      cents = decoded;
+    }
+    return cents;
+  }
+}
@@ -0,0 +1,167 @@
+package com.example.amortizationschedule.service;
+
+import com.example.amortizationschedule.model.AmortizationEntry;
+import com.example.amortizationschedule.model.PackedAmortizationEntries;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Packs the entries of an amortization schedule into a compact binary form.
+ *
+ * <p>The form starts with the number of entries, followed by the monthly, interest and principal
+ * payment and the remaining balance of each entry in cents. Every amount is stored as the
+ * difference from the same amount of the previous entry, zigzag encoded into a variable-length
+ * integer of 7 bits per byte, so the slowly changing amounts of a schedule take one or two bytes
+ * each. The period of an entry is its position.
+ */
+final class PackedEntryCodec {
+
+  private static final int OUTPUT_ROUNDING_SCALE = 2;
+
+  private PackedEntryCodec() {
+  }
+
+  /**
+   * Receives the amounts of each decoded entry, in cents.
+   */
+  @FunctionalInterface
+  interface EntryVisitor {
+
+    void visit(int period, long monthlyPayment, long interestPayment, long principalPayment,
+        long remainingBalance);
+  }
+
+  /**
+   * Packs amortization entries.
+   *
+   * @param amortizationEntries The entries, in period order, with amounts of at most 2 decimals.
+   * @return The packed entries.
+   */
+  static byte[] encode(List<AmortizationEntry> amortizationEntries) {
+    ByteArrayOutputStream output = new ByteArrayOutputStream(amortizationEntries.size() * 6 + 5);
+    writeVarLong(output, amortizationEntries.size());
+    long monthlyPayment = 0;
+    long interestPayment = 0;
+    long principalPayment = 0;
+    long remainingBalance = 0;
+    for (AmortizationEntry entry : amortizationEntries) {
+      monthlyPayment = writeDelta(output, monthlyPayment, toCents(entry.getMonthlyPayment()));
+      interestPayment = writeDelta(output, interestPayment, toCents(entry.getInterestPayment()));
+      principalPayment = writeDelta(output, principalPayment,
+          toCents(entry.getPrincipalPayment()));
+      remainingBalance = writeDelta(output, remainingBalance,
+          toCents(entry.getRemainingBalance()));
+    }
+    return output.toByteArray();
+  }
+
+  /**
+   * Packs the entries of a schedule together with the totals that are otherwise aggregated from
+   * the entry rows.
+   *
+   * @param scheduleId          The id of the schedule.
+   * @param amortizationEntries The entries of the schedule, in period order.
+   * @return The packed entries of the schedule.
+   */
+  static PackedAmortizationEntries pack(Long scheduleId,
+      List<AmortizationEntry> amortizationEntries) {
+    BigDecimal totalInterestDue = BigDecimal.ZERO;
+    BigDecimal totalPaymentsDue = BigDecimal.ZERO;
+    for (AmortizationEntry entry : amortizationEntries) {
+      totalInterestDue = totalInterestDue.add(entry.getInterestPayment());
+      totalPaymentsDue = totalPaymentsDue.add(entry.getMonthlyPayment());
+    }
+
+    PackedAmortizationEntries packedEntries = new PackedAmortizationEntries();
+    packedEntries.setScheduleId(scheduleId);
+    packedEntries.setEntryCount(amortizationEntries.size());
+    packedEntries.setEntries(encode(amortizationEntries));
+    packedEntries.setMonthlyRepayment(amortizationEntries.isEmpty()
+        ? null : amortizationEntries.get(0).getMonthlyPayment());
+    packedEntries.setTotalInterestDue(totalInterestDue);
+    packedEntries.setTotalPaymentsDue(totalPaymentsDue);
+    return packedEntries;
+  }
+
+  /**
+   * Reads the number of packed entries without decoding them.
+   *
+   * @param packedEntries The packed entries.
+   * @return The number of entries.
+   */
+  static int entryCount(byte[] packedEntries) {
+    return (int) new Reader(packedEntries).readVarLong();
+  }
+
+  /**
+   * Decodes packed entries one at a time, without creating any objects per entry.
+   *
+   * @param packedEntries The packed entries.
+   * @param visitor       The visitor receiving the amounts of each entry.
+   */
+  static void decode(byte[] packedEntries, EntryVisitor visitor) {
+    Reader reader = new Reader(packedEntries);
+    int entryCount = (int) reader.readVarLong();
+    long monthlyPayment = 0;
+    long interestPayment = 0;
+    long principalPayment = 0;
+    long remainingBalance = 0;
+    for (int i = 1; i <= entryCount; i++) {
+      monthlyPayment += reader.readDelta();
+      interestPayment += reader.readDelta();
+      principalPayment += reader.readDelta();
+      remainingBalance += reader.readDelta();
+      visitor.visit(i, monthlyPayment, interestPayment, principalPayment, remainingBalance);
+    }
+  }
+
+  static long toCents(BigDecimal amount) {
+    return amount.setScale(OUTPUT_ROUNDING_SCALE).unscaledValue().longValueExact();
+  }
+
+  static BigDecimal fromCents(long cents) {
+    return BigDecimal.valueOf(cents, OUTPUT_ROUNDING_SCALE);
+  }
+
+  private static long writeDelta(ByteArrayOutputStream output, long previous, long value) {
+    long delta = Math.subtractExact(value, previous);
+    writeVarLong(output, (delta << 1) ^ (delta >> 63));
+    return value;
+  }
+
+  private static void writeVarLong(ByteArrayOutputStream output, long value) {
+    while ((value & ~0x7FL) != 0) {
+      output.write((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    output.write((int) value);
+  }
+
+  private static final class Reader {
+
+    private final byte[] bytes;
+    private int position;
+
+    Reader(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    long readDelta() {
+      long value = readVarLong();
+      return (value >>> 1) ^ -(value & 1);
+    }
+
+    long readVarLong() {
+      long value = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = bytes[position++];
+        value |= (long) (b & 0x7F) << shift;
+        shift += 7;
+      } while (b < 0);
+      return value;
+    }
+  }
+}
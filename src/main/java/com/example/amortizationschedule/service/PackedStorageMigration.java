@@ -0,0 +1,94 @@
+package com.example.amortizationschedule.service;
+
+import com.example.amortizationschedule.config.AmortizationProperties;
+import com.example.amortizationschedule.model.AmortizationEntry;
+import com.example.amortizationschedule.model.AmortizationSchedule;
+import com.example.amortizationschedule.model.StorageMode;
+import com.example.amortizationschedule.repository.AmortizationEntryRepository;
+import com.example.amortizationschedule.repository.AmortizationScheduleRepository;
+import com.example.amortizationschedule.repository.PackedAmortizationEntriesRepository;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Converts amortization schedules stored as entry rows into packed entries.
+ *
+ * <p>Schedules are converted in batches, each in its own transaction, so a large table is never
+ * held in a single persistence context and an interrupted migration keeps the batches it has
+ * completed. Running it again continues with the schedules that are still stored as rows.
+ */
+@Component
+@RequiredArgsConstructor
+public class PackedStorageMigration {
+
+  private static final int BATCH_SIZE = 50;
+
+  private final AmortizationProperties amortizationProperties;
+  private final AmortizationScheduleRepository amortizationScheduleRepository;
+  private final AmortizationEntryRepository amortizationEntryRepository;
+  private final PackedAmortizationEntriesRepository packedAmortizationEntriesRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final ScheduleResponseCache scheduleResponseCache;
+
+  /**
+   * Migrates the stored schedules once the application has started, if enabled.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void migrateOnStartup() {
+    if (amortizationProperties.getStorage().isMigrateOnStartup()) {
+      migrate();
+    }
+  }
+
+  /**
+   * Packs the entries of every schedule that is stored as entry rows.
+   *
+   * @return The number of schedules that were packed.
+   */
+  public int migrate() {
+    int migrated = 0;
+    long after = 0;
+    while (true) {
+      List<Long> scheduleIds = amortizationScheduleRepository.findIdsByStorageModeAfter(
+          StorageMode.ROWS, after, PageRequest.ofSize(BATCH_SIZE));
+      if (scheduleIds.isEmpty()) {
+        return migrated;
+      }
+      transactionTemplate.executeWithoutResult(
+          status -> scheduleIds.forEach(this::migrateSchedule));
+      migrated += scheduleIds.size();
+      after = scheduleIds.get(scheduleIds.size() - 1);
+    }
+  }
+
+  /**
+   * Packs the entries of a single schedule and removes its entry rows. The entries are deleted
+   * one by one rather than in bulk, so that the flush removes the join rows referencing them
+   * first.
+   *
+   * @param scheduleId The id of the schedule.
+   */
+  private void migrateSchedule(Long scheduleId) {
+    AmortizationSchedule amortizationSchedule = amortizationScheduleRepository
+        .findById(scheduleId)
+        .orElseThrow();
+    List<AmortizationEntry> amortizationEntries = new ArrayList<>(
+        amortizationSchedule.getAmortizationEntries());
+    amortizationEntries.sort(Comparator.comparingInt(AmortizationEntry::getPeriod));
+
+    packedAmortizationEntriesRepository.save(
+        PackedEntryCodec.pack(scheduleId, amortizationEntries));
+    amortizationSchedule.getAmortizationEntries().clear();
+    amortizationSchedule.setStorageMode(StorageMode.PACKED);
+    amortizationEntryRepository.deleteAll(amortizationEntries);
+    // Packed entries have no ids, so the JSON of the schedule changes
+    scheduleResponseCache.invalidate(scheduleId);
+  }
+}
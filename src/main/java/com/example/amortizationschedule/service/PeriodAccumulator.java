@@ -0,0 +1,89 @@
+package com.example.amortizationschedule.service;
+
+import com.example.amortizationschedule.model.PortfolioPeriod;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sums the entries of many schedules per period, in cents, into primitive arrays indexed by
+ * period. The arrays grow to the longest term added, so an accumulator holds a few kilobytes
+ * however many schedules it sums.
+ */
+final class PeriodAccumulator {
+
+  private static final int INITIAL_PERIODS = 480;
+
+  private long[] loanCounts = new long[INITIAL_PERIODS + 1];
+  private long[] monthlyPayments = new long[INITIAL_PERIODS + 1];
+  private long[] interestPayments = new long[INITIAL_PERIODS + 1];
+  private long[] principalPayments = new long[INITIAL_PERIODS + 1];
+  private long[] remainingBalances = new long[INITIAL_PERIODS + 1];
+  private int lastPeriod;
+
+  /**
+   * Adds an entry of a schedule.
+   *
+   * @param period           The period of the entry, starting from 1.
+   * @param monthlyPayment   The monthly payment in cents.
+   * @param interestPayment  The interest payment in cents.
+   * @param principalPayment The principal payment in cents.
+   * @param remainingBalance The remaining balance in cents.
+   */
+  void add(int period, long monthlyPayment, long interestPayment, long principalPayment,
+      long remainingBalance) {
+    ensureCapacity(period);
+    loanCounts[period]++;
+    monthlyPayments[period] += monthlyPayment;
+    interestPayments[period] += interestPayment;
+    principalPayments[period] += principalPayment;
+    remainingBalances[period] += remainingBalance;
+    lastPeriod = Math.max(lastPeriod, period);
+  }
+
+  /**
+   * Adds the sums of another accumulator to this one.
+   *
+   * @param other The accumulator to add.
+   */
+  void merge(PeriodAccumulator other) {
+    ensureCapacity(other.lastPeriod);
+    for (int period = 1; period <= other.lastPeriod; period++) {
+      loanCounts[period] += other.loanCounts[period];
+      monthlyPayments[period] += other.monthlyPayments[period];
+      interestPayments[period] += other.interestPayments[period];
+      principalPayments[period] += other.principalPayments[period];
+      remainingBalances[period] += other.remainingBalances[period];
+    }
+    lastPeriod = Math.max(lastPeriod, other.lastPeriod);
+  }
+
+  /**
+   * Converts the sums into periods, up to the last period of the longest schedule added.
+   *
+   * @return The sums of each period.
+   */
+  List<PortfolioPeriod> toPeriods() {
+    List<PortfolioPeriod> periods = new ArrayList<>(lastPeriod);
+    for (int period = 1; period <= lastPeriod; period++) {
+      periods.add(new PortfolioPeriod(period, loanCounts[period],
+          PackedEntryCodec.fromCents(monthlyPayments[period]),
+          PackedEntryCodec.fromCents(interestPayments[period]),
+          PackedEntryCodec.fromCents(principalPayments[period]),
+          PackedEntryCodec.fromCents(remainingBalances[period])));
+    }
+    return periods;
+  }
+
+  private void ensureCapacity(int period) {
+    if (period < loanCounts.length) {
+      return;
+    }
+    int length = Math.max(period + 1, loanCounts.length * 2);
+    loanCounts = Arrays.copyOf(loanCounts, length);
+    monthlyPayments = Arrays.copyOf(monthlyPayments, length);
+    interestPayments = Arrays.copyOf(interestPayments, length);
+    principalPayments = Arrays.copyOf(principalPayments, length);
+    remainingBalances = Arrays.copyOf(remainingBalances, length);
+  }
+}
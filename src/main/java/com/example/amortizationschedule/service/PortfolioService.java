@@ -0,0 +1,9 @@
+package com.example.amortizationschedule.service;
+
+import com.example.amortizationschedule.model.PortfolioCashFlow;
+import com.example.amortizationschedule.model.PortfolioFilter;
+
+public interface PortfolioService {
+
+  PortfolioCashFlow aggregateCashFlow(PortfolioFilter portfolioFilter);
+}
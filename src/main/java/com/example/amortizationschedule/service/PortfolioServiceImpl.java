@@ -0,0 +1,264 @@
+package com.example.amortizationschedule.service;
+
+import com.example.amortizationschedule.config.AmortizationProperties;
+import com.example.amortizationschedule.model.AmortizationEntry;
+import com.example.amortizationschedule.model.LoanDetails;
+import com.example.amortizationschedule.model.PackedAmortizationEntries;
+import com.example.amortizationschedule.model.PortfolioCashFlow;
+import com.example.amortizationschedule.model.PortfolioFilter;
+import com.example.amortizationschedule.model.PortfolioLoan;
+import com.example.amortizationschedule.model.StorageMode;
+import com.example.amortizationschedule.model.StoredEntry;
+import com.example.amortizationschedule.repository.AmortizationScheduleRepository;
+import com.example.amortizationschedule.repository.PackedAmortizationEntriesRepository;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Implementation of the {@link PortfolioService} interface.
+ *
+ * <p>The loans of the portfolio are read a page at a time, ordered by schedule id. The loans of a
+ * page are split over the batch calculation pool, where every partition sums the entries of its
+ * loans into its own {@link PeriodAccumulator}, and the partial sums are merged into the sums of
+ * the portfolio. The schedules of a page stored as rows are split over the same pool, where every
+ * partition streams its entry rows from a forward-only result set of its own into its own sums.
+ * Neither the entries of a loan nor the loans of an earlier page are kept, so the memory
+ * of an aggregation is bounded by the page size rather than the size of the portfolio.
+ */
+@Service
+public class PortfolioServiceImpl implements PortfolioService {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PortfolioServiceImpl.class);
+
+  private final AmortizationProperties amortizationProperties;
+  private final AmortizationService amortizationService;
+  private final AmortizationScheduleRepository amortizationScheduleRepository;
+  private final PackedAmortizationEntriesRepository packedAmortizationEntriesRepository;
+  private final ForkJoinPool amortizationBatchPool;
+  private final TransactionTemplate readOnlyTransactionTemplate;
+
+  public PortfolioServiceImpl(AmortizationProperties amortizationProperties,
+      AmortizationService amortizationService,
+      AmortizationScheduleRepository amortizationScheduleRepository,
+      PackedAmortizationEntriesRepository packedAmortizationEntriesRepository,
+      ForkJoinPool amortizationBatchPool, TransactionTemplate transactionTemplate) {
+    this.amortizationProperties = amortizationProperties;
+    this.amortizationService = amortizationService;
+    this.amortizationScheduleRepository = amortizationScheduleRepository;
+    this.packedAmortizationEntriesRepository = packedAmortizationEntriesRepository;
+    this.amortizationBatchPool = amortizationBatchPool;
+    this.readOnlyTransactionTemplate = new TransactionTemplate(
+        transactionTemplate.getTransactionManager());
+    this.readOnlyTransactionTemplate.setReadOnly(true);
+  }
+
+  /**
+   * Aggregates the entries of the stored schedules selected by a filter into the total monthly,
+   * interest and principal payments and remaining balance of each period.
+   *
+   * <p>Packed entries are decoded straight into the sums, and entry rows are read as they are
+   * stored, so the sums agree with the totals listed for the same schedules. The entries of
+   * schedules recomputed on read are recalculated with the version of the calculation and the
+   * payment precision that created them; a schedule created by another version is left out of the
+   * sums and counted as skipped rather than failing the aggregation.
+   *
+   * @param portfolioFilter The criteria selecting the schedules of the portfolio.
+   * @return The number of loans in the portfolio and the sums of each period.
+   */
+  @Override
+  public PortfolioCashFlow aggregateCashFlow(PortfolioFilter portfolioFilter) {
+    int pageSize = amortizationProperties.getPortfolio().getPageSize();
+    PeriodAccumulator portfolioAccumulator = new PeriodAccumulator();
+    LongAdder skippedLoanCount = new LongAdder();
+    long loanCount = 0;
+    long after = 0;
+
+    while (true) {
+      List<PortfolioLoan> loans = amortizationScheduleRepository.findPortfolioLoansAfter(after,
+          portfolioFilter.getMinLoanAmount(), portfolioFilter.getMaxLoanAmount(),
+          portfolioFilter.getMonthlyPayments(), PageRequest.ofSize(pageSize));
+      if (loans.isEmpty()) {
+        return new PortfolioCashFlow(loanCount, skippedLoanCount.sum(),
+            portfolioAccumulator.toPeriods());
+      }
+      portfolioAccumulator.merge(aggregatePage(loans, findPackedEntries(loans),
+          skippedLoanCount));
+      portfolioAccumulator.merge(aggregateStoredEntries(loans));
+      loanCount += loans.size();
+      after = loans.get(loans.size() - 1).getScheduleId();
+    }
+  }
+
+  /**
+   * Sums the packed and recomputed entries of a page of loans in parallel on the batch calculation
+   * pool.
+   *
+   * @param loans            The loans of the page.
+   * @param packedEntries    The packed entries of the packed schedules of the page, by schedule id.
+   * @param skippedLoanCount The count of loans whose entries cannot be reproduced.
+   * @return The sums of the page.
+   */
+  private PeriodAccumulator aggregatePage(List<PortfolioLoan> loans,
+      Map<Long, byte[]> packedEntries, LongAdder skippedLoanCount) {
+    return sumOnPool(() -> loans.parallelStream()
+        .collect(PeriodAccumulator::new,
+            (accumulator, loan) -> accumulate(accumulator, loan, packedEntries, skippedLoanCount),
+            PeriodAccumulator::merge));
+  }
+
+  /**
+   * Sums the entry rows of the schedules of a page stored as rows, including those a change was
+   * applied to, in parallel on the batch calculation pool. The schedules are split into one
+   * partition for every thread of the pool, and every partition is read in a transaction of its
+   * own.
+   *
+   * @param loans The loans of the page.
+   * @return The sums of the entry rows of the page.
+   */
+  private PeriodAccumulator aggregateStoredEntries(List<PortfolioLoan> loans) {
+    // Schedules stored before the storage mode was recorded are stored as rows
+    List<Long> rowScheduleIds = loans.stream()
+        .filter(loan -> loan.getStorageMode() != StorageMode.PACKED
+            && loan.getStorageMode() != StorageMode.RECOMPUTE)
+        .map(PortfolioLoan::getScheduleId)
+        .toList();
+    if (rowScheduleIds.isEmpty()) {
+      return new PeriodAccumulator();
+    }
+
+    int partitionSize = Math.max(1, (rowScheduleIds.size()
+        + amortizationBatchPool.getParallelism() - 1) / amortizationBatchPool.getParallelism());
+    List<List<Long>> partitions = new ArrayList<>();
+    for (int from = 0; from < rowScheduleIds.size(); from += partitionSize) {
+      partitions.add(rowScheduleIds.subList(from,
+          Math.min(from + partitionSize, rowScheduleIds.size())));
+    }
+    return sumOnPool(() -> partitions.parallelStream()
+        .collect(PeriodAccumulator::new, this::addStoredEntries, PeriodAccumulator::merge));
+  }
+
+  /**
+   * Runs a summation on the batch calculation pool, so that its parallel streams are split over
+   * the threads of the pool.
+   *
+   * @param summation The summation.
+   * @return The sums.
+   */
+  private PeriodAccumulator sumOnPool(Callable<PeriodAccumulator> summation) {
+    try {
+      return amortizationBatchPool.submit(summation).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Portfolio aggregation was interrupted", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException("Portfolio aggregation failed", e.getCause());
+    }
+  }
+
+  /**
+   * Reads the packed entries of the packed schedules of a page in a single query.
+   *
+   * @param loans The loans of the page.
+   * @return The packed entries, by schedule id.
+   */
+  private Map<Long, byte[]> findPackedEntries(List<PortfolioLoan> loans) {
+    List<Long> packedScheduleIds = loans.stream()
+        .filter(loan -> loan.getStorageMode() == StorageMode.PACKED)
+        .map(PortfolioLoan::getScheduleId)
+        .toList();
+    Map<Long, byte[]> packedEntries = new HashMap<>();
+    if (!packedScheduleIds.isEmpty()) {
+      for (PackedAmortizationEntries entries : packedAmortizationEntriesRepository
+          .findAllById(packedScheduleIds)) {
+        packedEntries.put(entries.getScheduleId(), entries.getEntries());
+      }
+    }
+    return packedEntries;
+  }
+
+  /**
+   * Streams the entry rows of a partition of schedules stored as rows into an accumulator. Every
+   * partition is read in a transaction of its own, so the persistence context does not grow with
+   * the number of pages.
+   *
+   * @param accumulator The accumulator of the partition.
+   * @param scheduleIds The ids of the schedules of the partition.
+   */
+  private void addStoredEntries(PeriodAccumulator accumulator, List<Long> scheduleIds) {
+    readOnlyTransactionTemplate.executeWithoutResult(status -> {
+      try (Stream<StoredEntry> storedEntries = amortizationScheduleRepository
+          .streamStoredEntriesByScheduleIds(scheduleIds)) {
+        storedEntries.forEach(entry -> accumulator.add(entry.getPeriod(),
+            PackedEntryCodec.toCents(entry.getMonthlyPayment()),
+            PackedEntryCodec.toCents(entry.getInterestPayment()),
+            PackedEntryCodec.toCents(entry.getPrincipalPayment()),
+            PackedEntryCodec.toCents(entry.getRemainingBalance())));
+      }
+    });
+  }
+
+  /**
+   * Adds the entries of a packed or recomputed loan to an accumulator.
+   *
+   * @param accumulator      The accumulator of the partition.
+   * @param loan             The loan.
+   * @param packedEntries    The packed entries of the packed schedules of the page, by schedule id.
+   * @param skippedLoanCount The count of loans whose entries cannot be reproduced.
+   */
+  private void accumulate(PeriodAccumulator accumulator, PortfolioLoan loan,
+      Map<Long, byte[]> packedEntries, LongAdder skippedLoanCount) {
+    if (loan.getStorageMode() == StorageMode.PACKED) {
+      byte[] entries = packedEntries.get(loan.getScheduleId());
+      if (entries != null) {
+        PackedEntryCodec.decode(entries, accumulator::add);
+      }
+      return;
+    }
+    if (loan.getStorageMode() != StorageMode.RECOMPUTE) {
+      return;
+    }
+
+    // The aggregation waits for the budget rather than fail partway through the portfolio
+    Optional<List<AmortizationEntry>> amortizationEntries = amortizationService
+        .recalculateStoredEntries(createLoanDetails(loan), loan.getEngineVersion(),
+            loan.getPaymentPrecision(), CalculationAdmission.Wait.UNBOUNDED);
+    if (amortizationEntries.isEmpty()) {
+      LOGGER.warn("Amortization schedule {} was created by calculation engine version {} and is "
+          + "left out of the portfolio", loan.getScheduleId(), loan.getEngineVersion());
+      skippedLoanCount.increment();
+      return;
+    }
+    for (AmortizationEntry entry : amortizationEntries.get()) {
+      accumulator.add(entry.getPeriod(), PackedEntryCodec.toCents(entry.getMonthlyPayment()),
+          PackedEntryCodec.toCents(entry.getInterestPayment()),
+          PackedEntryCodec.toCents(entry.getPrincipalPayment()),
+          PackedEntryCodec.toCents(entry.getRemainingBalance()));
+    }
+  }
+
+  private static LoanDetails createLoanDetails(PortfolioLoan loan) {
+    LoanDetails loanDetails = new LoanDetails();
+    loanDetails.setLoanAmount(loan.getLoanAmount());
+    loanDetails.setDepositAmount(loan.getDepositAmount());
+    loanDetails.setInterestRate(loan.getInterestRate());
+    loanDetails.setBalloonPayment(loan.getBalloonPayment());
+    loanDetails.setMonthlyPayments(loan.getMonthlyPayments());
+    return loanDetails;
+  }
+}
@@ -0,0 +1,103 @@
+package com.example.amortizationschedule.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Quotes the approximate monthly repayment and total interest of many candidate loans at once, in
+ * {@code double} arithmetic, to screen candidates before their exact schedules are calculated.
+ *
+ * <p>The candidates are given as parallel arrays: the amount financed, the yearly interest rate as
+ * a percentage, and the term in months, of loans without a balloon payment. The monthly rate is
+ * rounded half up to 5 decimal places like {@link MonthlyPaymentCalculator} does, which is exact
+ * for yearly rates with up to 3 decimal places, so a quote only differs from the schedule by the
+ * error of evaluating the annuity factor {@code F = (1 + r)^n} in {@code double}. That factor is
+ * within {@code (n + 2)} ulps of the exact one, and the payment has a relative sensitivity of
+ * {@code F / (F - 1) <= 1 + 1 / (nr)} to it, so with {@code r >= 10^-5} and {@code n <= 10^6} the
+ * quoted repayment is within {@code 3 * 10^-10} of the exact one, relatively. The schedule of
+ * {@link AmortizationServiceImpl} rounds the repayment to cents, so the two are within
+ * {@code 3 * 10^-10 * P + 0.005}, and rounding the quote half up to cents gives the same repayment
+ * unless the exact one lies within that relative distance of a half cent. The quoted total interest
+ * {@code nP - L} is within {@code n * (3 * 10^-10 * P + 0.005)} of the total of the schedule, which
+ * sums the interest of each period rounded to cents. An interest-free loan, which the schedule
+ * cannot be calculated for, is quoted {@code L / n} a month without interest.
+ *
+ * <p>The quotes are evaluated with the incubating Vector API when the {@code jdk.incubator.vector}
+ * module was added to the JVM, as many candidates at a time as the preferred vector shape of the
+ * processor holds, and one at a time otherwise.
+ */
+@Component
+public class QuoteEngine {
+
+  private static final boolean VECTOR_API_AVAILABLE = ModuleLayer.boot()
+      .findModule("jdk.incubator.vector").isPresent();
+  private static final double RATE_UNITS = 100_000;
+
+  private final boolean vectorized;
+
+  @Autowired
+  public QuoteEngine() {
+    this(true);
+  }
+
+  public QuoteEngine(boolean vectorize) {
+    this.vectorized = vectorize && VECTOR_API_AVAILABLE;
+  }
+
+  /**
+   * Returns whether the quotes are evaluated with the Vector API.
+   *
+   * @return Whether the quotes are vectorized.
+   */
+  public boolean isVectorized() {
+    return vectorized;
+  }
+
+  /**
+   * Quotes the monthly repayment and total interest of candidate loans.
+   *
+   * @param balances          The amount financed of each candidate, the loan amount less the
+   *                          deposit.
+   * @param interestRates     The yearly interest rate of each candidate as a percentage.
+   * @param terms             The number of monthly payments of each candidate.
+   * @param monthlyRepayments Receives the monthly repayment of each candidate, unrounded.
+   * @param totalInterestDue  Receives the total interest of each candidate, unrounded.
+   * @throws IllegalArgumentException If the arrays do not have the same length.
+   */
+  public void quote(double[] balances, double[] interestRates, double[] terms,
+      double[] monthlyRepayments, double[] totalInterestDue) {
+    int length = balances.length;
+    if (interestRates.length != length || terms.length != length
+        || monthlyRepayments.length != length || totalInterestDue.length != length) {
+      throw new IllegalArgumentException("The candidate arrays must have the same length");
+    }
+
+    int quoted = vectorized ? VectorQuoteKernel.quote(balances, interestRates, terms,
+        monthlyRepayments, totalInterestDue, length) : 0;
+    quoteScalar(balances, interestRates, terms, monthlyRepayments, totalInterestDue, quoted,
+        length);
+  }
+
+  /**
+   * Quotes candidates one at a time, with the same operations as {@link VectorQuoteKernel}.
+   *
+   * @param from The index of the first candidate.
+   * @param to   The index after the last candidate.
+   */
+  static void quoteScalar(double[] balances, double[] interestRates, double[] terms,
+      double[] monthlyRepayments, double[] totalInterestDue, int from, int to) {
+    for (int i = from; i < to; i++) {
+      // The yearly and monthly rates rounded half up to 5 decimal places, in units of 10^-5
+      double yearlyUnits = (long) (interestRates[i] * 1_000 + 0.5);
+      double monthlyUnits = (long) ((yearlyUnits + 6) / 12);
+      double rate = monthlyUnits / RATE_UNITS;
+      double balance = balances[i];
+      double term = terms[i];
+      double factor = Math.pow(rate + 1, term);
+      // Dividing by 1 - 1 / F rather than multiplying by F / (F - 1) holds when F overflows
+      double payment = rate == 0 ? balance / term : balance * rate / (1 - 1 / factor);
+      monthlyRepayments[i] = payment;
+      totalInterestDue[i] = payment * term - balance;
+    }
+  }
+}
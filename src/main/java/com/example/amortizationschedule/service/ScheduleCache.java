@@ -0,0 +1,152 @@
+package com.example.amortizationschedule.service;
+
+import com.example.amortizationschedule.config.AmortizationProperties;
+import com.example.amortizationschedule.model.AmortizationEntry;
+import com.example.amortizationschedule.model.LoanDetails;
+import com.example.amortizationschedule.model.ScheduleCacheStatistics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * A bounded cache of calculated amortization entries, keyed by the terms of the loan.
+ *
+ * <p>The amounts of the key are normalized with {@link BigDecimal#stripTrailingZeros()}, a missing
+ * balloon payment is the same as a zero one, and the loan id is ignored, so every loan with the
+ * same terms shares an entry. The cache is weighed by the number of periods it holds and evicts
+ * with Caffeine's W-TinyLFU policy. The entries are held as cents in private arrays and every read
+ * returns new {@link AmortizationEntry} objects, so callers cannot change each other's schedules.
+ */
+@Component
+public class ScheduleCache {
+
+  private static final int OUTPUT_ROUNDING_SCALE = 2;
+
+  private final Cache<ScheduleKey, CachedSchedule> cache;
+  private final boolean enabled;
+
+  public ScheduleCache(AmortizationProperties amortizationProperties) {
+    AmortizationProperties.Cache cacheProperties = amortizationProperties.getCache();
+    this.enabled = cacheProperties.isEnabled();
+    this.cache = Caffeine.newBuilder()
+        .maximumWeight(cacheProperties.getMaximumPeriods())
+        .weigher((ScheduleKey key, CachedSchedule schedule) -> schedule.size())
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * Returns the amortization entries of a loan, calculating and caching them if they are not
+   * cached yet.
+   *
+   * @param loanDetails The validated details of the loan.
+   * @param calculator  Calculates the entries of the loan.
+   * @return A list of amortization entries that the caller is free to change.
+   */
+  public List<AmortizationEntry> getEntries(LoanDetails loanDetails,
+      Supplier<List<AmortizationEntry>> calculator) {
+    if (!enabled) {
+      return calculator.get();
+    }
+
+    ScheduleKey key = ScheduleKey.of(loanDetails);
+    CachedSchedule cachedSchedule = cache.getIfPresent(key);
+    if (cachedSchedule != null) {
+      return cachedSchedule.toEntries();
+    }
+
+    List<AmortizationEntry> amortizationEntries = calculator.get();
+    try {
+      cache.put(key, CachedSchedule.of(amortizationEntries));
+    } catch (ArithmeticException e) {
+      // Amounts beyond the range of a long number of cents are not cached
+    }
+    return amortizationEntries;
+  }
+
+  /**
+   * Returns the hit, miss and eviction statistics of the cache.
+   *
+   * @return The statistics of the cache.
+   */
+  public ScheduleCacheStatistics getStatistics() {
+    CacheStats stats = cache.stats();
+    return new ScheduleCacheStatistics(stats.hitCount(), stats.missCount(), stats.evictionCount(),
+        stats.hitRate(), cache.estimatedSize());
+  }
+
+  /**
+   * Removes every cached schedule.
+   */
+  public void clear() {
+    cache.invalidateAll();
+  }
+
+  /**
+   * Performs any pending maintenance, such as evictions, of the cache.
+   */
+  void cleanUp() {
+    cache.cleanUp();
+  }
+
+  private record ScheduleKey(BigDecimal loanAmount, BigDecimal depositAmount,
+                             BigDecimal interestRate, BigDecimal balloonPayment,
+                             int monthlyPayments) {
+
+    static ScheduleKey of(LoanDetails loanDetails) {
+      BigDecimal balloonPayment = loanDetails.getBalloonPayment() == null
+          ? BigDecimal.ZERO : loanDetails.getBalloonPayment();
+      return new ScheduleKey(normalize(loanDetails.getLoanAmount()),
+          normalize(loanDetails.getDepositAmount()), normalize(loanDetails.getInterestRate()),
+          normalize(balloonPayment), loanDetails.getMonthlyPayments());
+    }
+
+    private static BigDecimal normalize(BigDecimal value) {
+      return value == null ? null : value.stripTrailingZeros();
+    }
+  }
+
+  private record CachedSchedule(long monthlyPayment, long[] interestPayments,
+                                long[] principalPayments, long[] remainingBalances) {
+
+    static CachedSchedule of(List<AmortizationEntry> amortizationEntries) {
+      int size = amortizationEntries.size();
+      long[] interestPayments = new long[size];
+      long[] principalPayments = new long[size];
+      long[] remainingBalances = new long[size];
+      for (int i = 0; i < size; i++) {
+        AmortizationEntry entry = amortizationEntries.get(i);
+        interestPayments[i] = toCents(entry.getInterestPayment());
+        principalPayments[i] = toCents(entry.getPrincipalPayment());
+        remainingBalances[i] = toCents(entry.getRemainingBalance());
+      }
+      return new CachedSchedule(toCents(amortizationEntries.get(0).getMonthlyPayment()),
+          interestPayments, principalPayments, remainingBalances);
+    }
+
+    int size() {
+      return interestPayments.length;
+    }
+
+    List<AmortizationEntry> toEntries() {
+      List<AmortizationEntry> amortizationEntries = new ArrayList<>(size());
+      BigDecimal monthlyPaymentAmount = BigDecimal.valueOf(monthlyPayment, OUTPUT_ROUNDING_SCALE);
+      for (int i = 0; i < size(); i++) {
+        amortizationEntries.add(new AmortizationEntry(null, i + 1, monthlyPaymentAmount,
+            BigDecimal.valueOf(interestPayments[i], OUTPUT_ROUNDING_SCALE),
+            BigDecimal.valueOf(principalPayments[i], OUTPUT_ROUNDING_SCALE),
+            BigDecimal.valueOf(remainingBalances[i], OUTPUT_ROUNDING_SCALE)));
+      }
+      return amortizationEntries;
+    }
+
+    private static long toCents(BigDecimal amount) {
+      return amount.setScale(OUTPUT_ROUNDING_SCALE).unscaledValue().longValueExact();
+    }
+  }
+}
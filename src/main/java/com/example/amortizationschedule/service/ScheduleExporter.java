@@ -0,0 +1,391 @@
+package com.example.amortizationschedule.service;
+
+import com.example.amortizationschedule.config.AmortizationProperties;
+import com.example.amortizationschedule.model.AmortizationEntry;
+import com.example.amortizationschedule.model.ExportFormat;
+import com.example.amortizationschedule.model.ExportReport;
+import com.example.amortizationschedule.model.LoanDetails;
+import com.example.amortizationschedule.model.PortfolioLoan;
+import com.example.amortizationschedule.model.StorageMode;
+import com.example.amortizationschedule.model.StoredEntry;
+import com.example.amortizationschedule.model.StoredPackedEntries;
+import com.example.amortizationschedule.repository.AmortizationScheduleRepository;
+import com.example.amortizationschedule.repository.PackedAmortizationEntriesRepository;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Exports every stored amortization schedule to flat files for downstream systems.
+ *
+ * <p>An export reads the schedules, the entries stored as rows and the packed entries through three
+ * forward-only cursors, all ordered by schedule id, and merges them as it goes; recomputed
+ * schedules are calculated from their loan details, and those created by another version of the
+ * calculation are left out and counted as skipped. Every cursor returns projections rather than
+ * entities, so nothing is kept in the persistence context, and every file is written through a
+ * fixed buffer, so the heap used by an export does not grow with the number of schedules.
+ *
+ * <p>The loan details of each schedule are written to {@code schedules.csv}. In the
+ * {@link ExportFormat#CSV} format the entries are written to {@code entries.csv}; in the
+ * {@link ExportFormat#COLUMNAR} format each field of the entries is written to its own file in the
+ * {@code entries} directory. An export is written to a {@code .partial} directory that is renamed
+ * once it is complete, and deleted if the export fails, so a reader never sees a partial export.
+ */
+@Component
+public class ScheduleExporter {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ScheduleExporter.class);
+
+  private static final DateTimeFormatter EXPORT_NAME = DateTimeFormatter.ofPattern(
+      "yyyyMMdd'T'HHmmss");
+  private static final String PARTIAL_SUFFIX = ".partial";
+
+  private final AmortizationProperties amortizationProperties;
+  private final AmortizationService amortizationService;
+  private final AmortizationScheduleRepository amortizationScheduleRepository;
+  private final PackedAmortizationEntriesRepository packedAmortizationEntriesRepository;
+  private final TransactionTemplate readOnlyTransactionTemplate;
+
+  public ScheduleExporter(AmortizationProperties amortizationProperties,
+      AmortizationService amortizationService,
+      AmortizationScheduleRepository amortizationScheduleRepository,
+      PackedAmortizationEntriesRepository packedAmortizationEntriesRepository,
+      TransactionTemplate transactionTemplate) {
+    this.amortizationProperties = amortizationProperties;
+    this.amortizationService = amortizationService;
+    this.amortizationScheduleRepository = amortizationScheduleRepository;
+    this.packedAmortizationEntriesRepository = packedAmortizationEntriesRepository;
+    this.readOnlyTransactionTemplate = new TransactionTemplate(
+        transactionTemplate.getTransactionManager());
+    this.readOnlyTransactionTemplate.setReadOnly(true);
+  }
+
+  /**
+   * Exports the stored schedules on the schedule of {@code amortization.export.cron}, to the
+   * configured directory in the configured format.
+   *
+   * @throws IOException If the export cannot be written.
+   */
+  @Scheduled(cron = "${amortization.export.cron:-}")
+  public void exportSchedules() throws IOException {
+    AmortizationProperties.Export exportProperties = amortizationProperties.getExport();
+    ExportReport exportReport = exportSchedules(exportProperties.getFormat(),
+        Path.of(exportProperties.getDirectory()));
+    LOGGER.info("Exported {} schedules with {} entries to {}, skipping {} schedules",
+        exportReport.getSchedulesExported(), exportReport.getEntriesExported(),
+        exportReport.getDirectory(), exportReport.getSchedulesSkipped());
+  }
+
+  /**
+   * Exports every stored schedule to a new subdirectory of a directory, named after the time the
+   * export started.
+   *
+   * @param format    How the entries are written.
+   * @param directory The directory to create the export in.
+   * @return The directory of the export and the numbers of schedules and entries exported.
+   * @throws IOException If the export cannot be written.
+   */
+  public ExportReport exportSchedules(ExportFormat format, Path directory) throws IOException {
+    String name = EXPORT_NAME.format(LocalDateTime.now());
+    Path partialDirectory = Files.createDirectories(directory.resolve(name + PARTIAL_SUFFIX));
+    int bufferSize = (int) amortizationProperties.getExport().getBufferSize().toBytes();
+
+    ExportReport exportReport;
+    try (ExportWriter exportWriter = format == ExportFormat.COLUMNAR
+        ? new ColumnarExportWriter(partialDirectory, bufferSize)
+        : new CsvExportWriter(partialDirectory, bufferSize)) {
+      exportReport = readOnlyTransactionTemplate.execute(status -> export(exportWriter));
+    } catch (UncheckedIOException e) {
+      deletePartialDirectory(partialDirectory, e);
+      throw e.getCause();
+    } catch (IOException | RuntimeException e) {
+      deletePartialDirectory(partialDirectory, e);
+      throw e;
+    }
+
+    Path exportDirectory = Files.move(partialDirectory, directory.resolve(name),
+        StandardCopyOption.ATOMIC_MOVE);
+    exportReport.setDirectory(exportDirectory.toString());
+    exportReport.setFormat(format);
+    return exportReport;
+  }
+
+  /**
+   * Deletes the {@code .partial} directory of a failed export, adding any failure to delete it to
+   * the failure of the export.
+   *
+   * @param partialDirectory The directory of the failed export.
+   * @param failure          The failure of the export.
+   */
+  private static void deletePartialDirectory(Path partialDirectory, Exception failure) {
+    try (Stream<Path> paths = Files.walk(partialDirectory)) {
+      for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(path);
+      }
+    } catch (IOException | UncheckedIOException e) {
+      failure.addSuppressed(e);
+    }
+  }
+
+  private ExportReport export(ExportWriter exportWriter) {
+    long schedules = 0;
+    long skippedSchedules = 0;
+    long[] entries = {0};
+    try (Stream<PortfolioLoan> loans = amortizationScheduleRepository.streamAllPortfolioLoans();
+        Stream<StoredEntry> storedEntries = amortizationScheduleRepository
+            .streamAllStoredEntries();
+        Stream<StoredPackedEntries> storedPackedEntries = packedAmortizationEntriesRepository
+            .streamAllStoredPackedEntries()) {
+      Cursor<StoredEntry> entryCursor = new Cursor<>(storedEntries.iterator());
+      Cursor<StoredPackedEntries> packedCursor = new Cursor<>(storedPackedEntries.iterator());
+
+      for (Iterator<PortfolioLoan> iterator = loans.iterator(); iterator.hasNext(); ) {
+        PortfolioLoan loan = iterator.next();
+        long scheduleId = loan.getScheduleId();
+        Optional<List<AmortizationEntry>> recomputedEntries = Optional.empty();
+        if (loan.getStorageMode() == StorageMode.RECOMPUTE) {
+          // The export waits for the budget rather than fail partway through the schedules
+          recomputedEntries = amortizationService.recalculateStoredEntries(
+              createLoanDetails(loan), loan.getEngineVersion(), loan.getPaymentPrecision(),
+              CalculationAdmission.Wait.UNBOUNDED);
+          if (recomputedEntries.isEmpty()) {
+            LOGGER.warn("Amortization schedule {} was created by calculation engine version {} "
+                + "and is left out of the export", scheduleId, loan.getEngineVersion());
+            skippedSchedules++;
+            continue;
+          }
+        }
+        exportWriter.writeSchedule(loan);
+        schedules++;
+
+        if (loan.getStorageMode() == StorageMode.PACKED) {
+          StoredPackedEntries packedEntries = packedCursor.seek(scheduleId,
+              StoredPackedEntries::getScheduleId);
+          if (packedEntries != null) {
+            PackedEntryCodec.decode(packedEntries.getEntries(),
+                (period, payment, interest, principal, balance) -> {
+                  exportWriter.writeEntry(scheduleId, period, payment, interest, principal,
+                      balance);
+                  entries[0]++;
+                });
+          }
+        } else if (loan.getStorageMode() == StorageMode.RECOMPUTE) {
+          for (AmortizationEntry entry : recomputedEntries.get()) {
+            exportWriter.writeEntry(scheduleId, entry.getPeriod(),
+                PackedEntryCodec.toCents(entry.getMonthlyPayment()),
+                PackedEntryCodec.toCents(entry.getInterestPayment()),
+                PackedEntryCodec.toCents(entry.getPrincipalPayment()),
+                PackedEntryCodec.toCents(entry.getRemainingBalance()));
+            entries[0]++;
+          }
+        } else {
+          // Schedules stored before the storage mode was recorded are stored as rows
+          for (StoredEntry entry = entryCursor.seek(scheduleId, StoredEntry::getScheduleId);
+              entry != null; entry = entryCursor.seek(scheduleId, StoredEntry::getScheduleId)) {
+            exportWriter.writeEntry(scheduleId, entry.getPeriod(),
+                PackedEntryCodec.toCents(entry.getMonthlyPayment()),
+                PackedEntryCodec.toCents(entry.getInterestPayment()),
+                PackedEntryCodec.toCents(entry.getPrincipalPayment()),
+                PackedEntryCodec.toCents(entry.getRemainingBalance()));
+            entries[0]++;
+          }
+        }
+      }
+    }
+    return new ExportReport(null, null, schedules, entries[0], skippedSchedules);
+  }
+
+  private static LoanDetails createLoanDetails(PortfolioLoan loan) {
+    var loanDetails = new LoanDetails();
+    loanDetails.setLoanAmount(loan.getLoanAmount());
+    loanDetails.setDepositAmount(loan.getDepositAmount());
+    loanDetails.setInterestRate(loan.getInterestRate());
+    loanDetails.setBalloonPayment(loan.getBalloonPayment());
+    loanDetails.setMonthlyPayments(loan.getMonthlyPayments());
+    return loanDetails;
+  }
+
+  /**
+   * A forward-only cursor over rows ordered by schedule id.
+   */
+  private static final class Cursor<T> {
+
+    private final Iterator<T> iterator;
+    private T current;
+
+    private Cursor(Iterator<T> iterator) {
+      this.iterator = iterator;
+      this.current = iterator.hasNext() ? iterator.next() : null;
+    }
+
+    /**
+     * Returns the next row of a schedule, skipping the rows of schedules before it.
+     *
+     * @return The row, or {@code null} if the schedule has no more rows.
+     */
+    private T seek(long scheduleId, ToLongFunction<T> scheduleIdOf) {
+      while (current != null && scheduleIdOf.applyAsLong(current) < scheduleId) {
+        current = iterator.hasNext() ? iterator.next() : null;
+      }
+      if (current == null || scheduleIdOf.applyAsLong(current) != scheduleId) {
+        return null;
+      }
+      T row = current;
+      current = iterator.hasNext() ? iterator.next() : null;
+      return row;
+    }
+  }
+
+  private interface ExportWriter extends Closeable {
+
+    void writeSchedule(PortfolioLoan loan);
+
+    void writeEntry(long scheduleId, int period, long monthlyPayment, long interestPayment,
+        long principalPayment, long remainingBalance);
+  }
+
+  /**
+   * Writes the loan details of each schedule as a CSV row of {@code schedules.csv}.
+   */
+  private abstract static class ScheduleCsvWriter implements ExportWriter {
+
+    private final BufferedChannelWriter schedules;
+
+    private ScheduleCsvWriter(Path directory, int bufferSize) throws IOException {
+      this.schedules = new BufferedChannelWriter(directory.resolve("schedules.csv"), bufferSize);
+      schedules.writeText("scheduleId,loanAmount,depositAmount,interestRate,balloonPayment,"
+          + "monthlyPayments\n");
+    }
+
+    @Override
+    public void writeSchedule(PortfolioLoan loan) {
+      schedules.writeDigits(loan.getScheduleId());
+      schedules.writeByte(',');
+      writeAmount(loan.getLoanAmount());
+      schedules.writeByte(',');
+      writeAmount(loan.getDepositAmount());
+      schedules.writeByte(',');
+      writeAmount(loan.getInterestRate());
+      schedules.writeByte(',');
+      writeAmount(loan.getBalloonPayment());
+      schedules.writeByte(',');
+      schedules.writeDigits(loan.getMonthlyPayments());
+      schedules.writeByte('\n');
+    }
+
+    private void writeAmount(BigDecimal amount) {
+      if (amount != null) {
+        schedules.writeText(amount.toPlainString());
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      schedules.close();
+    }
+  }
+
+  /**
+   * Writes each entry as a CSV row of {@code entries.csv}.
+   */
+  private static final class CsvExportWriter extends ScheduleCsvWriter {
+
+    private final BufferedChannelWriter entries;
+
+    private CsvExportWriter(Path directory, int bufferSize) throws IOException {
+      super(directory, bufferSize);
+      this.entries = new BufferedChannelWriter(directory.resolve("entries.csv"), bufferSize);
+      entries.writeText("scheduleId,period,monthlyPayment,interestPayment,principalPayment,"
+          + "remainingBalance\n");
+    }
+
+    @Override
+    public void writeEntry(long scheduleId, int period, long monthlyPayment,
+        long interestPayment, long principalPayment, long remainingBalance) {
+      entries.writeDigits(scheduleId);
+      entries.writeByte(',');
+      entries.writeDigits(period);
+      entries.writeByte(',');
+      entries.writeCents(monthlyPayment);
+      entries.writeByte(',');
+      entries.writeCents(interestPayment);
+      entries.writeByte(',');
+      entries.writeCents(principalPayment);
+      entries.writeByte(',');
+      entries.writeCents(remainingBalance);
+      entries.writeByte('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+      try (entries) {
+        super.close();
+      }
+    }
+  }
+
+  /**
+   * Writes each field of the entries to its own file of fixed-width values in the {@code entries}
+   * directory, named after the field.
+   */
+  private static final class ColumnarExportWriter extends ScheduleCsvWriter {
+
+    private final BufferedChannelWriter scheduleIds;
+    private final BufferedChannelWriter periods;
+    private final BufferedChannelWriter monthlyPayments;
+    private final BufferedChannelWriter interestPayments;
+    private final BufferedChannelWriter principalPayments;
+    private final BufferedChannelWriter remainingBalances;
+
+    private ColumnarExportWriter(Path directory, int bufferSize) throws IOException {
+      super(directory, bufferSize);
+      Path entries = Files.createDirectory(directory.resolve("entries"));
+      this.scheduleIds = new BufferedChannelWriter(entries.resolve("scheduleId.bin"), bufferSize);
+      this.periods = new BufferedChannelWriter(entries.resolve("period.bin"), bufferSize);
+      this.monthlyPayments = new BufferedChannelWriter(entries.resolve("monthlyPayment.bin"),
+          bufferSize);
+      this.interestPayments = new BufferedChannelWriter(entries.resolve("interestPayment.bin"),
+          bufferSize);
+      this.principalPayments = new BufferedChannelWriter(entries.resolve("principalPayment.bin"),
+          bufferSize);
+      this.remainingBalances = new BufferedChannelWriter(entries.resolve("remainingBalance.bin"),
+          bufferSize);
+    }
+
+    @Override
+    public void writeEntry(long scheduleId, int period, long monthlyPayment,
+        long interestPayment, long principalPayment, long remainingBalance) {
+      scheduleIds.writeLong(scheduleId);
+      periods.writeInt(period);
+      monthlyPayments.writeLong(monthlyPayment);
+      interestPayments.writeLong(interestPayment);
+      principalPayments.writeLong(principalPayment);
+      remainingBalances.writeLong(remainingBalance);
+    }
+
+    @Override
+    public void close() throws IOException {
+      try (scheduleIds; periods; monthlyPayments; interestPayments; principalPayments;
+          remainingBalances) {
+        super.close();
+      }
+    }
+  }
+}
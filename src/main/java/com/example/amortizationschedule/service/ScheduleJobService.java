@@ -0,0 +1,14 @@
+package com.example.amortizationschedule.service;
+
+import com.example.amortizationschedule.model.LoanDetails;
+import com.example.amortizationschedule.model.ScheduleJob;
+import java.util.Optional;
+
+public interface ScheduleJobService {
+
+  ScheduleJob submitJob(LoanDetails loanDetails);
+
+  Optional<ScheduleJob> findJob(String id);
+
+  Optional<ScheduleJob> cancelJob(String id);
+}
@@ -0,0 +1,229 @@
+package com.example.amortizationschedule.service;
+
+import com.example.amortizationschedule.config.AmortizationProperties;
+import com.example.amortizationschedule.model.JobStatus;
+import com.example.amortizationschedule.model.LoanDetails;
+import com.example.amortizationschedule.model.ScheduleJob;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+/**
+ * Implementation of the {@link ScheduleJobService} interface.
+ *
+ * <p>A job calculates and persists a schedule on the job pool, whose bounded queue rejects a job
+ * when it is full rather than letting jobs pile up. A job that runs longer than
+ * {@code amortization.jobs.timeout} is stopped, and so is a job that is cancelled while it runs:
+ * its worker is interrupted, which ends the calculation at the next period. A job that is stopped
+ * after its schedule was calculated is not persisted, but one stopped while its schedule is being
+ * stored keeps the id of the stored schedule. Jobs keep only the id of their schedule, and are
+ * kept for {@code amortization.jobs.retention} after they were submitted or finished, and are lost
+ * when the application stops.
+ */
+@Service
+public class ScheduleJobServiceImpl implements ScheduleJobService {
+
+  private final AmortizationService amortizationService;
+  private final CalculationAdmission calculationAdmission;
+  private final ThreadPoolExecutor amortizationJobExecutor;
+  private final TaskScheduler taskScheduler;
+  private final AmortizationProperties amortizationProperties;
+  private final AmortizationProperties.Jobs jobsProperties;
+  private final Cache<String, JobEntry> jobs;
+
+  public ScheduleJobServiceImpl(AmortizationService amortizationService,
+      CalculationAdmission calculationAdmission, ThreadPoolExecutor amortizationJobExecutor,
+      TaskScheduler taskScheduler, AmortizationProperties amortizationProperties,
+      AmortizationMetrics amortizationMetrics) {
+    this.amortizationService = amortizationService;
+    this.calculationAdmission = calculationAdmission;
+    this.amortizationJobExecutor = amortizationJobExecutor;
+    this.taskScheduler = taskScheduler;
+    this.amortizationProperties = amortizationProperties;
+    this.jobsProperties = amortizationProperties.getJobs();
+    this.jobs = Caffeine.newBuilder()
+        .expireAfterWrite(jobsProperties.getRetention())
+        .build();
+    amortizationMetrics.registerJobExecutor(amortizationJobExecutor);
+  }
+
+  /**
+   * Submits a job that calculates and persists the schedule of a loan. The calculation of the job
+   * is admitted when it runs, but a job that costs more than a single request may is rejected
+   * before it is queued.
+   *
+   * @param loanDetails The details of the loan.
+   * @return The queued job.
+   * @throws CalculationTooLargeException         If the schedule costs more than a single request
+   *                                              may.
+   * @throws CalculationCapacityExceededException If the job queue is full.
+   */
+  @Override
+  public ScheduleJob submitJob(LoanDetails loanDetails) {
+    calculationAdmission.checkCost(CalculationAdmission.cost(loanDetails,
+        amortizationProperties.getEngine()));
+    var job = new ScheduleJob();
+    job.setId(UUID.randomUUID().toString());
+    job.setStatus(JobStatus.QUEUED);
+    job.setSubmittedAt(Instant.now());
+    var jobEntry = new JobEntry(job);
+    jobEntry.future = new FutureTask<>(() -> runJob(jobEntry, loanDetails), null);
+    jobs.put(job.getId(), jobEntry);
+
+    try {
+      amortizationJobExecutor.execute(jobEntry.future);
+    } catch (RejectedExecutionException e) {
+      jobs.invalidate(job.getId());
+      throw new CalculationCapacityExceededException(
+          "The server is running too many schedule jobs; retry later");
+    }
+    return jobEntry.snapshot();
+  }
+
+  /**
+   * Finds a job that was submitted within the retention period.
+   *
+   * @param id The id of the job.
+   * @return The job, with the id of its schedule once it is stored, or an empty optional if there
+   * is none with the id.
+   */
+  @Override
+  public Optional<ScheduleJob> findJob(String id) {
+    return Optional.ofNullable(jobs.getIfPresent(id)).map(JobEntry::snapshot);
+  }
+
+  /**
+   * Cancels a job that has not finished yet. A queued job is removed from the queue, and a running
+   * job is interrupted, so its schedule is not persisted unless it was being persisted already, in
+   * which case the cancelled job reports the id of the stored schedule.
+   *
+   * @param id The id of the job.
+   * @return The job, cancelled unless it had finished already, or an empty optional if there is
+   * none with the id.
+   */
+  @Override
+  public Optional<ScheduleJob> cancelJob(String id) {
+    JobEntry jobEntry = jobs.getIfPresent(id);
+    if (jobEntry == null) {
+      return Optional.empty();
+    }
+    if (stop(jobEntry, JobStatus.CANCELLED)) {
+      amortizationJobExecutor.remove(jobEntry.future);
+    }
+    return Optional.of(jobEntry.snapshot());
+  }
+
+  /**
+   * Runs a job on a worker of the job pool.
+   *
+   * @param jobEntry    The job.
+   * @param loanDetails The details of the loan.
+   */
+  private void runJob(JobEntry jobEntry, LoanDetails loanDetails) {
+    synchronized (jobEntry) {
+      if (jobEntry.job.getStatus() != JobStatus.QUEUED) {
+        return;
+      }
+      jobEntry.job.setStatus(JobStatus.RUNNING);
+      jobEntry.job.setStartedAt(Instant.now());
+    }
+    var timeout = taskScheduler.schedule(() -> stop(jobEntry, JobStatus.TIMED_OUT),
+        Instant.now().plus(jobsProperties.getTimeout()));
+
+    try {
+      var amortizationSchedule = amortizationService.calculateAmortizationSchedule(loanDetails);
+      if (!isRunning(jobEntry)) {
+        return;
+      }
+      Long scheduleId = amortizationService.createAmortizationSchedule(amortizationSchedule)
+          .getId();
+      if (!finish(jobEntry, JobStatus.SUCCEEDED, scheduleId, null)) {
+        // Stopped while the schedule was stored, which the job must still report
+        synchronized (jobEntry) {
+          jobEntry.job.setScheduleId(scheduleId);
+        }
+      }
+    } catch (CancellationException e) {
+      // The job was stopped, which has set its status already
+    } catch (RuntimeException e) {
+      finish(jobEntry, JobStatus.FAILED, null, e.getMessage());
+    } finally {
+      timeout.cancel(false);
+    }
+  }
+
+  private static boolean isRunning(JobEntry jobEntry) {
+    synchronized (jobEntry) {
+      return jobEntry.job.getStatus() == JobStatus.RUNNING;
+    }
+  }
+
+  /**
+   * Stops a job that has not finished yet, interrupting its worker if it is running.
+   *
+   * @param jobEntry The job.
+   * @param status   Either {@link JobStatus#CANCELLED} or {@link JobStatus#TIMED_OUT}.
+   * @return Whether the job was stopped.
+   */
+  private boolean stop(JobEntry jobEntry, JobStatus status) {
+    if (!finish(jobEntry, status, null, null)) {
+      return false;
+    }
+    jobEntry.future.cancel(true);
+    return true;
+  }
+
+  /**
+   * Records the outcome of a job, unless it has finished already.
+   *
+   * @return Whether the outcome was recorded.
+   */
+  private boolean finish(JobEntry jobEntry, JobStatus status, Long scheduleId, String error) {
+    synchronized (jobEntry) {
+      JobStatus currentStatus = jobEntry.job.getStatus();
+      if (currentStatus != JobStatus.QUEUED && currentStatus != JobStatus.RUNNING) {
+        return false;
+      }
+      jobEntry.job.setStatus(status);
+      jobEntry.job.setFinishedAt(Instant.now());
+      jobEntry.job.setScheduleId(scheduleId);
+      jobEntry.job.setError(error);
+    }
+    // Written again, so the job is kept for the retention period after it finished
+    jobs.put(jobEntry.job.getId(), jobEntry);
+    return true;
+  }
+
+  /**
+   * A job and the task that runs it. The job is only changed while holding the entry.
+   */
+  private static final class JobEntry {
+
+    private final ScheduleJob job;
+    private FutureTask<Void> future;
+
+    private JobEntry(ScheduleJob job) {
+      this.job = job;
+    }
+
+    private synchronized ScheduleJob snapshot() {
+      var snapshot = new ScheduleJob();
+      snapshot.setId(job.getId());
+      snapshot.setStatus(job.getStatus());
+      snapshot.setSubmittedAt(job.getSubmittedAt());
+      snapshot.setStartedAt(job.getStartedAt());
+      snapshot.setFinishedAt(job.getFinishedAt());
+      snapshot.setError(job.getError());
+      snapshot.setScheduleId(job.getScheduleId());
+      return snapshot;
+    }
+  }
+}
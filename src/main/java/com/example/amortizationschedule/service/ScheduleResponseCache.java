@@ -0,0 +1,138 @@
+package com.example.amortizationschedule.service;
+
+import com.example.amortizationschedule.config.AmortizationProperties;
+import com.example.amortizationschedule.model.AmortizationSchedule;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+
+/**
+ * A bounded cache of stored amortization schedules encoded as JSON, keyed by schedule id.
+ *
+ * <p>Each schedule is serialized once, optionally compressed with gzip as well, and tagged with an
+ * entity tag derived from its JSON, so a repeated read is a map lookup and the response is a copy
+ * of the cached bytes. The cache is weighed by the number of bytes it holds and evicts with
+ * Caffeine's W-TinyLFU policy.
+ *
+ * <p>A schedule that is changed after it was created must be invalidated, which removes it both
+ * right away and again when the transaction that changed it commits. A schedule is loaded and
+ * cached atomically, and removing it waits for a load of it in progress, so a load that read the
+ * schedule before the change committed cannot cache it after the removal at commit.
+ */
+@Component
+public class ScheduleResponseCache {
+
+  private static final String GZIP_ETAG_SUFFIX = "-gzip";
+
+  private final ObjectMapper objectMapper;
+  private final Cache<Long, EncodedSchedule> cache;
+  private final boolean enabled;
+  private final boolean gzip;
+
+  public ScheduleResponseCache(AmortizationProperties amortizationProperties,
+      ObjectMapper objectMapper) {
+    AmortizationProperties.ResponseCache responseCacheProperties = amortizationProperties
+        .getResponseCache();
+    this.objectMapper = objectMapper;
+    this.enabled = responseCacheProperties.isEnabled();
+    this.gzip = responseCacheProperties.isGzip();
+    this.cache = Caffeine.newBuilder()
+        .maximumWeight(responseCacheProperties.getMaximumSize().toBytes())
+        .weigher((Long id, EncodedSchedule schedule) -> schedule.size())
+        .build();
+  }
+
+  /**
+   * Returns the encoded JSON of a stored schedule, encoding and caching it if it is not cached
+   * yet. A schedule that does not exist is not cached. Concurrent reads of a schedule that is not
+   * cached wait for a single load of it.
+   *
+   * @param id     The id of the amortization schedule.
+   * @param loader Finds the amortization schedule.
+   * @return The encoded schedule, or an empty optional if there is none with the id.
+   */
+  public Optional<EncodedSchedule> get(Long id,
+      Supplier<Optional<AmortizationSchedule>> loader) {
+    if (!enabled) {
+      return loader.get().map(this::encode);
+    }
+
+    return Optional.ofNullable(cache.get(id,
+        key -> loader.get().map(this::encode).orElse(null)));
+  }
+
+  /**
+   * Removes a schedule right away and, within a transaction, again once the transaction commits,
+   * so that a read before the commit cannot keep the schedule cached as it was before.
+   *
+   * @param id The id of the amortization schedule.
+   */
+  public void invalidate(Long id) {
+    cache.invalidate(id);
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        cache.invalidate(id);
+      }
+    });
+  }
+
+  /**
+   * Removes every cached schedule.
+   */
+  public void clear() {
+    cache.invalidateAll();
+  }
+
+  private EncodedSchedule encode(AmortizationSchedule amortizationSchedule) {
+    try {
+      byte[] json = objectMapper.writeValueAsBytes(amortizationSchedule);
+      String eTag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+      return new EncodedSchedule(json, gzip ? compress(json) : null, eTag);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static byte[] compress(byte[] json) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream(json.length / 4);
+    try (GZIPOutputStream gzipOutput = new GZIPOutputStream(output)) {
+      gzipOutput.write(json);
+    }
+    return output.toByteArray();
+  }
+
+  /**
+   * The JSON of a schedule, its gzip compressed form if compression is enabled, and the entity
+   * tag of the uncompressed form.
+   */
+  public record EncodedSchedule(byte[] json, byte[] gzipJson, String eTag) {
+
+    /**
+     * Returns the entity tag of the compressed form, which differs from that of the uncompressed
+     * form as its bytes differ.
+     *
+     * @return The entity tag of the compressed form.
+     */
+    public String gzipETag() {
+      return eTag.substring(0, eTag.length() - 1) + GZIP_ETAG_SUFFIX + "\"";
+    }
+
+    int size() {
+      return json.length + (gzipJson == null ? 0 : gzipJson.length);
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package com.example.amortizationschedule.service;
+
+import com.example.amortizationschedule.model.AmortizationEntry;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The monthly repayment and the totals of a schedule, as listed for it once it is stored. They
+ * are summed either from the entries of the schedule, or in cents from its periods evaluated in
+ * fixed point, without creating its entries; either way the figures are the same.
+ *
+ * @param monthlyRepayment The monthly payment of the first period, as originally agreed.
+ * @param totalInterestDue The total of the interest payments.
+ * @param totalPaymentsDue The total of the monthly payments.
+ */
+record ScheduleTotals(BigDecimal monthlyRepayment, BigDecimal totalInterestDue,
+                      BigDecimal totalPaymentsDue) {
+
+  private static final int OUTPUT_ROUNDING_SCALE = 2;
+
+  /**
+   * Sums the totals of a schedule from its entries.
+   *
+   * @param amortizationEntries The entries of the schedule.
+   * @return The totals of the schedule, which are zero if it has no entries.
+   */
+  static ScheduleTotals of(List<AmortizationEntry> amortizationEntries) {
+    BigDecimal totalInterestDue = BigDecimal.ZERO;
+    BigDecimal totalPaymentsDue = BigDecimal.ZERO;
+    for (AmortizationEntry entry : amortizationEntries) {
+      totalInterestDue = totalInterestDue.add(entry.getInterestPayment());
+      totalPaymentsDue = totalPaymentsDue.add(entry.getMonthlyPayment());
+    }
+    BigDecimal monthlyRepayment = amortizationEntries.isEmpty() ? BigDecimal.ZERO
+        : amortizationEntries.get(0).getMonthlyPayment();
+    return new ScheduleTotals(
+        monthlyRepayment.setScale(OUTPUT_ROUNDING_SCALE, RoundingMode.HALF_UP),
+        totalInterestDue.setScale(OUTPUT_ROUNDING_SCALE, RoundingMode.HALF_UP),
+        totalPaymentsDue.setScale(OUTPUT_ROUNDING_SCALE, RoundingMode.HALF_UP));
+  }
+
+  /**
+   * Sums the totals of an already prepared loan from its periods evaluated in fixed point, in
+   * cents, without creating its entries.
+   *
+   * @param remainingBalance    The amount financed.
+   * @param monthlyInterestRate The monthly interest rate, with a scale of 5.
+   * @param monthlyPayment      The unrounded monthly payment.
+   * @param monthlyPayments     The total number of monthly payments.
+   * @return The totals of the schedule, or an empty optional if its periods cannot be guaranteed
+   * to match the {@link BigDecimal} loop, in which case they are to be summed from its entries.
+   */
+  static Optional<ScheduleTotals> sumFixedPoint(BigDecimal remainingBalance,
+      BigDecimal monthlyInterestRate, BigDecimal monthlyPayment, int monthlyPayments) {
+    // The total interest and the total payments in cents
+    long[] totals = new long[2];
+    boolean calculated = FixedPointScheduleEngine.visitEntries(remainingBalance,
+        monthlyInterestRate, monthlyPayment, monthlyPayments,
+        (period, payment, interest, principal, balance) -> {
+          totals[0] += interest;
+          totals[1] += payment;
+        });
+    if (!calculated) {
+      return Optional.empty();
+    }
+    // Every period pays the same rounded monthly payment
+    return Optional.of(new ScheduleTotals(
+        monthlyPayment.setScale(OUTPUT_ROUNDING_SCALE, RoundingMode.HALF_UP),
+        PackedEntryCodec.fromCents(totals[0]), PackedEntryCodec.fromCents(totals[1])));
+  }
+}
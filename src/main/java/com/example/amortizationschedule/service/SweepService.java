@@ -0,0 +1,10 @@
+package com.example.amortizationschedule.service;
+
+import com.example.amortizationschedule.model.SweepRequest;
+import com.example.amortizationschedule.model.SweepResult;
+import java.util.List;
+
+public interface SweepService {
+
+  List<SweepResult> sweep(SweepRequest sweepRequest);
+}
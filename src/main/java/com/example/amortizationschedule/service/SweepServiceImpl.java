@@ -0,0 +1,185 @@
+package com.example.amortizationschedule.service;
+
+import com.example.amortizationschedule.config.AmortizationProperties;
+import com.example.amortizationschedule.model.AmortizationSchedule;
+import com.example.amortizationschedule.model.LoanDetails;
+import com.example.amortizationschedule.model.SweepPoint;
+import com.example.amortizationschedule.model.SweepRequest;
+import com.example.amortizationschedule.model.SweepResult;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Implementation of the {@link SweepService} interface.
+ *
+ * <p>The rates of a sweep are evaluated in parallel on the batch calculation pool. The annuity
+ * factors of all terms at a rate are built together, each from the factor of the next shorter
+ * term, and the totals of a cell are summed from its periods without creating its entries. A cell
+ * whose periods cannot be evaluated exactly in fixed point, and a cell whose schedule is asked for,
+ * is calculated like a single loan instead.
+ */
+@Service
+@RequiredArgsConstructor
+public class SweepServiceImpl implements SweepService {
+
+  private final AmortizationProperties amortizationProperties;
+  private final MonthlyPaymentCalculator monthlyPaymentCalculator;
+  private final AmortizationService amortizationService;
+  private final ForkJoinPool amortizationBatchPool;
+  private final CalculationAdmission calculationAdmission;
+
+  /**
+   * Calculates the monthly repayment and the totals of a loan for every combination of the
+   * interest rates and terms of a sweep.
+   *
+   * @param sweepRequest The loan, the interest rates and terms of the grid, and the cells whose
+   *                     schedules are returned.
+   * @return One result per cell, ordered by interest rate and then by term, in the order of the
+   * request.
+   * @throws IllegalArgumentException    If the loan is incomplete, a term is not positive, or the
+   *                                     grid holds more cells than allowed.
+   * @throws CalculationTooLargeException If a cell costs more than a single request may. Every
+   *                                     cell is admitted by its own cost as it is calculated, so
+   *                                     the size of the grid is only bounded by
+   *                                     {@code amortization.sweep.max-cells}.
+   */
+  @Override
+  public List<SweepResult> sweep(SweepRequest sweepRequest) {
+    validateSweepRequest(sweepRequest);
+    int[] terms = sweepRequest.getMonthlyPayments().stream().mapToInt(Integer::intValue).toArray();
+
+    try {
+      return amortizationBatchPool.submit(() -> sweepRequest.getInterestRates().parallelStream()
+          .flatMap(interestRate -> sweepRate(sweepRequest, interestRate, terms).stream())
+          .toList()).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Sweep was interrupted", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException("Sweep failed", e.getCause());
+    }
+  }
+
+  /**
+   * Calculates the cells of a single interest rate.
+   *
+   * @param sweepRequest The sweep.
+   * @param interestRate The yearly interest rate of the cells.
+   * @param terms        The terms of the grid.
+   * @return The results of the cells, in the order of the terms.
+   */
+  private List<SweepResult> sweepRate(SweepRequest sweepRequest, BigDecimal interestRate,
+      int[] terms) {
+    LoanDetails loanDetails = sweepRequest.getLoanDetails();
+    BigDecimal monthlyInterestRate = monthlyPaymentCalculator
+        .calculateMonthlyInterestRate(interestRate);
+    BigDecimal remainingBalance = loanDetails.getLoanAmount()
+        .subtract(loanDetails.getDepositAmount());
+    BigDecimal[] factors = monthlyPaymentCalculator.calculateAnnuityFactors(monthlyInterestRate,
+        terms);
+
+    List<SweepResult> results = new ArrayList<>(terms.length);
+    for (int i = 0; i < terms.length; i++) {
+      if (isSelected(sweepRequest.getSchedules(), interestRate, terms[i])) {
+        AmortizationSchedule amortizationSchedule = calculateSchedule(loanDetails, interestRate,
+            terms[i]);
+        results.add(createResult(interestRate, terms[i],
+            ScheduleTotals.of(amortizationSchedule.getAmortizationEntries()),
+            amortizationSchedule));
+        continue;
+      }
+
+      BigDecimal monthlyPayment = monthlyPaymentCalculator.calculateMonthlyPayment(
+          loanDetails.getBalloonPayment(), remainingBalance, monthlyInterestRate, factors[i]);
+      int term = terms[i];
+      ScheduleTotals scheduleTotals = calculationAdmission.runAdmitted(
+              CalculationAdmission.cost(term, CalculationEngine.FIXED_POINT),
+              () -> ScheduleTotals.sumFixedPoint(remainingBalance, monthlyInterestRate,
+                  monthlyPayment, term))
+          .orElseGet(() -> ScheduleTotals.of(
+              calculateSchedule(loanDetails, interestRate, term).getAmortizationEntries()));
+      results.add(createResult(interestRate, term, scheduleTotals, null));
+    }
+    return results;
+  }
+
+  /**
+   * Calculates the schedule of a cell the same way as that of a single loan.
+   *
+   * @param loanDetails     The loan of the sweep.
+   * @param interestRate    The yearly interest rate of the cell.
+   * @param monthlyPayments The term of the cell.
+   * @return The amortization schedule of the cell.
+   */
+  private AmortizationSchedule calculateSchedule(LoanDetails loanDetails, BigDecimal interestRate,
+      int monthlyPayments) {
+    LoanDetails cellLoanDetails = new LoanDetails();
+    cellLoanDetails.setLoanAmount(loanDetails.getLoanAmount());
+    cellLoanDetails.setDepositAmount(loanDetails.getDepositAmount());
+    cellLoanDetails.setInterestRate(interestRate);
+    cellLoanDetails.setBalloonPayment(loanDetails.getBalloonPayment());
+    cellLoanDetails.setMonthlyPayments(monthlyPayments);
+    return amortizationService.calculateAmortizationSchedule(cellLoanDetails);
+  }
+
+  /**
+   * Creates the result of a cell from its totals.
+   *
+   * @param interestRate         The yearly interest rate of the cell.
+   * @param monthlyPayments      The term of the cell.
+   * @param scheduleTotals       The monthly repayment and the totals of the cell.
+   * @param amortizationSchedule The schedule returned with the result, or {@code null}.
+   * @return The result of the cell.
+   */
+  private static SweepResult createResult(BigDecimal interestRate, int monthlyPayments,
+      ScheduleTotals scheduleTotals, AmortizationSchedule amortizationSchedule) {
+    return new SweepResult(interestRate, monthlyPayments, scheduleTotals.monthlyRepayment(),
+        scheduleTotals.totalInterestDue(), scheduleTotals.totalPaymentsDue(),
+        amortizationSchedule);
+  }
+
+  private static boolean isSelected(List<SweepPoint> schedules, BigDecimal interestRate,
+      int monthlyPayments) {
+    return schedules != null && schedules.stream()
+        .anyMatch(point -> point.getMonthlyPayments() == monthlyPayments
+            && point.getInterestRate() != null
+            && point.getInterestRate().compareTo(interestRate) == 0);
+  }
+
+  /**
+   * Validates a sweep.
+   *
+   * @param sweepRequest The sweep to be validated.
+   * @throws IllegalArgumentException If the loan amount, the deposit amount or an interest rate is
+   *                                  null, a term is not positive, or the grid holds more cells
+   *                                  than allowed.
+   */
+  private void validateSweepRequest(SweepRequest sweepRequest) {
+    LoanDetails loanDetails = sweepRequest.getLoanDetails();
+    if (loanDetails == null || loanDetails.getLoanAmount() == null
+        || loanDetails.getDepositAmount() == null || sweepRequest.getInterestRates() == null
+        || sweepRequest.getInterestRates().stream().anyMatch(Objects::isNull)) {
+      throw new IllegalArgumentException(
+          "Loan amount, deposit amount and interest rates cannot be null");
+    }
+    if (sweepRequest.getMonthlyPayments() == null
+        || sweepRequest.getMonthlyPayments().stream().anyMatch(term -> term == null || term <= 0)) {
+      throw new IllegalArgumentException("Monthly payments must be positive integers");
+    }
+    int maxCells = amortizationProperties.getSweep().getMaxCells();
+    if ((long) sweepRequest.getInterestRates().size() * sweepRequest.getMonthlyPayments().size()
+        > maxCells) {
+      throw new IllegalArgumentException("A sweep cannot contain more than " + maxCells
+          + " cells");
+    }
+  }
+}
@@ -0,0 +1,244 @@
+package com.example.amortizationschedule.service;
+
+import com.example.amortizationschedule.config.AmortizationProperties;
+import com.example.amortizationschedule.model.AmortizationEntry;
+import com.example.amortizationschedule.model.AmortizationSchedule;
+import com.example.amortizationschedule.model.LoanDetails;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Persists calculated amortization schedules after the request that created them has returned.
+ *
+ * <p>Schedules are queued in a bounded queue and written by a single background thread, which
+ * persists up to {@code amortization.write-behind.batch-size} of them in one transaction, so
+ * their inserts are sent together as JDBC batches. When the queue stays full for longer than
+ * {@code amortization.write-behind.offer-timeout}, or the writer is not running, a request persists
+ * its own schedule, which slows the requests down to the rate the database can take. On shutdown
+ * the writer stops after the web server and persists every queued schedule first.
+ */
+@Component
+public class WriteBehindScheduleWriter implements SmartLifecycle {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(WriteBehindScheduleWriter.class);
+  private static final long POLL_TIMEOUT_MILLIS = 100;
+
+  private final AmortizationProperties.WriteBehind writeBehindProperties;
+  private final AmortizationService amortizationService;
+  private final TransactionTemplate transactionTemplate;
+  private final AmortizationMetrics amortizationMetrics;
+  private final BlockingQueue<AmortizationSchedule> queue;
+  private final Object pendingLock = new Object();
+
+  private long pending;
+  private volatile boolean running;
+  private Thread writerThread;
+
+  public WriteBehindScheduleWriter(AmortizationProperties amortizationProperties,
+      AmortizationService amortizationService, TransactionTemplate transactionTemplate,
+      AmortizationMetrics amortizationMetrics) {
+    this.writeBehindProperties = amortizationProperties.getWriteBehind();
+    this.amortizationService = amortizationService;
+    this.transactionTemplate = transactionTemplate;
+    this.amortizationMetrics = amortizationMetrics;
+    this.queue = new ArrayBlockingQueue<>(writeBehindProperties.getQueueCapacity());
+    amortizationMetrics.registerWriteBehindQueue(queue);
+  }
+
+  /**
+   * Checks whether created schedules are persisted in the background.
+   *
+   * @return {@code true} if write-behind persistence is enabled.
+   */
+  public boolean isEnabled() {
+    return writeBehindProperties.isEnabled();
+  }
+
+  /**
+   * Queues a schedule to be persisted. The schedule itself is left as it is, so it can be returned
+   * while it is persisted; it is not assigned an id.
+   *
+   * @param amortizationSchedule The calculated amortization schedule.
+   */
+  public void enqueue(AmortizationSchedule amortizationSchedule) {
+    if (running) {
+      incrementPending();
+      try {
+        if (queue.offer(amortizationSchedule, writeBehindProperties.getOfferTimeout().toMillis(),
+            TimeUnit.MILLISECONDS)) {
+          return;
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      decrementPending(1);
+    }
+    amortizationMetrics.recordWriteBehindFallback();
+    amortizationService.createAmortizationSchedule(copyForPersisting(amortizationSchedule));
+  }
+
+  /**
+   * Waits until every queued schedule has been persisted.
+   *
+   * @throws InterruptedException If the thread is interrupted while waiting.
+   */
+  public void flush() throws InterruptedException {
+    synchronized (pendingLock) {
+      while (pending > 0) {
+        pendingLock.wait();
+      }
+    }
+  }
+
+  @Override
+  public void start() {
+    if (!isEnabled() || running) {
+      return;
+    }
+    running = true;
+    writerThread = new Thread(this::writeQueuedSchedules, "amortization-write-behind");
+    writerThread.start();
+  }
+
+  @Override
+  public void stop() {
+    if (!running) {
+      return;
+    }
+    running = false;
+    try {
+      writerThread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    // A request that saw the writer running may have queued its schedule after the writer left
+    writeBatch(drainQueue(new ArrayList<>()));
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  /**
+   * Stops the writer after the web server, which stops in an earlier phase, so no request can
+   * queue a schedule after the queue has been persisted.
+   */
+  @Override
+  public int getPhase() {
+    return SmartLifecycle.DEFAULT_PHASE - 4096;
+  }
+
+  private void writeQueuedSchedules() {
+    List<AmortizationSchedule> batch = new ArrayList<>(writeBehindProperties.getBatchSize());
+    while (running || !queue.isEmpty()) {
+      try {
+        AmortizationSchedule amortizationSchedule = queue.poll(POLL_TIMEOUT_MILLIS,
+            TimeUnit.MILLISECONDS);
+        if (amortizationSchedule != null) {
+          batch.add(amortizationSchedule);
+          writeBatch(drainQueue(batch));
+          batch.clear();
+        }
+      } catch (InterruptedException e) {
+        // The writer is only stopped through running, so that it always empties the queue first
+      }
+    }
+  }
+
+  private List<AmortizationSchedule> drainQueue(List<AmortizationSchedule> batch) {
+    queue.drainTo(batch, writeBehindProperties.getBatchSize() - batch.size());
+    return batch;
+  }
+
+  /**
+   * Persists a batch of schedules in a single transaction. As one schedule that cannot be
+   * persisted rolls the whole transaction back, the schedules of a failed batch are persisted
+   * again one by one. A schedule that still cannot be persisted is logged with its loan details,
+   * as its request has returned already and the schedule is lost.
+   *
+   * @param batch The schedules to persist.
+   */
+  private void writeBatch(List<AmortizationSchedule> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    try {
+      amortizationMetrics.timePersistence("write_behind_batch",
+          () -> transactionTemplate.executeWithoutResult(status -> batch.forEach(
+              schedule -> amortizationService.createAmortizationSchedule(
+                  copyForPersisting(schedule)))));
+    } catch (RuntimeException e) {
+      LOGGER.warn("A batch of {} schedules could not be persisted, so they are persisted one by "
+          + "one", batch.size(), e);
+      for (AmortizationSchedule amortizationSchedule : batch) {
+        try {
+          amortizationService.createAmortizationSchedule(copyForPersisting(amortizationSchedule));
+        } catch (RuntimeException scheduleException) {
+          amortizationMetrics.recordWriteBehindFailure();
+          LoanDetails loanDetails = amortizationSchedule.getLoanDetails();
+          LOGGER.error("The schedule of a loan of {} with a deposit of {}, an interest rate of {}, "
+                  + "a balloon payment of {} and {} monthly payments could not be persisted",
+              loanDetails.getLoanAmount(), loanDetails.getDepositAmount(),
+              loanDetails.getInterestRate(), loanDetails.getBalloonPayment(),
+              loanDetails.getMonthlyPayments(), scheduleException);
+        }
+      }
+    } finally {
+      decrementPending(batch.size());
+    }
+  }
+
+  /**
+   * Copies a schedule, so that persisting it neither changes the schedule returned to the client
+   * nor leaves the ids of a rolled back attempt on it.
+   *
+   * @param amortizationSchedule The calculated amortization schedule.
+   * @return A copy of the schedule, its loan details and its entries, without ids.
+   */
+  static AmortizationSchedule copyForPersisting(AmortizationSchedule amortizationSchedule) {
+    LoanDetails loanDetails = amortizationSchedule.getLoanDetails();
+    var loanDetailsCopy = new LoanDetails();
+    loanDetailsCopy.setLoanAmount(loanDetails.getLoanAmount());
+    loanDetailsCopy.setDepositAmount(loanDetails.getDepositAmount());
+    loanDetailsCopy.setInterestRate(loanDetails.getInterestRate());
+    loanDetailsCopy.setBalloonPayment(loanDetails.getBalloonPayment());
+    loanDetailsCopy.setMonthlyPayments(loanDetails.getMonthlyPayments());
+
+    List<AmortizationEntry> amortizationEntries = new ArrayList<>(
+        amortizationSchedule.getAmortizationEntries().size());
+    for (AmortizationEntry entry : amortizationSchedule.getAmortizationEntries()) {
+      amortizationEntries.add(new AmortizationEntry(null, entry.getPeriod(),
+          entry.getMonthlyPayment(), entry.getInterestPayment(), entry.getPrincipalPayment(),
+          entry.getRemainingBalance()));
+    }
+
+    var copy = new AmortizationSchedule();
+    copy.setLoanDetails(loanDetailsCopy);
+    copy.setAmortizationEntries(amortizationEntries);
+    return copy;
+  }
+
+  private void incrementPending() {
+    synchronized (pendingLock) {
+      pending++;
+    }
+  }
+
+  private void decrementPending(long count) {
+    synchronized (pendingLock) {
+      pending -= count;
+      if (pending == 0) {
+        pendingLock.notifyAll();
+      }
+    }
+  }
+}
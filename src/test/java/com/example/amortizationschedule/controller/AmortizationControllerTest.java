@@ -1,15 +1,22 @@
 package com.example.amortizationschedule.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.example.amortizationschedule.model.AmortizationEntry;
 import com.example.amortizationschedule.model.AmortizationSchedule;
+import com.example.amortizationschedule.model.AmortizationScheduleDetails;
+import com.example.amortizationschedule.model.BatchCalculationResult;
 import com.example.amortizationschedule.model.LoanDetails;
+import com.example.amortizationschedule.model.ScheduleChange;
 import com.example.amortizationschedule.repository.AmortizationEntryRepository;
 import com.example.amortizationschedule.repository.AmortizationScheduleRepository;
 import com.example.amortizationschedule.repository.LoanDetailsRepository;
 import com.example.amortizationschedule.service.AmortizationService;
 import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.List;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
@@ -18,8 +25,10 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -70,6 +79,68 @@ class AmortizationControllerTest {
     assertNotNull(response.getBody().getAmortizationEntries());
   }
 
+  @Test
+  void testCreateRejectsOversizedLoan() {
+    // Given
+    var loanDetails = new LoanDetails();
+    loanDetails.setLoanAmount(BigDecimal.valueOf(20000));
+    loanDetails.setDepositAmount(BigDecimal.ZERO);
+    loanDetails.setInterestRate(BigDecimal.valueOf(7.5));
+    loanDetails.setMonthlyPayments(10_000_000);
+
+    // When
+    ResponseEntity<String> response = restTemplate.postForEntity(
+        "/api/amortization-schedule/create", loanDetails, String.class);
+
+    // Then
+    assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, response.getStatusCode());
+    assertEquals(0, amortizationScheduleRepository.count());
+  }
+
+  @Test
+  void testCreateRejectsLongBigDecimalLoan() {
+    // Given
+    var loanDetails = new LoanDetails();
+    loanDetails.setLoanAmount(BigDecimal.valueOf(20000));
+    loanDetails.setDepositAmount(BigDecimal.ZERO);
+    loanDetails.setInterestRate(BigDecimal.valueOf(7.5));
+    // 5,000 periods cost 255,000 with the BigDecimal engine
+    loanDetails.setMonthlyPayments(5_000);
+
+    // When
+    ResponseEntity<String> response = restTemplate.postForEntity(
+        "/api/amortization-schedule/create", loanDetails, String.class);
+
+    // Then
+    assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, response.getStatusCode());
+    assertEquals(0, amortizationScheduleRepository.count());
+  }
+
+  @Test
+  void testApplyChangeRejectsOversizedTerm() {
+    // Given
+    var loanDetails = new LoanDetails();
+    loanDetails.setLoanAmount(BigDecimal.valueOf(20000));
+    loanDetails.setDepositAmount(BigDecimal.ZERO);
+    loanDetails.setInterestRate(BigDecimal.valueOf(7.5));
+    loanDetails.setMonthlyPayments(12);
+    var amortizationSchedule = amortizationService.createAmortizationSchedule(
+        amortizationService.calculateAmortizationSchedule(loanDetails));
+    var scheduleChange = new ScheduleChange();
+    scheduleChange.setPeriod(6);
+    scheduleChange.setMonthlyPayments(10_000_000);
+
+    // When
+    ResponseEntity<String> response = restTemplate.postForEntity(
+        "/api/amortization-schedule/" + amortizationSchedule.getId() + "/changes", scheduleChange,
+        String.class);
+
+    // Then
+    assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, response.getStatusCode());
+    assertEquals(12, amortizationService.findAmortizationSchedule(amortizationSchedule.getId())
+        .orElseThrow().getAmortizationEntries().size());
+  }
+
   @Test
   void testFindById() {
     // Given
@@ -99,6 +170,38 @@ class AmortizationControllerTest {
         response.getBody().getAmortizationEntries().size());
   }
 
+  @Test
+  void testFindByIdHonorsETag() {
+    // Given
+    var loanDetails = new LoanDetails();
+    loanDetails.setLoanAmount(BigDecimal.valueOf(20000));
+    loanDetails.setDepositAmount(BigDecimal.ZERO);
+    loanDetails.setInterestRate(BigDecimal.valueOf(7.5));
+    loanDetails.setMonthlyPayments(12);
+    AmortizationSchedule amortizationSchedule = amortizationService.createAmortizationSchedule(
+        amortizationService.calculateAmortizationSchedule(loanDetails));
+    String url = "/api/amortization-schedule/" + amortizationSchedule.getId();
+    String eTag = restTemplate.getForEntity(url, String.class).getHeaders().getETag();
+    var conditionalHeaders = new HttpHeaders();
+    conditionalHeaders.setIfNoneMatch(eTag);
+
+    // When
+    ResponseEntity<String> unchangedResponse = restTemplate.exchange(url, HttpMethod.GET,
+        new HttpEntity<>(conditionalHeaders), String.class);
+    var scheduleChange = new ScheduleChange();
+    scheduleChange.setPeriod(7);
+    scheduleChange.setInterestRate(BigDecimal.valueOf(5.5));
+    amortizationService.applyScheduleChange(amortizationSchedule.getId(), scheduleChange);
+    ResponseEntity<String> changedResponse = restTemplate.exchange(url, HttpMethod.GET,
+        new HttpEntity<>(conditionalHeaders), String.class);
+
+    // Then
+    assertNotNull(eTag);
+    assertEquals(HttpStatus.NOT_MODIFIED, unchangedResponse.getStatusCode());
+    assertEquals(HttpStatus.OK, changedResponse.getStatusCode());
+    assertNotEquals(eTag, changedResponse.getHeaders().getETag());
+  }
+
   @Test
   void testFindByIdWhenInvalid() {
     // Given
@@ -113,6 +216,93 @@ class AmortizationControllerTest {
     assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
   }
 
+  @Test
+  void testGetScheduleEntryByPeriod() {
+    // Given
+    var loanDetails = new LoanDetails();
+    loanDetails.setLoanAmount(BigDecimal.valueOf(20000));
+    loanDetails.setDepositAmount(BigDecimal.ZERO);
+    loanDetails.setInterestRate(BigDecimal.valueOf(7.5));
+    loanDetails.setMonthlyPayments(12);
+
+    AmortizationSchedule amortizationSchedule = amortizationService
+        .calculateAmortizationSchedule(loanDetails);
+    amortizationService.createAmortizationSchedule(amortizationSchedule);
+
+    // When
+    ResponseEntity<AmortizationEntry> response = restTemplate.getForEntity(
+        "/api/amortization-schedule/" + amortizationSchedule.getId() + "/period/7",
+        AmortizationEntry.class
+    );
+    ResponseEntity<AmortizationEntry> outOfRangeResponse = restTemplate.getForEntity(
+        "/api/amortization-schedule/" + amortizationSchedule.getId() + "/period/13",
+        AmortizationEntry.class
+    );
+
+    // Then
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertNotNull(response.getBody());
+    assertEquals(7, response.getBody().getPeriod());
+    assertEquals(new BigDecimal("63.67"), response.getBody().getInterestPayment());
+    assertEquals(new BigDecimal("8515.41"), response.getBody().getRemainingBalance());
+    assertEquals(HttpStatus.NOT_FOUND, outOfRangeResponse.getStatusCode());
+  }
+
+  @Test
+  void testBatch() {
+    // Given
+    var loanDetails = new LoanDetails();
+    loanDetails.setLoanAmount(BigDecimal.valueOf(20000));
+    loanDetails.setDepositAmount(BigDecimal.ZERO);
+    loanDetails.setInterestRate(BigDecimal.valueOf(7.5));
+    loanDetails.setMonthlyPayments(12);
+
+    var invalidLoanDetails = new LoanDetails();
+    invalidLoanDetails.setLoanAmount(BigDecimal.valueOf(20000));
+    invalidLoanDetails.setMonthlyPayments(12);
+
+    // When
+    ResponseEntity<List<BatchCalculationResult>> response = restTemplate.exchange(
+        "/api/amortization-schedule/batch",
+        HttpMethod.POST,
+        new HttpEntity<>(List.of(loanDetails, invalidLoanDetails)),
+        new ParameterizedTypeReference<>() {
+        });
+
+    // Then
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    List<BatchCalculationResult> results = response.getBody();
+    assertNotNull(results);
+    assertEquals(2, results.size());
+    assertEquals(12, results.get(0).getAmortizationSchedule().getAmortizationEntries().size());
+    assertNotNull(results.get(1).getError());
+  }
+
+  @Test
+  void testBatchWithNullLoan() {
+    // Given
+    var loanDetails = new LoanDetails();
+    loanDetails.setLoanAmount(BigDecimal.valueOf(20000));
+    loanDetails.setDepositAmount(BigDecimal.ZERO);
+    loanDetails.setInterestRate(BigDecimal.valueOf(7.5));
+    loanDetails.setMonthlyPayments(12);
+
+    // When
+    ResponseEntity<List<BatchCalculationResult>> response = restTemplate.exchange(
+        "/api/amortization-schedule/batch",
+        HttpMethod.POST,
+        new HttpEntity<>(Arrays.asList(loanDetails, null)),
+        new ParameterizedTypeReference<>() {
+        });
+
+    // Then
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    List<BatchCalculationResult> results = response.getBody();
+    assertNotNull(results);
+    assertEquals(12, results.get(0).getAmortizationSchedule().getAmortizationEntries().size());
+    assertEquals("Loan details cannot be null", results.get(1).getError());
+  }
+
   @Test
   void testGetAll() {
     // Given
@@ -148,5 +338,106 @@ class AmortizationControllerTest {
     assertNotNull(schedules);
     assertEquals(2, schedules.size());
   }
-}
 
+  @Test
+  void testGetAllWithKeysetPagination() {
+    // Given
+    for (int i = 0; i < 3; i++) {
+      LoanDetails loanDetails = new LoanDetails();
+      loanDetails.setLoanAmount(BigDecimal.valueOf(10000L * (i + 1)));
+      loanDetails.setDepositAmount(BigDecimal.ZERO);
+      loanDetails.setInterestRate(BigDecimal.valueOf(7.5));
+      loanDetails.setMonthlyPayments(12);
+      amortizationService.createAmortizationSchedule(
+          amortizationService.calculateAmortizationSchedule(loanDetails));
+    }
+
+    // When
+    ResponseEntity<List<AmortizationScheduleDetails>> firstPage = restTemplate.exchange(
+        "/api/amortization-schedule/all?limit=2",
+        HttpMethod.GET,
+        null,
+        new ParameterizedTypeReference<>() {
+        });
+    Long lastScheduleId = firstPage.getBody().get(1).getScheduleId();
+    ResponseEntity<List<AmortizationScheduleDetails>> secondPage = restTemplate.exchange(
+        "/api/amortization-schedule/all?after=" + lastScheduleId + "&limit=2",
+        HttpMethod.GET,
+        null,
+        new ParameterizedTypeReference<>() {
+        });
+
+    // Then
+    assertEquals(HttpStatus.OK, firstPage.getStatusCode());
+    assertEquals(2, firstPage.getBody().size());
+    assertEquals(HttpStatus.OK, secondPage.getStatusCode());
+    assertEquals(1, secondPage.getBody().size());
+    assertTrue(secondPage.getBody().get(0).getScheduleId() > lastScheduleId);
+    assertEquals(30000L,
+        secondPage.getBody().get(0).getLoanDetails().getLoanAmount().longValue());
+  }
+
+  @Test
+  void testStreamAll() {
+    // Given
+    for (int i = 0; i < 2; i++) {
+      LoanDetails loanDetails = new LoanDetails();
+      loanDetails.setLoanAmount(BigDecimal.valueOf(20000));
+      loanDetails.setDepositAmount(BigDecimal.ZERO);
+      loanDetails.setInterestRate(BigDecimal.valueOf(7.5));
+      loanDetails.setMonthlyPayments(12);
+      amortizationService.createAmortizationSchedule(
+          amortizationService.calculateAmortizationSchedule(loanDetails));
+    }
+
+    // When
+    ResponseEntity<String> response = restTemplate.getForEntity(
+        "/api/amortization-schedule/all/stream", String.class);
+
+    // Then
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+    List<String> lines = response.getBody().lines().toList();
+    assertEquals(2, lines.size());
+    assertTrue(lines.get(0).contains("\"totalPaymentsDue\":20821.80"));
+  }
+
+  @Test
+  void testStreamEntries() {
+    // Given
+    LoanDetails loanDetails = new LoanDetails();
+    loanDetails.setLoanAmount(BigDecimal.valueOf(20000));
+    loanDetails.setDepositAmount(BigDecimal.ZERO);
+    loanDetails.setInterestRate(BigDecimal.valueOf(7.5));
+    loanDetails.setMonthlyPayments(24);
+    AmortizationSchedule amortizationSchedule = amortizationService.createAmortizationSchedule(
+        amortizationService.calculateAmortizationSchedule(loanDetails));
+    String url = "/api/amortization-schedule/" + amortizationSchedule.getId() + "/entries";
+    var ndjsonHeaders = new HttpHeaders();
+    ndjsonHeaders.setAccept(List.of(MediaType.APPLICATION_NDJSON));
+    var jsonHeaders = new HttpHeaders();
+    jsonHeaders.setAccept(List.of(MediaType.APPLICATION_JSON));
+
+    // When
+    ResponseEntity<String> ndjsonResponse = restTemplate.exchange(url, HttpMethod.GET,
+        new HttpEntity<>(ndjsonHeaders), String.class);
+    ResponseEntity<AmortizationEntry[]> jsonResponse = restTemplate.exchange(url, HttpMethod.GET,
+        new HttpEntity<>(jsonHeaders), AmortizationEntry[].class);
+    ResponseEntity<String> missingResponse = restTemplate.exchange(
+        "/api/amortization-schedule/999999/entries", HttpMethod.GET,
+        new HttpEntity<>(ndjsonHeaders), String.class);
+
+    // Then
+    assertEquals(HttpStatus.OK, ndjsonResponse.getStatusCode());
+    assertEquals(MediaType.APPLICATION_NDJSON, ndjsonResponse.getHeaders().getContentType());
+    List<String> lines = ndjsonResponse.getBody().lines().toList();
+    assertEquals(24, lines.size());
+    assertTrue(lines.get(0).startsWith("{\"id\":"));
+    assertTrue(lines.get(23).contains("\"period\":24"));
+
+    assertEquals(HttpStatus.OK, jsonResponse.getStatusCode());
+    assertEquals(amortizationSchedule.getAmortizationEntries(), List.of(jsonResponse.getBody()));
+
+    assertEquals(HttpStatus.NOT_FOUND, missingResponse.getStatusCode());
+  }
+}
@@ -0,0 +1,83 @@
+package com.example.amortizationschedule.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.example.amortizationschedule.model.AmortizationSchedule;
+import com.example.amortizationschedule.model.LoanDetails;
+import com.example.amortizationschedule.repository.AmortizationEntryRepository;
+import com.example.amortizationschedule.repository.AmortizationScheduleRepository;
+import com.example.amortizationschedule.repository.LoanDetailsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.math.BigDecimal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class AmortizationMetricsTest {
+
+  @Autowired
+  private AmortizationService amortizationService;
+
+  @Autowired
+  private ScheduleCache scheduleCache;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private AmortizationScheduleRepository amortizationScheduleRepository;
+
+  @Autowired
+  private AmortizationEntryRepository amortizationEntryRepository;
+
+  @Autowired
+  private LoanDetailsRepository loanDetailsRepository;
+
+  @AfterEach
+  public void tearDown() {
+    amortizationScheduleRepository.deleteAll();
+    loanDetailsRepository.deleteAll();
+    amortizationEntryRepository.deleteAll();
+    scheduleCache.clear();
+  }
+
+  @Test
+  void testCalculateAndCreateAreMeasuredPerStage() {
+    // Given
+    var loanDetails = new LoanDetails();
+    loanDetails.setLoanAmount(BigDecimal.valueOf(20000));
+    loanDetails.setDepositAmount(BigDecimal.valueOf(2000));
+    loanDetails.setInterestRate(BigDecimal.valueOf(6.5));
+    loanDetails.setMonthlyPayments(48);
+    scheduleCache.clear();
+    double periodsGenerated = counter(AmortizationMetrics.PERIODS_GENERATED_COUNTER);
+    double entriesPersisted = counter(AmortizationMetrics.ENTRIES_PERSISTED_COUNTER);
+    long entryPersistences = timerCount(AmortizationMetrics.PERSISTENCE_TIMER, "stage", "entries");
+    long listings = timerCount(AmortizationMetrics.LISTING_TIMER, "operation", "all");
+
+    // When
+    AmortizationSchedule amortizationSchedule = amortizationService
+        .calculateAmortizationSchedule(loanDetails);
+    amortizationService.createAmortizationSchedule(amortizationSchedule);
+    amortizationService.listAllAmortizationSchedulesDetails();
+
+    // Then
+    assertEquals(periodsGenerated + 48, counter(AmortizationMetrics.PERIODS_GENERATED_COUNTER));
+    assertEquals(entriesPersisted + 48, counter(AmortizationMetrics.ENTRIES_PERSISTED_COUNTER));
+    assertEquals(entryPersistences + 1,
+        timerCount(AmortizationMetrics.PERSISTENCE_TIMER, "stage", "entries"));
+    assertEquals(listings + 1, timerCount(AmortizationMetrics.LISTING_TIMER, "operation", "all"));
+  }
+
+  private double counter(String name) {
+    var counter = meterRegistry.find(name).counter();
+    return counter == null ? 0 : counter.count();
+  }
+
+  private long timerCount(String name, String tagKey, String tagValue) {
+    var timer = meterRegistry.find(name).tag(tagKey, tagValue).timer();
+    return timer == null ? 0 : timer.count();
+  }
+}
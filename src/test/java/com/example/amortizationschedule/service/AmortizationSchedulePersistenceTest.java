@@ -0,0 +1,106 @@
+package com.example.amortizationschedule.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.amortizationschedule.model.AmortizationEntry;
+import com.example.amortizationschedule.model.AmortizationSchedule;
+import com.example.amortizationschedule.model.AmortizationScheduleDetails;
+import com.example.amortizationschedule.model.LoanDetails;
+import com.example.amortizationschedule.repository.AmortizationEntryRepository;
+import com.example.amortizationschedule.repository.AmortizationScheduleRepository;
+import com.example.amortizationschedule.repository.LoanDetailsRepository;
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class AmortizationSchedulePersistenceTest {
+
+  @Autowired
+  private AmortizationService amortizationService;
+
+  @Autowired
+  private AmortizationScheduleRepository amortizationScheduleRepository;
+
+  @Autowired
+  private AmortizationEntryRepository amortizationEntryRepository;
+
+  @Autowired
+  private LoanDetailsRepository loanDetailsRepository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @AfterEach
+  public void tearDown() {
+    amortizationScheduleRepository.deleteAll();
+    loanDetailsRepository.deleteAll();
+    amortizationEntryRepository.deleteAll();
+  }
+
+  @Test
+  void testCreateAmortizationScheduleBatchesInserts() {
+    // Given
+    var loanDetails = new LoanDetails();
+    loanDetails.setLoanAmount(BigDecimal.valueOf(300000));
+    loanDetails.setDepositAmount(BigDecimal.valueOf(30000));
+    loanDetails.setInterestRate(BigDecimal.valueOf(4.5));
+    loanDetails.setMonthlyPayments(360);
+
+    AmortizationSchedule amortizationSchedule = amortizationService
+        .calculateAmortizationSchedule(loanDetails);
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    // When
+    amortizationService.createAmortizationSchedule(amortizationSchedule);
+
+    // Then
+    long preparedStatements = statistics.getPrepareStatementCount();
+    assertEquals(362, statistics.getEntityInsertCount());
+    assertEquals(1, statistics.getCollectionRecreateCount());
+    // Inserting row by row would prepare a statement for each of the 360 entries and 360 join
+    // table rows; batches of 50 need one per batch, plus the pooled sequence calls
+    assertTrue(preparedStatements <= 40,
+        () -> "Expected at most 40 prepared statements, but was " + preparedStatements);
+  }
+
+  @Test
+  void testListAllAmortizationSchedulesDetailsDoesNotLoadEntries() {
+    // Given
+    var loanDetails = new LoanDetails();
+    loanDetails.setLoanAmount(BigDecimal.valueOf(300000));
+    loanDetails.setDepositAmount(BigDecimal.valueOf(30000));
+    loanDetails.setInterestRate(BigDecimal.valueOf(4.5));
+    loanDetails.setMonthlyPayments(360);
+
+    AmortizationSchedule amortizationSchedule = amortizationService
+        .calculateAmortizationSchedule(loanDetails);
+    amortizationService.createAmortizationSchedule(amortizationSchedule);
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    // When
+    List<AmortizationScheduleDetails> scheduleDetailsList = amortizationService
+        .listAllAmortizationSchedulesDetails();
+
+    // Then
+    assertEquals(0, statistics.getEntityLoadCount());
+    assertEquals(1, statistics.getPrepareStatementCount());
+    assertEquals(1, scheduleDetailsList.size());
+    assertEquals(amortizationSchedule.getAmortizationEntries().stream()
+            .map(AmortizationEntry::getInterestPayment)
+            .reduce(BigDecimal.ZERO, BigDecimal::add),
+        scheduleDetailsList.get(0).getTotalInterestDue());
+    assertEquals(amortizationSchedule.getAmortizationEntries().get(0).getMonthlyPayment()
+            .multiply(BigDecimal.valueOf(360)),
+        scheduleDetailsList.get(0).getTotalPaymentsDue());
+  }
+}
@@ -1,16 +1,22 @@
 package com.example.amortizationschedule.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.example.amortizationschedule.model.AmortizationEntry;
 import com.example.amortizationschedule.model.AmortizationSchedule;
 import com.example.amortizationschedule.model.AmortizationScheduleDetails;
+import com.example.amortizationschedule.model.BatchCalculationResult;
 import com.example.amortizationschedule.model.LoanDetails;
 import com.example.amortizationschedule.repository.AmortizationEntryRepository;
 import com.example.amortizationschedule.repository.AmortizationScheduleRepository;
 import com.example.amortizationschedule.repository.LoanDetailsRepository;
 import java.math.BigDecimal;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,6 +28,9 @@ class AmortizationServiceTest {
   @Autowired
   private AmortizationService amortizationService;
 
+  @Autowired
+  private ScheduleCache scheduleCache;
+
   @Autowired
   private AmortizationScheduleRepository amortizationScheduleRepository;
 
@@ -151,6 +160,158 @@ class AmortizationServiceTest {
     }
   }
 
+  @Test
+  void testFixedPointEngineMatchesBigDecimalEngine() {
+    List<BigDecimal> loanAmounts = List.of(new BigDecimal("5000.00"), BigDecimal.valueOf(20000),
+        new BigDecimal("254321.37"), new BigDecimal("1250000"));
+    List<BigDecimal> interestRates = List.of(new BigDecimal("0.5"), new BigDecimal("3.25"),
+        BigDecimal.valueOf(7.5), new BigDecimal("19.99"));
+    List<Integer> terms = List.of(1, 12, 60, 360, 480);
+
+    for (BigDecimal loanAmount : loanAmounts) {
+      for (BigDecimal interestRate : interestRates) {
+        for (int term : terms) {
+          for (BigDecimal balloonPayment : List.of(BigDecimal.ZERO,
+              loanAmount.divide(BigDecimal.TEN))) {
+            // Given
+            var loanDetails = new LoanDetails();
+            loanDetails.setLoanAmount(loanAmount);
+            loanDetails.setDepositAmount(BigDecimal.ZERO);
+            loanDetails.setInterestRate(interestRate);
+            loanDetails.setBalloonPayment(balloonPayment);
+            loanDetails.setMonthlyPayments(term);
+
+            // When
+            scheduleCache.clear();
+            AmortizationSchedule expectedAmortizationSchedule = amortizationService
+                .calculateAmortizationSchedule(loanDetails, CalculationEngine.BIG_DECIMAL);
+            scheduleCache.clear();
+            AmortizationSchedule actualAmortizationSchedule = amortizationService
+                .calculateAmortizationSchedule(loanDetails, CalculationEngine.FIXED_POINT);
+
+            // Then
+            assertEquals(expectedAmortizationSchedule.getAmortizationEntries(),
+                actualAmortizationSchedule.getAmortizationEntries(),
+                () -> "Mismatch for " + loanDetails);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  void testCalculateAmortizationEntryMatchesSchedule() {
+    for (BigDecimal balloonPayment : List.of(BigDecimal.ZERO, BigDecimal.valueOf(50000))) {
+      // Given
+      var loanDetails = new LoanDetails();
+      loanDetails.setLoanAmount(new BigDecimal("254321.37"));
+      loanDetails.setDepositAmount(BigDecimal.valueOf(25000));
+      loanDetails.setInterestRate(new BigDecimal("4.15"));
+      loanDetails.setBalloonPayment(balloonPayment);
+      loanDetails.setMonthlyPayments(360);
+
+      AmortizationSchedule amortizationSchedule = amortizationService
+          .calculateAmortizationSchedule(loanDetails);
+
+      // When / Then
+      for (AmortizationEntry expectedEntry : amortizationSchedule.getAmortizationEntries()) {
+        assertEquals(Optional.of(expectedEntry), amortizationService
+            .calculateAmortizationEntry(loanDetails, expectedEntry.getPeriod()));
+      }
+      assertTrue(amortizationService.calculateAmortizationEntry(loanDetails, 0).isEmpty());
+      assertTrue(amortizationService.calculateAmortizationEntry(loanDetails, 361).isEmpty());
+    }
+  }
+
+  @Test
+  void testCalculateAmortizationEntryAfterScheduleIsPaidOff() {
+    // Given
+    var loanDetails = new LoanDetails();
+    loanDetails.setLoanAmount(BigDecimal.valueOf(20000));
+    loanDetails.setDepositAmount(BigDecimal.valueOf(20000));
+    loanDetails.setInterestRate(BigDecimal.valueOf(7.5));
+    loanDetails.setMonthlyPayments(12);
+
+    // When
+    AmortizationSchedule amortizationSchedule = amortizationService
+        .calculateAmortizationSchedule(loanDetails);
+
+    // Then
+    assertEquals(1, amortizationSchedule.getAmortizationEntries().size());
+    assertEquals(Optional.of(amortizationSchedule.getAmortizationEntries().get(0)),
+        amortizationService.calculateAmortizationEntry(loanDetails, 1));
+    assertTrue(amortizationService.calculateAmortizationEntry(loanDetails, 2).isEmpty());
+  }
+
+  @Test
+  void testCalculateAmortizationSchedulesReportsFailuresPerLoan() {
+    // Given
+    var validLoanDetails = new LoanDetails();
+    validLoanDetails.setLoanAmount(BigDecimal.valueOf(20000));
+    validLoanDetails.setDepositAmount(BigDecimal.ZERO);
+    validLoanDetails.setInterestRate(BigDecimal.valueOf(7.5));
+    validLoanDetails.setMonthlyPayments(12);
+
+    var invalidLoanDetails = new LoanDetails();
+    invalidLoanDetails.setLoanAmount(BigDecimal.valueOf(20000));
+    invalidLoanDetails.setDepositAmount(BigDecimal.ZERO);
+    invalidLoanDetails.setInterestRate(BigDecimal.valueOf(7.5));
+    invalidLoanDetails.setMonthlyPayments(0);
+
+    // When
+    List<BatchCalculationResult> results = amortizationService
+        .calculateAmortizationSchedules(
+            List.of(validLoanDetails, invalidLoanDetails, validLoanDetails));
+
+    // Then
+    assertEquals(3, results.size());
+    for (int i = 0; i < results.size(); i++) {
+      assertEquals(i, results.get(i).getIndex());
+    }
+    assertEquals(amortizationService.calculateAmortizationSchedule(validLoanDetails)
+            .getAmortizationEntries(),
+        results.get(0).getAmortizationSchedule().getAmortizationEntries());
+    assertNull(results.get(0).getError());
+    assertNull(results.get(1).getAmortizationSchedule());
+    assertEquals("Monthly payments must be a positive integer", results.get(1).getError());
+    assertEquals(12, results.get(2).getAmortizationSchedule().getAmortizationEntries().size());
+  }
+
+  @Test
+  void testCalculateAmortizationSchedulesAtMaximumBatchSize() {
+    // Given
+    var loanDetails = new LoanDetails();
+    loanDetails.setLoanAmount(BigDecimal.valueOf(20000));
+    loanDetails.setDepositAmount(BigDecimal.ZERO);
+    loanDetails.setInterestRate(BigDecimal.valueOf(7.5));
+    loanDetails.setMonthlyPayments(360);
+    List<LoanDetails> loanDetailsList = Collections.nCopies(10_000, loanDetails);
+
+    // When
+    List<BatchCalculationResult> results = amortizationService
+        .calculateAmortizationSchedules(loanDetailsList);
+
+    // Then
+    assertEquals(10_000, results.size());
+    assertTrue(results.stream().allMatch(result -> result.getError() == null
+        && result.getAmortizationSchedule().getAmortizationEntries().size() == 360));
+  }
+
+  @Test
+  void testCalculateAmortizationSchedulesRejectsOversizedBatch() {
+    // Given
+    var loanDetails = new LoanDetails();
+    loanDetails.setLoanAmount(BigDecimal.valueOf(20000));
+    loanDetails.setDepositAmount(BigDecimal.ZERO);
+    loanDetails.setInterestRate(BigDecimal.valueOf(7.5));
+    loanDetails.setMonthlyPayments(12);
+    List<LoanDetails> loanDetailsList = Collections.nCopies(10_001, loanDetails);
+
+    // When & Then
+    assertThrows(CalculationTooLargeException.class,
+        () -> amortizationService.calculateAmortizationSchedules(loanDetailsList));
+  }
+
   @Test
   void testListAllAmortizationSchedulesDetails() {
     // Given
@@ -229,4 +390,56 @@ class AmortizationServiceTest {
         actualScheduleDetailsList.get(1).getTotalPaymentsDue());
   }
 
+  @Test
+  void testCreateAmortizationScheduleSummaryMatchesListedDetails() {
+    // Given
+    List<LoanDetails> loans = List.of(
+        createLoanDetails(BigDecimal.valueOf(20000), BigDecimal.valueOf(7.5), null, 12),
+        createLoanDetails(BigDecimal.valueOf(250000), new BigDecimal("4.125"), null, 360),
+        createLoanDetails(BigDecimal.valueOf(20000), BigDecimal.valueOf(7.5),
+            BigDecimal.valueOf(10000), 24),
+        createLoanDetails(new BigDecimal("12345.67"), new BigDecimal("0.5"), null, 7));
+    for (LoanDetails loanDetails : loans) {
+      amortizationService.createAmortizationSchedule(amortizationService
+          .calculateAmortizationSchedule(copy(loanDetails)));
+    }
+    long entryCount = amortizationEntryRepository.count();
+
+    // When
+    List<AmortizationScheduleDetails> summaries = loans.stream()
+        .map(amortizationService::createAmortizationScheduleSummary)
+        .toList();
+
+    // Then
+    List<AmortizationScheduleDetails> listedDetails = amortizationService
+        .listAllAmortizationSchedulesDetails();
+    assertEquals(2 * loans.size(), listedDetails.size());
+    assertEquals(entryCount, amortizationEntryRepository.count());
+    for (int i = 0; i < loans.size(); i++) {
+      AmortizationScheduleDetails materialized = listedDetails.get(i);
+      AmortizationScheduleDetails summary = summaries.get(i);
+      assertEquals(summary.getScheduleId(), listedDetails.get(loans.size() + i).getScheduleId());
+      assertEquals(materialized.getMonthlyRepayment(), summary.getMonthlyRepayment());
+      assertEquals(materialized.getTotalInterestDue(), summary.getTotalInterestDue());
+      assertEquals(materialized.getTotalPaymentsDue(), summary.getTotalPaymentsDue());
+      assertEquals(summary.getTotalPaymentsDue(),
+          listedDetails.get(loans.size() + i).getTotalPaymentsDue());
+    }
+  }
+
+  private static LoanDetails createLoanDetails(BigDecimal loanAmount, BigDecimal interestRate,
+      BigDecimal balloonPayment, int monthlyPayments) {
+    var loanDetails = new LoanDetails();
+    loanDetails.setLoanAmount(loanAmount);
+    loanDetails.setDepositAmount(BigDecimal.valueOf(1000));
+    loanDetails.setInterestRate(interestRate);
+    loanDetails.setBalloonPayment(balloonPayment);
+    loanDetails.setMonthlyPayments(monthlyPayments);
+    return loanDetails;
+  }
+
+  private static LoanDetails copy(LoanDetails loanDetails) {
+    return createLoanDetails(loanDetails.getLoanAmount(), loanDetails.getInterestRate(),
+        loanDetails.getBalloonPayment(), loanDetails.getMonthlyPayments());
+  }
 }
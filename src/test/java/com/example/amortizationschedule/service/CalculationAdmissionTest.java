@@ -0,0 +1,115 @@
+package com.example.amortizationschedule.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.amortizationschedule.config.AmortizationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+
+class CalculationAdmissionTest {
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  void testRequestOverTheRequestBudgetIsTooLarge() {
+    // Given
+    var calculationAdmission = createAdmission(0);
+
+    // When & Then
+    assertThrows(CalculationTooLargeException.class, () -> calculationAdmission.admit(3_001));
+    assertEquals(1, rejections("too_large"));
+  }
+
+  @Test
+  void testRequestIsRejectedWhenTheInFlightBudgetStaysInUse() {
+    // Given
+    var calculationAdmission = createAdmission(1);
+    CalculationAdmission.Permit permit = calculationAdmission.admit(3_000);
+
+    // When & Then
+    assertEquals(3_000, inFlightCost());
+    assertThrows(CalculationCapacityExceededException.class,
+        () -> calculationAdmission.admit(1_001));
+    assertEquals(1, rejections("busy"));
+
+    permit.close();
+    assertEquals(1_000, calculationAdmission.runAdmitted(1_000, this::inFlightCost));
+    assertEquals(0, inFlightCost());
+  }
+
+  @Test
+  void testRequestIsRejectedAtOnceWhenTheQueueIsFull() {
+    // Given
+    var calculationAdmission = createAdmission(0);
+    CalculationAdmission.Permit permit = calculationAdmission.admit(3_000);
+
+    // When & Then
+    assertThrows(CalculationCapacityExceededException.class,
+        () -> calculationAdmission.admit(1_001));
+    assertEquals(0.0, meterRegistry.get(AmortizationMetrics.ADMISSION_QUEUE_GAUGE).gauge().value());
+    permit.close();
+  }
+
+  @Test
+  void testUnboundedRequestWaitsUntilTheBudgetIsFree() throws InterruptedException {
+    // Given
+    var calculationAdmission = createAdmission(0);
+    CalculationAdmission.Permit permit = calculationAdmission.admit(3_000);
+
+    // When
+    CompletableFuture<Double> inFlightCost = CompletableFuture.supplyAsync(() ->
+        calculationAdmission.runAdmitted(1_001, CalculationAdmission.Wait.UNBOUNDED,
+            this::inFlightCost));
+    // Well past the bounded wait of 50 ms
+    Thread.sleep(500);
+
+    // Then
+    assertFalse(inFlightCost.isDone());
+    permit.close();
+    assertEquals(1_001, inFlightCost.join());
+    assertEquals(0, inFlightCost());
+  }
+
+  @Test
+  void testInterruptedWaitIsCancelled() {
+    // Given
+    var calculationAdmission = createAdmission(1);
+    CalculationAdmission.Permit permit = calculationAdmission.admit(3_000);
+
+    // When
+    Thread.currentThread().interrupt();
+
+    // Then
+    assertThrows(CancellationException.class, () -> calculationAdmission.admit(1_001));
+    assertTrue(Thread.interrupted());
+    assertEquals(0.0, meterRegistry.get(AmortizationMetrics.ADMISSION_QUEUE_GAUGE).gauge().value());
+    permit.close();
+  }
+
+  private CalculationAdmission createAdmission(int maxQueued) {
+    var amortizationProperties = new AmortizationProperties();
+    AmortizationProperties.Admission admission = amortizationProperties.getAdmission();
+    admission.setMaxInFlightCost(4_000);
+    admission.setMaxRequestCost(3_000);
+    admission.setMaxQueued(maxQueued);
+    admission.setMaxWait(Duration.ofMillis(50));
+    return new CalculationAdmission(amortizationProperties,
+        new AmortizationMetrics(meterRegistry));
+  }
+
+  private double rejections(String reason) {
+    return meterRegistry.get(AmortizationMetrics.ADMISSION_REJECTION_COUNTER).tag("reason", reason)
+        .counter().count();
+  }
+
+  private double inFlightCost() {
+    return meterRegistry.get(AmortizationMetrics.ADMISSION_IN_FLIGHT_GAUGE).gauge().value();
+  }
+}
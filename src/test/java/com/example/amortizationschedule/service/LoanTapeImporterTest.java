@@ -0,0 +1,110 @@
+package com.example.amortizationschedule.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.example.amortizationschedule.model.ImportReport;
+import com.example.amortizationschedule.model.LoanDetails;
+import com.example.amortizationschedule.repository.AmortizationEntryRepository;
+import com.example.amortizationschedule.repository.AmortizationScheduleRepository;
+import com.example.amortizationschedule.repository.LoanDetailsRepository;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = {"amortization.loan-tape.batch-size=7",
+    "amortization.loan-tape.queue-capacity=4"})
+class LoanTapeImporterTest {
+
+  @TempDir
+  private Path tempDir;
+
+  @Autowired
+  private LoanTapeImporter loanTapeImporter;
+
+  @Autowired
+  private AmortizationScheduleRepository amortizationScheduleRepository;
+
+  @Autowired
+  private AmortizationEntryRepository amortizationEntryRepository;
+
+  @Autowired
+  private LoanDetailsRepository loanDetailsRepository;
+
+  @AfterEach
+  public void tearDown() {
+    amortizationScheduleRepository.deleteAll();
+    loanDetailsRepository.deleteAll();
+    amortizationEntryRepository.deleteAll();
+  }
+
+  @Test
+  void testImportLoanTapeReportsFailedRows() throws IOException {
+    // Given
+    StringBuilder loanTape = new StringBuilder(
+        "loanAmount,depositAmount,interestRate,balloonPayment,monthlyPayments\r\n");
+    for (int i = 0; i < 40; i++) {
+      loanTape.append(20000 + i).append(",2000,6.5,,").append(12 + i).append("\r\n");
+    }
+    loanTape.append("25000,abc,6.5,,24\r\n");
+    loanTape.append("25000,2000,6.5,,0\r\n");
+    loanTape.append("\r\n");
+    loanTape.append("25000,2000,6.5,10000,24");
+    Path file = Files.writeString(tempDir.resolve("loans.csv"), loanTape);
+
+    // When
+    ImportReport importReport = loanTapeImporter.importLoanTape(file);
+
+    // Then
+    assertEquals(43, importReport.getRowsRead());
+    assertEquals(41, importReport.getSchedulesCreated());
+    assertEquals(2, importReport.getRowsFailed());
+    assertEquals(42, importReport.getErrors().get(0).getLine());
+    assertEquals("Invalid depositAmount 'abc'", importReport.getErrors().get(0).getMessage());
+    assertEquals(43, importReport.getErrors().get(1).getLine());
+    assertEquals("Monthly payments must be a positive integer",
+        importReport.getErrors().get(1).getMessage());
+    assertEquals(41, amortizationScheduleRepository.count());
+    assertEquals(40 * 12 + 40 * 39 / 2 + 24, amortizationEntryRepository.count());
+  }
+
+  @Test
+  void testReaderContinuesRowsAcrossMappedRegions() throws IOException, InterruptedException {
+    // Given
+    Path file = Files.writeString(tempDir.resolve("loans.csv"),
+        "monthlyPayments,interestRate,loanAmount,notes\n"
+            + "360,5.125,250000.50,first\n"
+            + "12,0.05,1000,second\n");
+    List<LoanDetails> loans = new ArrayList<>();
+
+    // When
+    long rows = new LoanTapeReader(file, 48).read(new LoanTapeReader.RowHandler() {
+      @Override
+      public void loan(long line, LoanDetails loanDetails) {
+        loans.add(loanDetails);
+      }
+
+      @Override
+      public void error(long line, String message) {
+        throw new AssertionError(message);
+      }
+    });
+
+    // Then
+    assertEquals(2, rows);
+    assertEquals(new BigDecimal("250000.50"), loans.get(0).getLoanAmount());
+    assertEquals(new BigDecimal("5.125"), loans.get(0).getInterestRate());
+    assertEquals(BigDecimal.ZERO, loans.get(0).getDepositAmount());
+    assertNull(loans.get(0).getBalloonPayment());
+    assertEquals(360, loans.get(0).getMonthlyPayments());
+    assertEquals(new BigDecimal("0.05"), loans.get(1).getInterestRate());
+  }
+}
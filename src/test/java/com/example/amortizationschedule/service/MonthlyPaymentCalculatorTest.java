@@ -0,0 +1,123 @@
+package com.example.amortizationschedule.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.example.amortizationschedule.config.AmortizationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class MonthlyPaymentCalculatorTest {
+
+  private final MonthlyPaymentCalculator boundedCalculator = new MonthlyPaymentCalculator(
+      new MathContext(34, RoundingMode.HALF_EVEN));
+
+  private final MonthlyPaymentCalculator exactCalculator = new MonthlyPaymentCalculator(
+      MathContext.UNLIMITED);
+
+  @Test
+  void testMonthlyInterestRate() {
+    assertEquals(new BigDecimal("0.00625"),
+        boundedCalculator.calculateMonthlyInterestRate(BigDecimal.valueOf(7.5)));
+    assertEquals(new BigDecimal("0.00542"),
+        boundedCalculator.calculateMonthlyInterestRate(BigDecimal.valueOf(6.5)));
+  }
+
+  @Test
+  void testBoundedPrecisionMatchesExactPayment() {
+    List<BigDecimal> loanAmounts = List.of(new BigDecimal("5000.00"), BigDecimal.valueOf(20000),
+        new BigDecimal("254321.37"), new BigDecimal("7500000"));
+    List<Integer> terms = List.of(1, 2, 6, 12, 24, 36, 48, 60, 84, 120, 180, 240, 300, 360, 420,
+        480);
+
+    for (BigDecimal loanAmount : loanAmounts) {
+      for (int rateInBasisPoints = 1; rateInBasisPoints <= 3000; rateInBasisPoints += 37) {
+        BigDecimal monthlyInterestRate = boundedCalculator
+            .calculateMonthlyInterestRate(BigDecimal.valueOf(rateInBasisPoints, 2));
+        for (int term : terms) {
+          for (BigDecimal balloonPayment : List.of(BigDecimal.ZERO,
+              loanAmount.divide(BigDecimal.valueOf(4)))) {
+            // When
+            BigDecimal expectedMonthlyPayment = exactCalculator
+                .calculateMonthlyPayment(balloonPayment, loanAmount, monthlyInterestRate, term);
+            BigDecimal actualMonthlyPayment = boundedCalculator
+                .calculateMonthlyPayment(balloonPayment, loanAmount, monthlyInterestRate, term);
+
+            // Then
+            assertEquals(expectedMonthlyPayment.setScale(2, RoundingMode.HALF_UP),
+                actualMonthlyPayment.setScale(2, RoundingMode.HALF_UP));
+            assertEquals(expectedMonthlyPayment, actualMonthlyPayment);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  void testIncrementalAnnuityFactorsMatchExactPayment() {
+    List<BigDecimal> loanAmounts = List.of(new BigDecimal("5000.00"), BigDecimal.valueOf(20000),
+        new BigDecimal("254321.37"), new BigDecimal("7500000"));
+    int[] terms = {480, 1, 2, 6, 12, 24, 36, 48, 60, 84, 120, 180, 240, 300, 360, 420};
+
+    for (BigDecimal loanAmount : loanAmounts) {
+      for (int rateInBasisPoints = 1; rateInBasisPoints <= 3000; rateInBasisPoints += 37) {
+        BigDecimal monthlyInterestRate = boundedCalculator
+            .calculateMonthlyInterestRate(BigDecimal.valueOf(rateInBasisPoints, 2));
+
+        // When
+        BigDecimal[] factors = boundedCalculator.calculateAnnuityFactors(monthlyInterestRate,
+            terms);
+
+        // Then
+        for (int i = 0; i < terms.length; i++) {
+          for (BigDecimal balloonPayment : List.of(BigDecimal.ZERO,
+              loanAmount.divide(BigDecimal.valueOf(4)))) {
+            assertEquals(exactCalculator.calculateMonthlyPayment(balloonPayment, loanAmount,
+                    monthlyInterestRate, terms[i]),
+                boundedCalculator.calculateMonthlyPayment(balloonPayment, loanAmount,
+                    monthlyInterestRate, factors[i]));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  void testCachedAnnuityFactorsGiveTheSamePayments() {
+    // Given
+    var meterRegistry = new SimpleMeterRegistry();
+    var amortizationProperties = new AmortizationProperties();
+    AmortizationProperties.AnnuityFactors annuityFactors = amortizationProperties
+        .getAnnuityFactors();
+    annuityFactors.setWarmUpInterestRates(
+        List.of(BigDecimal.valueOf(4.5), BigDecimal.valueOf(6.5)));
+    annuityFactors.setWarmUpTerms(List.of(120, 360));
+    var cachedCalculator = new MonthlyPaymentCalculator(amortizationProperties,
+        new AmortizationMetrics(meterRegistry));
+    BigDecimal loanAmount = new BigDecimal("254321.37");
+
+    for (BigDecimal interestRate : List.of(BigDecimal.valueOf(4.5), BigDecimal.valueOf(7.5))) {
+      BigDecimal monthlyInterestRate = cachedCalculator.calculateMonthlyInterestRate(interestRate);
+      for (int term : List.of(120, 240, 120)) {
+        for (BigDecimal balloonPayment : List.of(BigDecimal.ZERO, BigDecimal.valueOf(50000))) {
+          // When & Then
+          assertEquals(boundedCalculator.calculateMonthlyPayment(balloonPayment, loanAmount,
+                  monthlyInterestRate, term),
+              cachedCalculator.calculateMonthlyPayment(balloonPayment, loanAmount,
+                  monthlyInterestRate, term));
+        }
+      }
+    }
+
+    // The warmed up 4.5% for 120 months always hits, the other three pairs miss once each
+    assertEquals(9.0, meterRegistry.get("cache.gets").tag("cache", "amortization.annuity.factors")
+        .tag("result", "hit").functionCounter().count());
+    assertEquals(3.0, meterRegistry.get("cache.gets").tag("cache", "amortization.annuity.factors")
+        .tag("result", "miss").functionCounter().count());
+    assertEquals(0.75, meterRegistry.get(AmortizationMetrics.ANNUITY_FACTOR_HIT_RATE_GAUGE)
+        .gauge().value());
+  }
+}
@@ -0,0 +1,243 @@
+package com.example.amortizationschedule.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.amortizationschedule.config.AmortizationProperties;
+import com.example.amortizationschedule.model.AmortizationEntry;
+import com.example.amortizationschedule.model.AmortizationSchedule;
+import com.example.amortizationschedule.model.AmortizationScheduleDetails;
+import com.example.amortizationschedule.model.LoanDetails;
+import com.example.amortizationschedule.model.StorageMode;
+import com.example.amortizationschedule.repository.AmortizationEntryRepository;
+import com.example.amortizationschedule.repository.AmortizationScheduleRepository;
+import com.example.amortizationschedule.repository.LoanDetailsRepository;
+import com.example.amortizationschedule.repository.PackedAmortizationEntriesRepository;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// H2 only reports the space a table uses for a database in a store, so the database is kept in
+// an in-memory file system rather than in plain memory
+@SpringBootTest(properties = {"amortization.storage.mode=PACKED",
+    "spring.datasource.url=jdbc:h2:memFS:packed-storage;DB_CLOSE_ON_EXIT=FALSE"})
+class PackedStorageTest {
+
+  // Enough schedules that the space freed by earlier tests does not sway the measurement
+  private static final int FOOTPRINT_SCHEDULES = 20;
+
+  @Autowired
+  private AmortizationService amortizationService;
+
+  @Autowired
+  private PackedStorageMigration packedStorageMigration;
+
+  @Autowired
+  private AmortizationProperties amortizationProperties;
+
+  @Autowired
+  private AmortizationScheduleRepository amortizationScheduleRepository;
+
+  @Autowired
+  private AmortizationEntryRepository amortizationEntryRepository;
+
+  @Autowired
+  private PackedAmortizationEntriesRepository packedAmortizationEntriesRepository;
+
+  @Autowired
+  private LoanDetailsRepository loanDetailsRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @AfterEach
+  public void tearDown() {
+    amortizationProperties.getStorage().setMode(StorageMode.PACKED);
+    amortizationScheduleRepository.deleteAll();
+    loanDetailsRepository.deleteAll();
+    amortizationEntryRepository.deleteAll();
+    packedAmortizationEntriesRepository.deleteAll();
+  }
+
+  @Test
+  void testPackedEntryCodecRoundTrip() {
+    // Given
+    List<AmortizationEntry> amortizationEntries = amortizationService
+        .calculateAmortizationSchedule(createLoanDetails(BigDecimal.valueOf(20000)))
+        .getAmortizationEntries();
+
+    // When
+    byte[] packedEntries = PackedEntryCodec.encode(amortizationEntries);
+
+    // Then
+    assertEquals(amortizationEntries.size(), PackedEntryCodec.entryCount(packedEntries));
+    assertEntriesEqual(amortizationEntries, new PackedAmortizationEntryList(packedEntries));
+  }
+
+  @Test
+  void testFindPackedAmortizationSchedule() {
+    // Given
+    AmortizationSchedule amortizationSchedule = amortizationService
+        .calculateAmortizationSchedule(createLoanDetails(BigDecimal.valueOf(300000)));
+    List<AmortizationEntry> expectedEntries = List.copyOf(
+        amortizationSchedule.getAmortizationEntries());
+
+    // When
+    AmortizationSchedule createdSchedule = amortizationService
+        .createAmortizationSchedule(amortizationSchedule);
+    AmortizationSchedule foundSchedule = amortizationService
+        .findAmortizationSchedule(createdSchedule.getId())
+        .orElseThrow();
+
+    // Then
+    assertEquals(0, amortizationEntryRepository.count());
+    assertEquals(StorageMode.PACKED, foundSchedule.getStorageMode());
+    assertEquals(createdSchedule.getLoanDetails().getLoanId(),
+        foundSchedule.getLoanDetails().getLoanId());
+    assertEntriesEqual(expectedEntries, foundSchedule.getAmortizationEntries());
+  }
+
+  @Test
+  void testListAllPackedAmortizationSchedulesDetails() {
+    // Given
+    AmortizationSchedule amortizationSchedule = amortizationService
+        .calculateAmortizationSchedule(createLoanDetails(BigDecimal.valueOf(300000)));
+    amortizationService.createAmortizationSchedule(amortizationSchedule);
+
+    // When
+    List<AmortizationScheduleDetails> scheduleDetailsList = amortizationService
+        .listAllAmortizationSchedulesDetails();
+
+    // Then
+    assertEquals(1, scheduleDetailsList.size());
+    AmortizationScheduleDetails scheduleDetails = scheduleDetailsList.get(0);
+    List<AmortizationEntry> amortizationEntries = amortizationSchedule.getAmortizationEntries();
+    assertEquals(amortizationEntries.get(0).getMonthlyPayment(),
+        scheduleDetails.getMonthlyRepayment());
+    assertEquals(amortizationEntries.stream()
+            .map(AmortizationEntry::getInterestPayment)
+            .reduce(BigDecimal.ZERO, BigDecimal::add),
+        scheduleDetails.getTotalInterestDue());
+    assertEquals(amortizationEntries.stream()
+            .map(AmortizationEntry::getMonthlyPayment)
+            .reduce(BigDecimal.ZERO, BigDecimal::add),
+        scheduleDetails.getTotalPaymentsDue());
+  }
+
+  @Test
+  void testStreamPackedAmortizationEntries() {
+    // Given
+    AmortizationSchedule amortizationSchedule = amortizationService
+        .calculateAmortizationSchedule(createLoanDetails(BigDecimal.valueOf(300000)));
+    List<AmortizationEntry> expectedEntries = List.copyOf(
+        amortizationSchedule.getAmortizationEntries());
+    Long scheduleId = amortizationService.createAmortizationSchedule(amortizationSchedule).getId();
+
+    // When
+    List<AmortizationEntry> streamedEntries = new ArrayList<>();
+    amortizationService.streamAmortizationEntries(scheduleId, streamedEntries::add);
+
+    // Then
+    assertEntriesEqual(expectedEntries, streamedEntries);
+  }
+
+  @Test
+  void testPackedEntriesFootprint() {
+    // Given
+    long rowBytesBefore = rowStorageBytes();
+    long packedBytesBefore = packedStorageBytes();
+    amortizationProperties.getStorage().setMode(StorageMode.ROWS);
+    createSchedules(FOOTPRINT_SCHEDULES);
+    amortizationProperties.getStorage().setMode(StorageMode.PACKED);
+
+    // When
+    createSchedules(FOOTPRINT_SCHEDULES);
+
+    // Then
+    long rowBytes = rowStorageBytes() - rowBytesBefore;
+    long packedBytes = packedStorageBytes() - packedBytesBefore;
+    assertEquals(FOOTPRINT_SCHEDULES, packedAmortizationEntriesRepository.count());
+    assertTrue(packedBytes * 3 < rowBytes,
+        () -> "Expected under a third of " + rowBytes + " bytes, but was " + packedBytes);
+  }
+
+  @Test
+  void testMigrateRowSchedulesToPackedStorage() {
+    // Given
+    amortizationProperties.getStorage().setMode(StorageMode.ROWS);
+    AmortizationSchedule amortizationSchedule = amortizationService
+        .calculateAmortizationSchedule(createLoanDetails(BigDecimal.valueOf(300000)));
+    List<AmortizationEntry> expectedEntries = new ArrayList<>(
+        amortizationSchedule.getAmortizationEntries());
+    Long scheduleId = amortizationService.createAmortizationSchedule(amortizationSchedule).getId();
+    amortizationProperties.getStorage().setMode(StorageMode.PACKED);
+
+    // When
+    int migrated = packedStorageMigration.migrate();
+
+    // Then
+    assertEquals(1, migrated);
+    assertEquals(0, amortizationEntryRepository.count());
+    assertEquals(0, packedStorageMigration.migrate());
+    assertEntriesEqual(expectedEntries, amortizationService.findAmortizationSchedule(scheduleId)
+        .orElseThrow()
+        .getAmortizationEntries());
+  }
+
+  private void createSchedules(int count) {
+    for (int i = 0; i < count; i++) {
+      amortizationService.createAmortizationSchedule(amortizationService
+          .calculateAmortizationSchedule(createLoanDetails(BigDecimal.valueOf(300000 + i))));
+    }
+  }
+
+  /**
+   * Measures the space H2 uses for the entry rows of schedules stored as rows and their join rows.
+   */
+  private long rowStorageBytes() {
+    return diskSpaceUsed("AMORTIZATION_ENTRY")
+        + diskSpaceUsed("AMORTIZATION_SCHEDULE_AMORTIZATION_ENTRIES");
+  }
+
+  /**
+   * Measures the space H2 uses for packed entries. H2 keeps blobs apart from the rows of their
+   * table, so the blobs are counted at their length.
+   */
+  private long packedStorageBytes() {
+    return diskSpaceUsed("PACKED_AMORTIZATION_ENTRIES") + jdbcTemplate.queryForObject(
+        "select coalesce(sum(octet_length(entries)), 0) from packed_amortization_entries",
+        Long.class);
+  }
+
+  private long diskSpaceUsed(String tableName) {
+    return jdbcTemplate.queryForObject("select disk_space_used(?)", Long.class, tableName);
+  }
+
+  private static LoanDetails createLoanDetails(BigDecimal loanAmount) {
+    var loanDetails = new LoanDetails();
+    loanDetails.setLoanAmount(loanAmount);
+    loanDetails.setDepositAmount(loanAmount.divide(BigDecimal.TEN));
+    loanDetails.setInterestRate(BigDecimal.valueOf(4.5));
+    loanDetails.setMonthlyPayments(360);
+    return loanDetails;
+  }
+
+  private static void assertEntriesEqual(List<AmortizationEntry> expectedEntries,
+      List<AmortizationEntry> actualEntries) {
+    assertEquals(expectedEntries.size(), actualEntries.size());
+    for (int i = 0; i < expectedEntries.size(); i++) {
+      AmortizationEntry expected = expectedEntries.get(i);
+      AmortizationEntry actual = actualEntries.get(i);
+      assertEquals(expected.getPeriod(), actual.getPeriod());
+      assertEquals(expected.getMonthlyPayment(), actual.getMonthlyPayment());
+      assertEquals(expected.getInterestPayment(), actual.getInterestPayment());
+      assertEquals(expected.getPrincipalPayment(), actual.getPrincipalPayment());
+      assertEquals(expected.getRemainingBalance(), actual.getRemainingBalance());
+    }
+  }
+}
@@ -0,0 +1,200 @@
+package com.example.amortizationschedule.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.example.amortizationschedule.config.AmortizationProperties;
+import com.example.amortizationschedule.model.AmortizationEntry;
+import com.example.amortizationschedule.model.AmortizationSchedule;
+import com.example.amortizationschedule.model.LoanDetails;
+import com.example.amortizationschedule.model.PortfolioCashFlow;
+import com.example.amortizationschedule.model.PortfolioFilter;
+import com.example.amortizationschedule.model.PortfolioPeriod;
+import com.example.amortizationschedule.model.StorageMode;
+import com.example.amortizationschedule.repository.AmortizationEntryRepository;
+import com.example.amortizationschedule.repository.AmortizationScheduleRepository;
+import com.example.amortizationschedule.repository.LoanDetailsRepository;
+import com.example.amortizationschedule.repository.PackedAmortizationEntriesRepository;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = {"amortization.portfolio.page-size=2",
+    "amortization.batch.parallelism=2"})
+class PortfolioServiceTest {
+
+  @Autowired
+  private PortfolioService portfolioService;
+
+  @Autowired
+  private AmortizationService amortizationService;
+
+  @Autowired
+  private AmortizationProperties amortizationProperties;
+
+  @Autowired
+  private AmortizationScheduleRepository amortizationScheduleRepository;
+
+  @Autowired
+  private AmortizationEntryRepository amortizationEntryRepository;
+
+  @Autowired
+  private PackedAmortizationEntriesRepository packedAmortizationEntriesRepository;
+
+  @Autowired
+  private LoanDetailsRepository loanDetailsRepository;
+
+  @AfterEach
+  public void tearDown() {
+    amortizationProperties.getStorage().setMode(StorageMode.ROWS);
+    amortizationScheduleRepository.deleteAll();
+    loanDetailsRepository.deleteAll();
+    amortizationEntryRepository.deleteAll();
+    packedAmortizationEntriesRepository.deleteAll();
+  }
+
+  @Test
+  void testAggregateCashFlowAcrossStorageModes() {
+    // Given
+    List<AmortizationSchedule> amortizationSchedules = new ArrayList<>();
+    amortizationSchedules.add(createSchedule(StorageMode.ROWS, BigDecimal.valueOf(20000), 12));
+    amortizationSchedules.add(createSchedule(StorageMode.PACKED, BigDecimal.valueOf(35000), 24));
+    amortizationSchedules.add(createSchedule(StorageMode.RECOMPUTE, BigDecimal.valueOf(50000), 18));
+    amortizationSchedules.add(createSchedule(StorageMode.ROWS, BigDecimal.valueOf(75000), 24));
+    amortizationSchedules.add(createSchedule(StorageMode.PACKED, BigDecimal.valueOf(90000), 6));
+
+    // When
+    PortfolioCashFlow portfolioCashFlow = portfolioService.aggregateCashFlow(new PortfolioFilter());
+
+    // Then
+    assertEquals(5, portfolioCashFlow.getLoanCount());
+    assertCashFlowEquals(amortizationSchedules, portfolioCashFlow);
+  }
+
+  @Test
+  void testAggregateCashFlowOfFilteredLoans() {
+    // Given
+    createSchedule(StorageMode.ROWS, BigDecimal.valueOf(20000), 12);
+    AmortizationSchedule packedSchedule = createSchedule(StorageMode.PACKED,
+        BigDecimal.valueOf(35000), 24);
+    AmortizationSchedule rowsSchedule = createSchedule(StorageMode.ROWS,
+        BigDecimal.valueOf(75000), 24);
+    createSchedule(StorageMode.ROWS, BigDecimal.valueOf(90000), 24);
+    var portfolioFilter = new PortfolioFilter();
+    portfolioFilter.setMinLoanAmount(BigDecimal.valueOf(30000));
+    portfolioFilter.setMaxLoanAmount(BigDecimal.valueOf(80000));
+    portfolioFilter.setMonthlyPayments(24);
+
+    // When
+    PortfolioCashFlow portfolioCashFlow = portfolioService.aggregateCashFlow(portfolioFilter);
+
+    // Then
+    assertEquals(2, portfolioCashFlow.getLoanCount());
+    assertCashFlowEquals(List.of(packedSchedule, rowsSchedule), portfolioCashFlow);
+  }
+
+  @Test
+  void testAggregateCashFlowOfEntryRowsInPartitions() {
+    // Given
+    // Every page holds two schedules stored as rows, which are read by two partitions
+    List<AmortizationSchedule> amortizationSchedules = new ArrayList<>();
+    amortizationSchedules.add(createSchedule(StorageMode.ROWS, BigDecimal.valueOf(20000), 12));
+    amortizationSchedules.add(createSchedule(StorageMode.ROWS, BigDecimal.valueOf(35000), 24));
+    amortizationSchedules.add(createSchedule(StorageMode.ROWS, BigDecimal.valueOf(50000), 18));
+    amortizationSchedules.add(createSchedule(StorageMode.ROWS, BigDecimal.valueOf(75000), 6));
+
+    // When
+    PortfolioCashFlow portfolioCashFlow = portfolioService.aggregateCashFlow(new PortfolioFilter());
+
+    // Then
+    assertEquals(4, portfolioCashFlow.getLoanCount());
+    assertCashFlowEquals(amortizationSchedules, portfolioCashFlow);
+  }
+
+  @Test
+  void testAggregateCashFlowReadsEntryRowsAsStored() {
+    // Given
+    AmortizationSchedule rowsSchedule = createSchedule(StorageMode.ROWS,
+        BigDecimal.valueOf(20000), 12);
+    AmortizationEntry storedEntry = amortizationEntryRepository
+        .findById(rowsSchedule.getAmortizationEntries().get(0).getId())
+        .orElseThrow();
+    storedEntry.setInterestPayment(storedEntry.getInterestPayment().add(BigDecimal.ONE));
+    amortizationEntryRepository.save(storedEntry);
+    rowsSchedule.getAmortizationEntries().set(0, storedEntry);
+
+    // When
+    PortfolioCashFlow portfolioCashFlow = portfolioService.aggregateCashFlow(new PortfolioFilter());
+
+    // Then
+    assertCashFlowEquals(List.of(rowsSchedule), portfolioCashFlow);
+  }
+
+  @Test
+  void testAggregateCashFlowSkipsScheduleOfAnotherEngineVersion() {
+    // Given
+    AmortizationSchedule staleSchedule = createSchedule(StorageMode.RECOMPUTE,
+        BigDecimal.valueOf(50000), 18);
+    AmortizationSchedule storedSchedule = amortizationScheduleRepository
+        .findById(staleSchedule.getId())
+        .orElseThrow();
+    storedSchedule.setEngineVersion(AmortizationServiceImpl.ENGINE_VERSION + 1);
+    amortizationScheduleRepository.save(storedSchedule);
+    AmortizationSchedule rowsSchedule = createSchedule(StorageMode.ROWS,
+        BigDecimal.valueOf(20000), 12);
+
+    // When
+    PortfolioCashFlow portfolioCashFlow = portfolioService.aggregateCashFlow(new PortfolioFilter());
+
+    // Then
+    assertEquals(2, portfolioCashFlow.getLoanCount());
+    assertEquals(1, portfolioCashFlow.getSkippedLoanCount());
+    assertCashFlowEquals(List.of(rowsSchedule), portfolioCashFlow);
+  }
+
+  private AmortizationSchedule createSchedule(StorageMode storageMode, BigDecimal loanAmount,
+      int monthlyPayments) {
+    amortizationProperties.getStorage().setMode(storageMode);
+    var loanDetails = new LoanDetails();
+    loanDetails.setLoanAmount(loanAmount);
+    loanDetails.setDepositAmount(BigDecimal.valueOf(2000));
+    loanDetails.setInterestRate(BigDecimal.valueOf(6.5));
+    loanDetails.setMonthlyPayments(monthlyPayments);
+    return amortizationService.createAmortizationSchedule(
+        amortizationService.calculateAmortizationSchedule(loanDetails));
+  }
+
+  private static void assertCashFlowEquals(List<AmortizationSchedule> amortizationSchedules,
+      PortfolioCashFlow portfolioCashFlow) {
+    int lastPeriod = amortizationSchedules.stream()
+        .mapToInt(schedule -> schedule.getAmortizationEntries().size())
+        .max()
+        .orElse(0);
+    assertEquals(lastPeriod, portfolioCashFlow.getPeriods().size());
+
+    for (PortfolioPeriod portfolioPeriod : portfolioCashFlow.getPeriods()) {
+      List<AmortizationEntry> entries = amortizationSchedules.stream()
+          .flatMap(schedule -> schedule.getAmortizationEntries().stream())
+          .filter(entry -> entry.getPeriod() == portfolioPeriod.getPeriod())
+          .toList();
+      assertEquals(entries.size(), portfolioPeriod.getLoanCount());
+      assertEquals(sum(entries, AmortizationEntry::getMonthlyPayment),
+          portfolioPeriod.getMonthlyPayment());
+      assertEquals(sum(entries, AmortizationEntry::getInterestPayment),
+          portfolioPeriod.getInterestPayment());
+      assertEquals(sum(entries, AmortizationEntry::getPrincipalPayment),
+          portfolioPeriod.getPrincipalPayment());
+      assertEquals(sum(entries, AmortizationEntry::getRemainingBalance),
+          portfolioPeriod.getRemainingBalance());
+    }
+  }
+
+  private static BigDecimal sum(List<AmortizationEntry> entries,
+      Function<AmortizationEntry, BigDecimal> amount) {
+    return entries.stream().map(amount).reduce(BigDecimal.ZERO.setScale(2), BigDecimal::add);
+  }
+}
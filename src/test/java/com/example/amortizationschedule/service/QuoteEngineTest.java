@@ -0,0 +1,138 @@
+package com.example.amortizationschedule.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.amortizationschedule.model.AmortizationScheduleDetails;
+import com.example.amortizationschedule.model.LoanDetails;
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Runs with the {@code jdk.incubator.vector} module added, in the {@code vectorTest} task.
+ */
+@Tag("vector")
+@SpringBootTest
+class QuoteEngineTest {
+
+  private static final double[] BALANCES = {3000, 18000, 254321.37, 7500000};
+  private static final double[] INTEREST_RATES = {0.06, 0.5, 2.375, 4.5, 6.5, 7.5, 12.99, 29.9};
+  private static final double[] TERMS = {1, 2, 7, 12, 36, 60, 120, 241, 360, 480};
+
+  @Autowired
+  private QuoteEngine quoteEngine;
+
+  @Autowired
+  private AmortizationService amortizationService;
+
+  @Test
+  void testQuotesAreWithinTheErrorBoundOfSchedules() {
+    // Given
+    int length = BALANCES.length * INTEREST_RATES.length * TERMS.length;
+    double[] balances = new double[length];
+    double[] interestRates = new double[length];
+    double[] terms = new double[length];
+    int candidate = 0;
+    for (double balance : BALANCES) {
+      for (double interestRate : INTEREST_RATES) {
+        for (double term : TERMS) {
+          balances[candidate] = balance;
+          interestRates[candidate] = interestRate;
+          terms[candidate] = term;
+          candidate++;
+        }
+      }
+    }
+    double[] monthlyRepayments = new double[length];
+    double[] totalInterestDue = new double[length];
+
+    // When
+    quoteEngine.quote(balances, interestRates, terms, monthlyRepayments, totalInterestDue);
+
+    // Then
+    for (int i = 0; i < length; i++) {
+      AmortizationScheduleDetails scheduleDetails = amortizationService
+          .calculateAmortizationScheduleDetails(createLoanDetails(balances[i], interestRates[i],
+              (int) terms[i]));
+      double monthlyRepayment = scheduleDetails.getMonthlyRepayment().doubleValue();
+      double repaymentBound = 3e-10 * monthlyRepayment + 0.005;
+      assertEquals(monthlyRepayment, monthlyRepayments[i], repaymentBound);
+      assertEquals(scheduleDetails.getTotalInterestDue().doubleValue(), totalInterestDue[i],
+          terms[i] * repaymentBound);
+    }
+  }
+
+  @Test
+  void testVectorizedQuotesMatchScalarQuotes() {
+    // Given
+    int length = 1_003;
+    double[] balances = new double[length];
+    double[] interestRates = new double[length];
+    double[] terms = new double[length];
+    for (int i = 0; i < length; i++) {
+      balances[i] = BALANCES[i % BALANCES.length];
+      interestRates[i] = i % 97 == 0 ? 0 : INTEREST_RATES[i % INTEREST_RATES.length];
+      terms[i] = 1 + i % 480;
+    }
+    double[] vectorRepayments = new double[length];
+    double[] vectorInterest = new double[length];
+    double[] scalarRepayments = new double[length];
+    double[] scalarInterest = new double[length];
+
+    // When
+    quoteEngine.quote(balances, interestRates, terms, vectorRepayments, vectorInterest);
+    new QuoteEngine(false).quote(balances, interestRates, terms, scalarRepayments,
+        scalarInterest);
+
+    // Then
+    for (int i = 0; i < length; i++) {
+      assertEquals(scalarRepayments[i], vectorRepayments[i], 1e-12 * scalarRepayments[i]);
+      assertEquals(scalarInterest[i], vectorInterest[i], 1e-12 * scalarRepayments[i] * terms[i]);
+    }
+    assertEquals(balances[0] / terms[0], scalarRepayments[0]);
+    assertEquals(0.0, scalarInterest[0]);
+  }
+
+  @Test
+  void testQuoteUsesTheVectorApiWhenItIsAvailable() {
+    // The tests run with the jdk.incubator.vector module added
+    assertTrue(quoteEngine.isVectorized());
+  }
+
+  @Test
+  void testArraysOfDifferentLengthsAreRejected() {
+    // When & Then
+    assertThrows(IllegalArgumentException.class, () -> quoteEngine.quote(new double[2],
+        new double[2], new double[1], new double[2], new double[2]));
+  }
+
+  @Test
+  void testOverflowingFactorQuotesInterestOnly() {
+    // Given
+    double[] monthlyRepayments = new double[1];
+    double[] totalInterestDue = new double[1];
+
+    // When
+    quoteEngine.quote(new double[] {120000}, new double[] {24}, new double[] {1_000_000},
+        monthlyRepayments, totalInterestDue);
+
+    // Then
+    assertArrayEquals(new double[] {2400}, monthlyRepayments);
+    assertEquals(2400.0 * 1_000_000 - 120000, totalInterestDue[0]);
+  }
+
+  private static LoanDetails createLoanDetails(double balance, double interestRate,
+      int monthlyPayments) {
+    var loanDetails = new LoanDetails();
+    loanDetails.setLoanAmount(BigDecimal.valueOf(balance));
+    loanDetails.setDepositAmount(BigDecimal.ZERO);
+    loanDetails.setInterestRate(BigDecimal.valueOf(interestRate));
+    loanDetails.setMonthlyPayments(monthlyPayments);
+    return loanDetails;
+  }
+}
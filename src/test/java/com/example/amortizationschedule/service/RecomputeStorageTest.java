@@ -0,0 +1,276 @@
+package com.example.amortizationschedule.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example.amortizationschedule.model.AmortizationEntry;
+import com.example.amortizationschedule.model.AmortizationSchedule;
+import com.example.amortizationschedule.model.AmortizationScheduleDetails;
+import com.example.amortizationschedule.model.LoanDetails;
+import com.example.amortizationschedule.model.StorageMode;
+import com.example.amortizationschedule.repository.AmortizationEntryRepository;
+import com.example.amortizationschedule.repository.AmortizationScheduleRepository;
+import com.example.amortizationschedule.repository.LoanDetailsRepository;
+import com.example.amortizationschedule.repository.PackedAmortizationEntriesRepository;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = "amortization.storage.mode=RECOMPUTE")
+class RecomputeStorageTest {
+
+  @Autowired
+  private AmortizationService amortizationService;
+
+  @Autowired
+  private ScheduleCache scheduleCache;
+
+  @Autowired
+  private AmortizationScheduleRepository amortizationScheduleRepository;
+
+  @Autowired
+  private AmortizationEntryRepository amortizationEntryRepository;
+
+  @Autowired
+  private PackedAmortizationEntriesRepository packedAmortizationEntriesRepository;
+
+  @Autowired
+  private LoanDetailsRepository loanDetailsRepository;
+
+  @AfterEach
+  public void tearDown() {
+    amortizationScheduleRepository.deleteAll();
+    loanDetailsRepository.deleteAll();
+    scheduleCache.clear();
+  }
+
+  @Test
+  void testCreateStoresOnlyLoanDetailsAndEngineVersion() {
+    // Given
+    AmortizationSchedule amortizationSchedule = amortizationService
+        .calculateAmortizationSchedule(createLoanDetails());
+
+    // When
+    AmortizationSchedule createdSchedule = amortizationService
+        .createAmortizationSchedule(amortizationSchedule);
+
+    // Then
+    AmortizationSchedule storedSchedule = amortizationScheduleRepository
+        .findById(createdSchedule.getId())
+        .orElseThrow();
+    assertEquals(0, amortizationEntryRepository.count());
+    assertEquals(0, packedAmortizationEntriesRepository.count());
+    assertEquals(0, storedSchedule.getAmortizationEntries().size());
+    assertEquals(StorageMode.RECOMPUTE, storedSchedule.getStorageMode());
+    assertEquals(AmortizationServiceImpl.ENGINE_VERSION, storedSchedule.getEngineVersion());
+    assertEquals(34, storedSchedule.getPaymentPrecision());
+  }
+
+  @Test
+  void testFindRecomputedAmortizationSchedule() {
+    // Given
+    AmortizationSchedule amortizationSchedule = amortizationService
+        .calculateAmortizationSchedule(createLoanDetails());
+    List<AmortizationEntry> expectedEntries = List.copyOf(
+        amortizationSchedule.getAmortizationEntries());
+    Long scheduleId = amortizationService.createAmortizationSchedule(amortizationSchedule).getId();
+    scheduleCache.clear();
+    long hitCount = scheduleCache.getStatistics().getHitCount();
+
+    // When
+    List<AmortizationEntry> recalculatedEntries = amortizationService
+        .findAmortizationSchedule(scheduleId)
+        .orElseThrow()
+        .getAmortizationEntries();
+    List<AmortizationEntry> cachedEntries = amortizationService
+        .findAmortizationSchedule(scheduleId)
+        .orElseThrow()
+        .getAmortizationEntries();
+
+    // Then
+    assertEquals(expectedEntries, recalculatedEntries);
+    assertEquals(expectedEntries, cachedEntries);
+    assertEquals(hitCount + 1, scheduleCache.getStatistics().getHitCount());
+  }
+
+  @Test
+  void testListAllRecomputedAmortizationSchedulesDetails() {
+    // Given
+    AmortizationSchedule amortizationSchedule = amortizationService
+        .calculateAmortizationSchedule(createLoanDetails());
+    amortizationService.createAmortizationSchedule(amortizationSchedule);
+
+    // When
+    List<AmortizationScheduleDetails> scheduleDetailsList = amortizationService
+        .listAllAmortizationSchedulesDetails();
+
+    // Then
+    assertEquals(1, scheduleDetailsList.size());
+    List<AmortizationEntry> amortizationEntries = amortizationSchedule.getAmortizationEntries();
+    assertEquals(amortizationEntries.get(0).getMonthlyPayment(),
+        scheduleDetailsList.get(0).getMonthlyRepayment());
+    assertEquals(amortizationEntries.stream()
+            .map(AmortizationEntry::getInterestPayment)
+            .reduce(BigDecimal.ZERO, BigDecimal::add),
+        scheduleDetailsList.get(0).getTotalInterestDue());
+  }
+
+  @Test
+  void testStreamRecomputedAmortizationEntries() {
+    // Given
+    AmortizationSchedule amortizationSchedule = amortizationService
+        .calculateAmortizationSchedule(createLoanDetails());
+    List<AmortizationEntry> expectedEntries = List.copyOf(
+        amortizationSchedule.getAmortizationEntries());
+    Long scheduleId = amortizationService.createAmortizationSchedule(amortizationSchedule).getId();
+    scheduleCache.clear();
+
+    // When
+    List<AmortizationEntry> streamedEntries = new ArrayList<>();
+    amortizationService.streamAmortizationEntries(scheduleId, streamedEntries::add);
+
+    // Then
+    assertEquals(expectedEntries, streamedEntries);
+  }
+
+  @Test
+  void testScheduleOfAnotherEngineVersionIsNotRecalculated() {
+    // Given
+    AmortizationSchedule amortizationSchedule = amortizationService
+        .calculateAmortizationSchedule(createLoanDetails());
+    Long scheduleId = amortizationService.createAmortizationSchedule(amortizationSchedule).getId();
+    AmortizationSchedule storedSchedule = amortizationScheduleRepository.findById(scheduleId)
+        .orElseThrow();
+    storedSchedule.setEngineVersion(AmortizationServiceImpl.ENGINE_VERSION + 1);
+    amortizationScheduleRepository.save(storedSchedule);
+
+    // When & Then
+    assertThrows(IllegalStateException.class,
+        () -> amortizationService.findAmortizationSchedule(scheduleId));
+  }
+
+  @Test
+  void testScheduleOfAnotherEngineVersionFailsBeforeStreamingAnEntry() {
+    // Given
+    AmortizationSchedule amortizationSchedule = amortizationService
+        .calculateAmortizationSchedule(createLoanDetails());
+    Long scheduleId = amortizationService.createAmortizationSchedule(amortizationSchedule).getId();
+    AmortizationSchedule storedSchedule = amortizationScheduleRepository.findById(scheduleId)
+        .orElseThrow();
+    storedSchedule.setEngineVersion(AmortizationServiceImpl.ENGINE_VERSION + 1);
+    amortizationScheduleRepository.save(storedSchedule);
+    List<AmortizationEntry> streamedEntries = new ArrayList<>();
+
+    // When & Then
+    assertThrows(IllegalStateException.class,
+        () -> amortizationService.streamAmortizationEntries(scheduleId, streamedEntries::add));
+    assertEquals(0, streamedEntries.size());
+  }
+
+  @Test
+  void testScheduleOfAnotherEngineVersionDoesNotFailTheListing() {
+    // Given
+    AmortizationSchedule amortizationSchedule = amortizationService
+        .calculateAmortizationSchedule(createLoanDetails());
+    Long staleScheduleId = amortizationService.createAmortizationSchedule(amortizationSchedule)
+        .getId();
+    AmortizationSchedule storedSchedule = amortizationScheduleRepository.findById(staleScheduleId)
+        .orElseThrow();
+    storedSchedule.setEngineVersion(AmortizationServiceImpl.ENGINE_VERSION + 1);
+    amortizationScheduleRepository.save(storedSchedule);
+    amortizationService.createAmortizationSchedule(
+        amortizationService.calculateAmortizationSchedule(createLoanDetails()));
+
+    // When
+    List<AmortizationScheduleDetails> scheduleDetailsList = amortizationService
+        .listAllAmortizationSchedulesDetails();
+
+    // Then
+    assertEquals(2, scheduleDetailsList.size());
+    assertEquals(staleScheduleId, scheduleDetailsList.get(0).getScheduleId());
+    assertNull(scheduleDetailsList.get(0).getTotalInterestDue());
+    assertEquals(amortizationSchedule.getAmortizationEntries().get(0).getMonthlyPayment(),
+        scheduleDetailsList.get(1).getMonthlyRepayment());
+  }
+
+  @Test
+  void testScheduleIsRecalculatedWithItsStoredPaymentPrecision() {
+    // Given
+    AmortizationSchedule amortizationSchedule = amortizationService
+        .calculateAmortizationSchedule(createLoanDetails());
+    BigDecimal monthlyPayment = amortizationSchedule.getAmortizationEntries().get(0)
+        .getMonthlyPayment();
+    Long scheduleId = amortizationService.createAmortizationSchedule(amortizationSchedule).getId();
+    AmortizationSchedule storedSchedule = amortizationScheduleRepository.findById(scheduleId)
+        .orElseThrow();
+    storedSchedule.setPaymentPrecision(3);
+    amortizationScheduleRepository.save(storedSchedule);
+
+    // When
+    AmortizationSchedule recalculatedSchedule = amortizationService
+        .findAmortizationSchedule(scheduleId)
+        .orElseThrow();
+
+    // Then
+    assertEquals(3, recalculatedSchedule.getPaymentPrecision());
+    assertNotEquals(monthlyPayment,
+        recalculatedSchedule.getAmortizationEntries().get(0).getMonthlyPayment());
+  }
+
+  @Test
+  void testSinglePeriodIsReadWithItsStoredPaymentPrecision() {
+    // Given
+    AmortizationSchedule amortizationSchedule = amortizationService
+        .calculateAmortizationSchedule(createLoanDetails());
+    Long scheduleId = amortizationService.createAmortizationSchedule(amortizationSchedule).getId();
+    AmortizationSchedule storedSchedule = amortizationScheduleRepository.findById(scheduleId)
+        .orElseThrow();
+    storedSchedule.setPaymentPrecision(3);
+    amortizationScheduleRepository.save(storedSchedule);
+
+    // When
+    AmortizationEntry entry = amortizationService.findAmortizationEntry(scheduleId, 120)
+        .orElseThrow();
+
+    // Then
+    AmortizationEntry scheduleEntry = amortizationService.findAmortizationSchedule(scheduleId)
+        .orElseThrow()
+        .getAmortizationEntries()
+        .get(119);
+    assertEquals(scheduleEntry.getMonthlyPayment(), entry.getMonthlyPayment());
+    assertEquals(scheduleEntry.getRemainingBalance(), entry.getRemainingBalance());
+    assertNotEquals(amortizationSchedule.getAmortizationEntries().get(119).getMonthlyPayment(),
+        entry.getMonthlyPayment());
+  }
+
+  @Test
+  void testSinglePeriodOfAnotherEngineVersionIsNotCalculated() {
+    // Given
+    AmortizationSchedule amortizationSchedule = amortizationService
+        .calculateAmortizationSchedule(createLoanDetails());
+    Long scheduleId = amortizationService.createAmortizationSchedule(amortizationSchedule).getId();
+    AmortizationSchedule storedSchedule = amortizationScheduleRepository.findById(scheduleId)
+        .orElseThrow();
+    storedSchedule.setEngineVersion(AmortizationServiceImpl.ENGINE_VERSION + 1);
+    amortizationScheduleRepository.save(storedSchedule);
+
+    // When & Then
+    assertThrows(IllegalStateException.class,
+        () -> amortizationService.findAmortizationEntry(scheduleId, 120));
+  }
+
+  private static LoanDetails createLoanDetails() {
+    var loanDetails = new LoanDetails();
+    loanDetails.setLoanAmount(BigDecimal.valueOf(300000));
+    loanDetails.setDepositAmount(BigDecimal.valueOf(30000));
+    loanDetails.setInterestRate(BigDecimal.valueOf(4.5));
+    loanDetails.setMonthlyPayments(360);
+    return loanDetails;
+  }
+}
@@ -0,0 +1,104 @@
+package com.example.amortizationschedule.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+import com.example.amortizationschedule.config.AmortizationProperties;
+import com.example.amortizationschedule.model.AmortizationEntry;
+import com.example.amortizationschedule.model.LoanDetails;
+import com.example.amortizationschedule.model.ScheduleCacheStatistics;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class ScheduleCacheTest {
+
+  private final AtomicInteger calculations = new AtomicInteger();
+
+  @Test
+  void testLoansWithTheSameTermsShareAnEntry() {
+    // Given
+    var scheduleCache = new ScheduleCache(new AmortizationProperties());
+    LoanDetails loanDetails = createLoanDetails(1L, BigDecimal.valueOf(20000), null);
+    LoanDetails equivalentLoanDetails = createLoanDetails(2L, new BigDecimal("20000.00"),
+        BigDecimal.ZERO);
+
+    // When
+    List<AmortizationEntry> calculatedEntries = scheduleCache.getEntries(loanDetails,
+        this::calculateEntries);
+    List<AmortizationEntry> cachedEntries = scheduleCache.getEntries(equivalentLoanDetails,
+        this::calculateEntries);
+
+    // Then
+    assertEquals(1, calculations.get());
+    assertEquals(calculatedEntries, cachedEntries);
+    ScheduleCacheStatistics statistics = scheduleCache.getStatistics();
+    assertEquals(1, statistics.getHitCount());
+    assertEquals(1, statistics.getMissCount());
+    assertEquals(1, statistics.getEstimatedSize());
+  }
+
+  @Test
+  void testCachedEntriesCannotBeChangedByCallers() {
+    // Given
+    var scheduleCache = new ScheduleCache(new AmortizationProperties());
+    LoanDetails loanDetails = createLoanDetails(null, BigDecimal.valueOf(20000), null);
+    List<AmortizationEntry> firstEntries = scheduleCache.getEntries(loanDetails,
+        this::calculateEntries);
+
+    // When
+    firstEntries.get(0).setInterestPayment(BigDecimal.valueOf(999));
+    List<AmortizationEntry> secondEntries = scheduleCache.getEntries(loanDetails,
+        this::calculateEntries);
+    secondEntries.get(0).setRemainingBalance(BigDecimal.ZERO);
+    List<AmortizationEntry> thirdEntries = scheduleCache.getEntries(loanDetails,
+        this::calculateEntries);
+
+    // Then
+    assertEquals(1, calculations.get());
+    assertNotSame(secondEntries.get(0), thirdEntries.get(0));
+    assertEquals(new BigDecimal("125.00"), thirdEntries.get(0).getInterestPayment());
+    assertEquals(new BigDecimal("18389.85"), thirdEntries.get(0).getRemainingBalance());
+  }
+
+  @Test
+  void testLeastValuableSchedulesAreEvictedBeyondTheMaximumPeriods() {
+    // Given
+    var amortizationProperties = new AmortizationProperties();
+    amortizationProperties.getCache().setMaximumPeriods(2);
+    var scheduleCache = new ScheduleCache(amortizationProperties);
+
+    // When
+    for (int i = 1; i <= 10; i++) {
+      scheduleCache.getEntries(createLoanDetails(null, BigDecimal.valueOf(i), null),
+          this::calculateEntries);
+    }
+    scheduleCache.cleanUp();
+
+    // Then
+    assertEquals(10, calculations.get());
+    assertEquals(8, scheduleCache.getStatistics().getEvictionCount());
+  }
+
+  private List<AmortizationEntry> calculateEntries() {
+    calculations.incrementAndGet();
+    List<AmortizationEntry> amortizationEntries = new ArrayList<>();
+    amortizationEntries.add(new AmortizationEntry(null, 1, new BigDecimal("1735.15"),
+        new BigDecimal("125.00"), new BigDecimal("1610.15"), new BigDecimal("18389.85")));
+    return amortizationEntries;
+  }
+
+  private static LoanDetails createLoanDetails(Long loanId, BigDecimal loanAmount,
+      BigDecimal balloonPayment) {
+    var loanDetails = new LoanDetails();
+    loanDetails.setLoanId(loanId);
+    loanDetails.setLoanAmount(loanAmount);
+    loanDetails.setDepositAmount(BigDecimal.ZERO);
+    loanDetails.setInterestRate(BigDecimal.valueOf(7.5));
+    loanDetails.setBalloonPayment(balloonPayment);
+    loanDetails.setMonthlyPayments(12);
+    return loanDetails;
+  }
+}
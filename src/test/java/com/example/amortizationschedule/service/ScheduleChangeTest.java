@@ -0,0 +1,189 @@
+package com.example.amortizationschedule.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example.amortizationschedule.config.AmortizationProperties;
+import com.example.amortizationschedule.model.AmortizationEntry;
+import com.example.amortizationschedule.model.AmortizationSchedule;
+import com.example.amortizationschedule.model.AmortizationScheduleDetails;
+import com.example.amortizationschedule.model.LoanDetails;
+import com.example.amortizationschedule.model.ScheduleChange;
+import com.example.amortizationschedule.model.StorageMode;
+import com.example.amortizationschedule.repository.AmortizationEntryRepository;
+import com.example.amortizationschedule.repository.AmortizationScheduleRepository;
+import com.example.amortizationschedule.repository.LoanDetailsRepository;
+import com.example.amortizationschedule.repository.PackedAmortizationEntriesRepository;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class ScheduleChangeTest {
+
+  @Autowired
+  private AmortizationService amortizationService;
+
+  @Autowired
+  private AmortizationProperties amortizationProperties;
+
+  @Autowired
+  private AmortizationScheduleRepository amortizationScheduleRepository;
+
+  @Autowired
+  private AmortizationEntryRepository amortizationEntryRepository;
+
+  @Autowired
+  private PackedAmortizationEntriesRepository packedAmortizationEntriesRepository;
+
+  @Autowired
+  private LoanDetailsRepository loanDetailsRepository;
+
+  @AfterEach
+  public void tearDown() {
+    amortizationProperties.getStorage().setMode(StorageMode.ROWS);
+    amortizationScheduleRepository.deleteAll();
+    loanDetailsRepository.deleteAll();
+    amortizationEntryRepository.deleteAll();
+    packedAmortizationEntriesRepository.deleteAll();
+  }
+
+  @Test
+  void testChangeRecalculatesOnlyTheEntriesFromItsPeriod() {
+    // Given
+    AmortizationSchedule amortizationSchedule = createSchedule();
+    List<AmortizationEntry> originalEntries = findEntries(amortizationSchedule.getId());
+    var scheduleChange = new ScheduleChange();
+    scheduleChange.setPeriod(13);
+    scheduleChange.setExtraPrincipal(BigDecimal.valueOf(1000));
+    scheduleChange.setInterestRate(BigDecimal.valueOf(4.5));
+
+    // When
+    amortizationService.applyScheduleChange(amortizationSchedule.getId(), scheduleChange);
+
+    // Then
+    List<AmortizationEntry> changedEntries = findEntries(amortizationSchedule.getId());
+    assertEquals(24, changedEntries.size());
+    assertEquals(24, amortizationEntryRepository.count());
+    assertEquals(originalEntries.subList(0, 12), changedEntries.subList(0, 12));
+    for (int i = 12; i < 24; i++) {
+      // Recalculated entries are written over the stored rows of the same periods
+      assertEquals(originalEntries.get(i).getId(), changedEntries.get(i).getId());
+    }
+    assertSuffixEquals(originalEntries.get(11).getRemainingBalance()
+            .subtract(BigDecimal.valueOf(1000)), BigDecimal.valueOf(4.5), 12,
+        changedEntries.subList(12, 24));
+  }
+
+  @Test
+  void testListingReportsTheRepaymentOfTheFirstPeriodAfterAChange() {
+    // Given
+    AmortizationSchedule amortizationSchedule = createSchedule();
+    BigDecimal originalRepayment = findEntries(amortizationSchedule.getId()).get(0)
+        .getMonthlyPayment();
+    var scheduleChange = new ScheduleChange();
+    scheduleChange.setPeriod(13);
+    scheduleChange.setInterestRate(BigDecimal.valueOf(2.5));
+
+    // When
+    amortizationService.applyScheduleChange(amortizationSchedule.getId(), scheduleChange);
+
+    // Then
+    // The payments after the change are lower than the original repayment
+    assertEquals(-1, findEntries(amortizationSchedule.getId()).get(12).getMonthlyPayment()
+        .compareTo(originalRepayment));
+    AmortizationScheduleDetails scheduleDetails = amortizationService
+        .listAllAmortizationSchedulesDetails().get(0);
+    assertEquals(originalRepayment, scheduleDetails.getMonthlyRepayment());
+  }
+
+  @Test
+  void testChangesOfTermAddAndRemoveEntries() {
+    // Given
+    AmortizationSchedule amortizationSchedule = createSchedule();
+    List<AmortizationEntry> originalEntries = findEntries(amortizationSchedule.getId());
+    var longerTerm = new ScheduleChange();
+    longerTerm.setPeriod(13);
+    longerTerm.setMonthlyPayments(24);
+    var shorterTerm = new ScheduleChange();
+    shorterTerm.setPeriod(7);
+    shorterTerm.setMonthlyPayments(6);
+
+    // When
+    amortizationService.applyScheduleChange(amortizationSchedule.getId(), longerTerm);
+    List<AmortizationEntry> extendedEntries = findEntries(amortizationSchedule.getId());
+    amortizationService.applyScheduleChange(amortizationSchedule.getId(), shorterTerm);
+
+    // Then
+    assertEquals(36, extendedEntries.size());
+    assertSuffixEquals(originalEntries.get(11).getRemainingBalance(), BigDecimal.valueOf(6.5),
+        24, extendedEntries.subList(12, 36));
+
+    List<AmortizationEntry> shortenedEntries = findEntries(amortizationSchedule.getId());
+    assertEquals(12, shortenedEntries.size());
+    assertEquals(12, amortizationEntryRepository.count());
+    assertEquals(originalEntries.subList(0, 6), shortenedEntries.subList(0, 6));
+    assertSuffixEquals(originalEntries.get(5).getRemainingBalance(), BigDecimal.valueOf(6.5), 6,
+        shortenedEntries.subList(6, 12));
+  }
+
+  @Test
+  void testChangeOfPackedScheduleIsRejected() {
+    // Given
+    amortizationProperties.getStorage().setMode(StorageMode.PACKED);
+    AmortizationSchedule amortizationSchedule = createSchedule();
+    var scheduleChange = new ScheduleChange();
+    scheduleChange.setPeriod(13);
+    scheduleChange.setInterestRate(BigDecimal.valueOf(4.5));
+
+    // When & Then
+    assertThrows(IllegalStateException.class,
+        () -> amortizationService.applyScheduleChange(amortizationSchedule.getId(),
+            scheduleChange));
+  }
+
+  private AmortizationSchedule createSchedule() {
+    var loanDetails = new LoanDetails();
+    loanDetails.setLoanAmount(BigDecimal.valueOf(20000));
+    loanDetails.setDepositAmount(BigDecimal.valueOf(2000));
+    loanDetails.setInterestRate(BigDecimal.valueOf(6.5));
+    loanDetails.setMonthlyPayments(24);
+    return amortizationService.createAmortizationSchedule(
+        amortizationService.calculateAmortizationSchedule(loanDetails));
+  }
+
+  private List<AmortizationEntry> findEntries(Long scheduleId) {
+    return List.copyOf(amortizationService.findAmortizationSchedule(scheduleId).orElseThrow()
+        .getAmortizationEntries());
+  }
+
+  /**
+   * Checks that recalculated entries are those of a new loan of the remaining balance, shifted to
+   * the periods of the change.
+   */
+  private void assertSuffixEquals(BigDecimal remainingBalance, BigDecimal interestRate,
+      int monthlyPayments, List<AmortizationEntry> changedEntries) {
+    var loanDetails = new LoanDetails();
+    loanDetails.setLoanAmount(remainingBalance);
+    loanDetails.setDepositAmount(BigDecimal.ZERO);
+    loanDetails.setInterestRate(interestRate);
+    loanDetails.setMonthlyPayments(monthlyPayments);
+    List<AmortizationEntry> expectedEntries = amortizationService
+        .calculateAmortizationSchedule(loanDetails).getAmortizationEntries();
+
+    assertEquals(expectedEntries.size(), changedEntries.size());
+    int firstPeriod = changedEntries.get(0).getPeriod();
+    for (int i = 0; i < expectedEntries.size(); i++) {
+      AmortizationEntry expectedEntry = expectedEntries.get(i);
+      AmortizationEntry changedEntry = changedEntries.get(i);
+      assertEquals(firstPeriod + i, changedEntry.getPeriod());
+      assertEquals(expectedEntry.getMonthlyPayment(), changedEntry.getMonthlyPayment());
+      assertEquals(expectedEntry.getInterestPayment(), changedEntry.getInterestPayment());
+      assertEquals(expectedEntry.getPrincipalPayment(), changedEntry.getPrincipalPayment());
+      assertEquals(expectedEntry.getRemainingBalance(), changedEntry.getRemainingBalance());
+    }
+  }
+}
@@ -0,0 +1,185 @@
+package com.example.amortizationschedule.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.amortizationschedule.config.AmortizationProperties;
+import com.example.amortizationschedule.model.AmortizationEntry;
+import com.example.amortizationschedule.model.AmortizationSchedule;
+import com.example.amortizationschedule.model.ExportFormat;
+import com.example.amortizationschedule.model.ExportReport;
+import com.example.amortizationschedule.model.LoanDetails;
+import com.example.amortizationschedule.model.StorageMode;
+import com.example.amortizationschedule.repository.AmortizationEntryRepository;
+import com.example.amortizationschedule.repository.AmortizationScheduleRepository;
+import com.example.amortizationschedule.repository.LoanDetailsRepository;
+import com.example.amortizationschedule.repository.PackedAmortizationEntriesRepository;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = "amortization.export.buffer-size=64B")
+class ScheduleExporterTest {
+
+  @TempDir
+  private Path tempDir;
+
+  @Autowired
+  private ScheduleExporter scheduleExporter;
+
+  @Autowired
+  private AmortizationService amortizationService;
+
+  @Autowired
+  private AmortizationProperties amortizationProperties;
+
+  @Autowired
+  private AmortizationScheduleRepository amortizationScheduleRepository;
+
+  @Autowired
+  private AmortizationEntryRepository amortizationEntryRepository;
+
+  @Autowired
+  private PackedAmortizationEntriesRepository packedAmortizationEntriesRepository;
+
+  @Autowired
+  private LoanDetailsRepository loanDetailsRepository;
+
+  @AfterEach
+  public void tearDown() {
+    amortizationProperties.getStorage().setMode(StorageMode.ROWS);
+    amortizationScheduleRepository.deleteAll();
+    loanDetailsRepository.deleteAll();
+    amortizationEntryRepository.deleteAll();
+    packedAmortizationEntriesRepository.deleteAll();
+  }
+
+  @Test
+  void testExportEntriesAsCsvAcrossStorageModes() throws IOException {
+    // Given
+    List<AmortizationSchedule> amortizationSchedules = createSchedules();
+
+    // When
+    ExportReport exportReport = scheduleExporter.exportSchedules(ExportFormat.CSV, tempDir);
+
+    // Then
+    Path directory = Path.of(exportReport.getDirectory());
+    List<String> expectedEntries = new ArrayList<>();
+    expectedEntries.add(
+        "scheduleId,period,monthlyPayment,interestPayment,principalPayment,remainingBalance");
+    for (AmortizationSchedule amortizationSchedule : amortizationSchedules) {
+      for (AmortizationEntry entry : amortizationSchedule.getAmortizationEntries()) {
+        expectedEntries.add(amortizationSchedule.getId() + "," + entry.getPeriod() + ","
+            + entry.getMonthlyPayment() + "," + entry.getInterestPayment() + ","
+            + entry.getPrincipalPayment() + "," + entry.getRemainingBalance());
+      }
+    }
+    assertEquals(3, exportReport.getSchedulesExported());
+    assertEquals(expectedEntries.size() - 1, exportReport.getEntriesExported());
+    assertEquals(expectedEntries, Files.readAllLines(directory.resolve("entries.csv")));
+    List<String> schedules = Files.readAllLines(directory.resolve("schedules.csv"));
+    assertEquals(4, schedules.size());
+    assertTrue(schedules.get(1).startsWith(amortizationSchedules.get(0).getId() + ",20000"));
+    assertTrue(schedules.get(1).endsWith(",,12"));
+  }
+
+  @Test
+  void testExportEntriesAsColumns() throws IOException {
+    // Given
+    List<AmortizationSchedule> amortizationSchedules = createSchedules();
+
+    // When
+    ExportReport exportReport = scheduleExporter.exportSchedules(ExportFormat.COLUMNAR, tempDir);
+
+    // Then
+    Path entries = Path.of(exportReport.getDirectory()).resolve("entries");
+    ByteBuffer scheduleIds = read(entries.resolve("scheduleId.bin"));
+    ByteBuffer periods = read(entries.resolve("period.bin"));
+    ByteBuffer remainingBalances = read(entries.resolve("remainingBalance.bin"));
+    assertEquals(exportReport.getEntriesExported() * Long.BYTES, scheduleIds.limit());
+    assertEquals(exportReport.getEntriesExported() * Integer.BYTES, periods.limit());
+    for (AmortizationSchedule amortizationSchedule : amortizationSchedules) {
+      for (AmortizationEntry entry : amortizationSchedule.getAmortizationEntries()) {
+        assertEquals(amortizationSchedule.getId(), scheduleIds.getLong());
+        assertEquals(entry.getPeriod(), periods.getInt());
+        assertEquals(PackedEntryCodec.toCents(entry.getRemainingBalance()),
+            remainingBalances.getLong());
+      }
+    }
+  }
+
+  @Test
+  void testExportSkipsScheduleOfAnotherEngineVersion() throws IOException {
+    // Given
+    AmortizationSchedule rowsSchedule = createSchedule(StorageMode.ROWS,
+        BigDecimal.valueOf(20000), 12);
+    AmortizationSchedule staleSchedule = amortizationScheduleRepository
+        .findById(createSchedule(StorageMode.RECOMPUTE, BigDecimal.valueOf(50000), 18).getId())
+        .orElseThrow();
+    staleSchedule.setEngineVersion(AmortizationServiceImpl.ENGINE_VERSION + 1);
+    amortizationScheduleRepository.save(staleSchedule);
+
+    // When
+    ExportReport exportReport = scheduleExporter.exportSchedules(ExportFormat.CSV, tempDir);
+
+    // Then
+    assertEquals(1, exportReport.getSchedulesExported());
+    assertEquals(1, exportReport.getSchedulesSkipped());
+    assertEquals(rowsSchedule.getAmortizationEntries().size(), exportReport.getEntriesExported());
+    List<String> schedules = Files.readAllLines(
+        Path.of(exportReport.getDirectory()).resolve("schedules.csv"));
+    assertEquals(2, schedules.size());
+    assertTrue(schedules.get(1).startsWith(rowsSchedule.getId() + ","));
+  }
+
+  @Test
+  void testFailedExportDeletesItsPartialDirectory() throws IOException {
+    // Given
+    createSchedule(StorageMode.ROWS, BigDecimal.valueOf(20000), 12);
+    LoanDetails invalidLoanDetails = createSchedule(StorageMode.RECOMPUTE,
+        BigDecimal.valueOf(50000), 18).getLoanDetails();
+    invalidLoanDetails.setInterestRate(null);
+    loanDetailsRepository.save(invalidLoanDetails);
+
+    // When & Then
+    assertThrows(IllegalArgumentException.class,
+        () -> scheduleExporter.exportSchedules(ExportFormat.COLUMNAR, tempDir));
+    try (Stream<Path> exports = Files.list(tempDir)) {
+      assertEquals(0, exports.count());
+    }
+  }
+
+  private List<AmortizationSchedule> createSchedules() {
+    return List.of(createSchedule(StorageMode.ROWS, BigDecimal.valueOf(20000), 12),
+        createSchedule(StorageMode.PACKED, BigDecimal.valueOf(35000), 24),
+        createSchedule(StorageMode.RECOMPUTE, BigDecimal.valueOf(50000), 18));
+  }
+
+  private AmortizationSchedule createSchedule(StorageMode storageMode, BigDecimal loanAmount,
+      int monthlyPayments) {
+    amortizationProperties.getStorage().setMode(storageMode);
+    var loanDetails = new LoanDetails();
+    loanDetails.setLoanAmount(loanAmount);
+    loanDetails.setDepositAmount(BigDecimal.valueOf(2000));
+    loanDetails.setInterestRate(BigDecimal.valueOf(6.5));
+    loanDetails.setMonthlyPayments(monthlyPayments);
+    return amortizationService.createAmortizationSchedule(
+        amortizationService.calculateAmortizationSchedule(loanDetails));
+  }
+
+  private static ByteBuffer read(Path path) throws IOException {
+    return ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+  }
+}
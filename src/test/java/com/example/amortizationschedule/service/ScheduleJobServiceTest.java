@@ -0,0 +1,135 @@
+package com.example.amortizationschedule.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.amortizationschedule.model.JobStatus;
+import com.example.amortizationschedule.model.LoanDetails;
+import com.example.amortizationschedule.model.ScheduleJob;
+import com.example.amortizationschedule.repository.AmortizationEntryRepository;
+import com.example.amortizationschedule.repository.AmortizationScheduleRepository;
+import com.example.amortizationschedule.repository.LoanDetailsRepository;
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = {"amortization.jobs.timeout=1s",
+    "amortization.admission.max-request-cost=2000000"})
+class ScheduleJobServiceTest {
+
+  private static final Set<JobStatus> FINISHED = EnumSet.of(JobStatus.SUCCEEDED,
+      JobStatus.FAILED, JobStatus.CANCELLED, JobStatus.TIMED_OUT);
+
+  @Autowired
+  private ScheduleJobService scheduleJobService;
+
+  @Autowired
+  private AmortizationService amortizationService;
+
+  @Autowired
+  private AmortizationScheduleRepository amortizationScheduleRepository;
+
+  @Autowired
+  private LoanDetailsRepository loanDetailsRepository;
+
+  @Autowired
+  private AmortizationEntryRepository amortizationEntryRepository;
+
+  @AfterEach
+  public void tearDown() {
+    amortizationScheduleRepository.deleteAll();
+    loanDetailsRepository.deleteAll();
+    amortizationEntryRepository.deleteAll();
+  }
+
+  @Test
+  void testJobCreatesSchedule() throws InterruptedException {
+    // Given
+    LoanDetails loanDetails = createLoanDetails(12);
+
+    // When
+    ScheduleJob submittedJob = scheduleJobService.submitJob(loanDetails);
+    ScheduleJob job = awaitStatus(submittedJob.getId(), FINISHED);
+
+    // Then
+    assertEquals(JobStatus.SUCCEEDED, job.getStatus());
+    assertNotNull(job.getFinishedAt());
+    assertNotNull(job.getScheduleId());
+    assertEquals(12, amortizationService.findAmortizationSchedule(job.getScheduleId())
+        .orElseThrow().getAmortizationEntries().size());
+  }
+
+  @Test
+  void testInvalidLoanFailsJob() throws InterruptedException {
+    // Given
+    LoanDetails loanDetails = createLoanDetails(0);
+
+    // When
+    ScheduleJob job = awaitStatus(scheduleJobService.submitJob(loanDetails).getId(), FINISHED);
+
+    // Then
+    assertEquals(JobStatus.FAILED, job.getStatus());
+    assertEquals("Monthly payments must be a positive integer", job.getError());
+  }
+
+  @Test
+  void testCancelRunningJob() throws InterruptedException {
+    // Given
+    String id = scheduleJobService.submitJob(createLoanDetails(10_000)).getId();
+    awaitStatus(id, EnumSet.of(JobStatus.RUNNING));
+
+    // When
+    ScheduleJob cancelledJob = scheduleJobService.cancelJob(id).orElseThrow();
+
+    // Then
+    assertEquals(JobStatus.CANCELLED, cancelledJob.getStatus());
+    assertNull(cancelledJob.getScheduleId());
+    assertEquals(0, amortizationScheduleRepository.count());
+  }
+
+  @Test
+  void testLongJobTimesOut() throws InterruptedException {
+    // Given
+    LoanDetails loanDetails = createLoanDetails(10_000);
+
+    // When
+    ScheduleJob job = awaitStatus(scheduleJobService.submitJob(loanDetails).getId(), FINISHED);
+
+    // Then
+    assertEquals(JobStatus.TIMED_OUT, job.getStatus());
+    assertEquals(0, amortizationScheduleRepository.count());
+  }
+
+  @Test
+  void testUnknownJobIsNotFound() {
+    // When & Then
+    assertTrue(scheduleJobService.findJob("unknown").isEmpty());
+    assertTrue(scheduleJobService.cancelJob("unknown").isEmpty());
+  }
+
+  private ScheduleJob awaitStatus(String id, Set<JobStatus> statuses)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + 30_000_000_000L;
+    ScheduleJob job = scheduleJobService.findJob(id).orElseThrow();
+    while (!statuses.contains(job.getStatus()) && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+      job = scheduleJobService.findJob(id).orElseThrow();
+    }
+    return job;
+  }
+
+  private static LoanDetails createLoanDetails(int monthlyPayments) {
+    var loanDetails = new LoanDetails();
+    loanDetails.setLoanAmount(BigDecimal.valueOf(25000));
+    loanDetails.setDepositAmount(BigDecimal.valueOf(5000));
+    loanDetails.setInterestRate(BigDecimal.valueOf(7.5));
+    loanDetails.setMonthlyPayments(monthlyPayments);
+    return loanDetails;
+  }
+}
@@ -0,0 +1,133 @@
+package com.example.amortizationschedule.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.amortizationschedule.config.AmortizationProperties;
+import com.example.amortizationschedule.model.AmortizationEntry;
+import com.example.amortizationschedule.model.AmortizationSchedule;
+import com.example.amortizationschedule.model.LoanDetails;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+
+class ScheduleResponseCacheTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @Test
+  void testScheduleIsEncodedOnceUntilInvalidated() throws IOException {
+    // Given
+    var amortizationProperties = new AmortizationProperties();
+    amortizationProperties.getResponseCache().setGzip(true);
+    var scheduleResponseCache = new ScheduleResponseCache(amortizationProperties, objectMapper);
+
+    // When
+    ScheduleResponseCache.EncodedSchedule encodedSchedule = scheduleResponseCache
+        .get(1L, this::loadSchedule).orElseThrow();
+    ScheduleResponseCache.EncodedSchedule cachedSchedule = scheduleResponseCache
+        .get(1L, this::loadSchedule).orElseThrow();
+    scheduleResponseCache.invalidate(1L);
+    ScheduleResponseCache.EncodedSchedule reloadedSchedule = scheduleResponseCache
+        .get(1L, this::loadSchedule).orElseThrow();
+
+    // Then
+    assertEquals(2, loads.get());
+    assertSame(encodedSchedule, cachedSchedule);
+    assertArrayEquals(objectMapper.writeValueAsBytes(loadSchedule().orElseThrow()),
+        encodedSchedule.json());
+    try (InputStream gzipInput = new GZIPInputStream(
+        new ByteArrayInputStream(encodedSchedule.gzipJson()))) {
+      assertArrayEquals(encodedSchedule.json(), gzipInput.readAllBytes());
+    }
+    assertTrue(encodedSchedule.eTag().startsWith("\""));
+    assertNotEquals(encodedSchedule.eTag(), encodedSchedule.gzipETag());
+    assertEquals(encodedSchedule.eTag(), reloadedSchedule.eTag());
+  }
+
+  @Test
+  void testMissingScheduleIsNotCached() {
+    // Given
+    var scheduleResponseCache = new ScheduleResponseCache(new AmortizationProperties(),
+        objectMapper);
+
+    // When
+    scheduleResponseCache.get(1L, () -> {
+      loads.incrementAndGet();
+      return Optional.empty();
+    });
+    Optional<ScheduleResponseCache.EncodedSchedule> encodedSchedule = scheduleResponseCache
+        .get(1L, this::loadSchedule);
+
+    // Then
+    assertEquals(2, loads.get());
+    assertTrue(encodedSchedule.isPresent());
+  }
+
+  @Test
+  void testLoadInProgressIsNotCachedAfterInvalidation() throws InterruptedException {
+    // Given
+    var scheduleResponseCache = new ScheduleResponseCache(new AmortizationProperties(),
+        objectMapper);
+    var loadStarted = new CountDownLatch(1);
+    var scheduleChanged = new CountDownLatch(1);
+    Thread staleRead = new Thread(() -> scheduleResponseCache.get(1L, () -> {
+      loadStarted.countDown();
+      awaitUninterruptibly(scheduleChanged);
+      return loadSchedule();
+    }));
+
+    // When
+    staleRead.start();
+    loadStarted.await();
+    Thread invalidation = new Thread(() -> scheduleResponseCache.invalidate(1L));
+    invalidation.start();
+    // The invalidation may only complete once the load has, so this wait runs out
+    invalidation.join(200);
+    scheduleChanged.countDown();
+    staleRead.join();
+    invalidation.join();
+    scheduleResponseCache.get(1L, this::loadSchedule);
+
+    // Then
+    assertEquals(2, loads.get());
+  }
+
+  private static void awaitUninterruptibly(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private Optional<AmortizationSchedule> loadSchedule() {
+    loads.incrementAndGet();
+    var loanDetails = new LoanDetails();
+    loanDetails.setLoanId(1L);
+    loanDetails.setLoanAmount(BigDecimal.valueOf(20000));
+    loanDetails.setDepositAmount(BigDecimal.ZERO);
+    loanDetails.setInterestRate(BigDecimal.valueOf(7.5));
+    loanDetails.setMonthlyPayments(1);
+    var amortizationSchedule = new AmortizationSchedule();
+    amortizationSchedule.setId(1L);
+    amortizationSchedule.setLoanDetails(loanDetails);
+    amortizationSchedule.setAmortizationEntries(List.of(new AmortizationEntry(1L, 1,
+        new BigDecimal("20125.00"), new BigDecimal("125.00"), new BigDecimal("20000.00"),
+        new BigDecimal("0.00"))));
+    return Optional.of(amortizationSchedule);
+  }
+}
@@ -0,0 +1,123 @@
+package com.example.amortizationschedule.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example.amortizationschedule.model.AmortizationEntry;
+import com.example.amortizationschedule.model.AmortizationSchedule;
+import com.example.amortizationschedule.model.LoanDetails;
+import com.example.amortizationschedule.model.SweepPoint;
+import com.example.amortizationschedule.model.SweepRequest;
+import com.example.amortizationschedule.model.SweepResult;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = "amortization.sweep.max-cells=20")
+class SweepServiceTest {
+
+  @Autowired
+  private SweepService sweepService;
+
+  @Autowired
+  private AmortizationService amortizationService;
+
+  @Test
+  void testSweepMatchesSeparateCalculations() {
+    // Given
+    for (BigDecimal balloonPayment : List.of(BigDecimal.ZERO, BigDecimal.valueOf(5000))) {
+      var sweepRequest = new SweepRequest();
+      sweepRequest.setLoanDetails(createLoanDetails(balloonPayment));
+      sweepRequest.setInterestRates(List.of(BigDecimal.valueOf(3.5), BigDecimal.valueOf(6.5),
+          BigDecimal.valueOf(9.25)));
+      sweepRequest.setMonthlyPayments(List.of(36, 12, 240, 60));
+      sweepRequest.setSchedules(List.of(new SweepPoint(new BigDecimal("6.50"), 240)));
+
+      // When
+      List<SweepResult> sweepResults = sweepService.sweep(sweepRequest);
+
+      // Then
+      assertEquals(12, sweepResults.size());
+      for (int i = 0; i < sweepResults.size(); i++) {
+        SweepResult sweepResult = sweepResults.get(i);
+        assertEquals(sweepRequest.getInterestRates().get(i / 4), sweepResult.getInterestRate());
+        assertEquals(sweepRequest.getMonthlyPayments().get(i % 4),
+            sweepResult.getMonthlyPayments());
+
+        LoanDetails loanDetails = createLoanDetails(balloonPayment);
+        loanDetails.setInterestRate(sweepResult.getInterestRate());
+        loanDetails.setMonthlyPayments(sweepResult.getMonthlyPayments());
+        AmortizationSchedule amortizationSchedule = amortizationService
+            .calculateAmortizationSchedule(loanDetails);
+        List<AmortizationEntry> entries = amortizationSchedule.getAmortizationEntries();
+        assertEquals(entries.get(0).getMonthlyPayment(), sweepResult.getMonthlyRepayment());
+        assertEquals(sum(entries, true), sweepResult.getTotalInterestDue());
+        assertEquals(sum(entries, false), sweepResult.getTotalPaymentsDue());
+
+        if (i == 6) {
+          assertNotNull(sweepResult.getAmortizationSchedule());
+          assertEquals(entries, sweepResult.getAmortizationSchedule().getAmortizationEntries());
+        } else {
+          assertNull(sweepResult.getAmortizationSchedule());
+        }
+      }
+    }
+  }
+
+  @Test
+  void testSweepLargerThanMaxCellsIsRejected() {
+    // Given
+    var sweepRequest = new SweepRequest();
+    sweepRequest.setLoanDetails(createLoanDetails(null));
+    sweepRequest.setInterestRates(List.of(BigDecimal.valueOf(3.5), BigDecimal.valueOf(6.5),
+        BigDecimal.valueOf(9.25)));
+    sweepRequest.setMonthlyPayments(List.of(12, 24, 36, 48, 60, 72, 84));
+
+    // When & Then
+    assertThrows(IllegalArgumentException.class, () -> sweepService.sweep(sweepRequest));
+  }
+
+  @Test
+  void testSweepWithMissingFieldsIsRejected() {
+    // Given
+    var sweepRequest = new SweepRequest();
+    sweepRequest.setLoanDetails(createLoanDetails(null));
+    sweepRequest.setMonthlyPayments(List.of(12, 24));
+    var rates = new ArrayList<BigDecimal>();
+    rates.add(BigDecimal.valueOf(3.5));
+    rates.add(null);
+
+    // When & Then
+    sweepRequest.setInterestRates(null);
+    assertThrows(IllegalArgumentException.class, () -> sweepService.sweep(sweepRequest));
+    sweepRequest.setInterestRates(rates);
+    assertThrows(IllegalArgumentException.class, () -> sweepService.sweep(sweepRequest));
+    sweepRequest.setInterestRates(List.of(BigDecimal.valueOf(3.5)));
+    sweepRequest.getLoanDetails().setDepositAmount(null);
+    assertThrows(IllegalArgumentException.class, () -> sweepService.sweep(sweepRequest));
+  }
+
+  private static LoanDetails createLoanDetails(BigDecimal balloonPayment) {
+    var loanDetails = new LoanDetails();
+    loanDetails.setLoanAmount(BigDecimal.valueOf(25000));
+    loanDetails.setDepositAmount(BigDecimal.valueOf(2000));
+    loanDetails.setBalloonPayment(balloonPayment);
+    return loanDetails;
+  }
+
+  private static BigDecimal sum(List<AmortizationEntry> entries, boolean interest) {
+    Function<AmortizationEntry, BigDecimal> amount = interest
+        ? AmortizationEntry::getInterestPayment : AmortizationEntry::getMonthlyPayment;
+    return entries.stream()
+        .map(amount)
+        .reduce(BigDecimal.ZERO, BigDecimal::add)
+        .setScale(2, RoundingMode.HALF_UP);
+  }
+}
@@ -0,0 +1,136 @@
+package com.example.amortizationschedule.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.amortizationschedule.config.AmortizationProperties;
+import com.example.amortizationschedule.model.AmortizationSchedule;
+import com.example.amortizationschedule.model.LoanDetails;
+import com.example.amortizationschedule.repository.AmortizationEntryRepository;
+import com.example.amortizationschedule.repository.AmortizationScheduleRepository;
+import com.example.amortizationschedule.repository.LoanDetailsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest(properties = {"amortization.write-behind.enabled=true",
+    "amortization.write-behind.batch-size=25"})
+class WriteBehindScheduleWriterTest {
+
+  @Autowired
+  private AmortizationService amortizationService;
+
+  @Autowired
+  private WriteBehindScheduleWriter writeBehindScheduleWriter;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private AmortizationScheduleRepository amortizationScheduleRepository;
+
+  @Autowired
+  private AmortizationEntryRepository amortizationEntryRepository;
+
+  @Autowired
+  private LoanDetailsRepository loanDetailsRepository;
+
+  @AfterEach
+  public void tearDown() {
+    writeBehindScheduleWriter.start();
+    amortizationScheduleRepository.deleteAll();
+    loanDetailsRepository.deleteAll();
+    amortizationEntryRepository.deleteAll();
+  }
+
+  @Test
+  void testQueuedSchedulesArePersistedInBatches() throws InterruptedException {
+    // Given
+    List<AmortizationSchedule> amortizationSchedules = new ArrayList<>();
+    for (int i = 0; i < 60; i++) {
+      amortizationSchedules.add(
+          amortizationService.calculateAmortizationSchedule(createLoanDetails(12 + i)));
+    }
+
+    // When
+    amortizationSchedules.forEach(writeBehindScheduleWriter::enqueue);
+    writeBehindScheduleWriter.flush();
+
+    // Then
+    assertEquals(60, amortizationScheduleRepository.count());
+    assertEquals(60, loanDetailsRepository.count());
+    assertEquals(amortizationSchedules.stream()
+            .mapToLong(schedule -> schedule.getAmortizationEntries().size())
+            .sum(),
+        amortizationEntryRepository.count());
+    // The returned schedules are not changed by persisting them
+    assertNull(amortizationSchedules.get(0).getId());
+    assertNull(amortizationSchedules.get(0).getLoanDetails().getLoanId());
+  }
+
+  @Test
+  void testScheduleIsPersistedByTheRequestWhenTheWriterIsStopped() {
+    // Given
+    AmortizationSchedule amortizationSchedule = amortizationService
+        .calculateAmortizationSchedule(createLoanDetails(24));
+    writeBehindScheduleWriter.stop();
+
+    // When
+    writeBehindScheduleWriter.enqueue(amortizationSchedule);
+
+    // Then
+    assertEquals(1, amortizationScheduleRepository.count());
+    assertEquals(24, amortizationEntryRepository.count());
+  }
+
+  @Test
+  void testScheduleIsPersistedByTheRequestWhenTheQueueIsFull() throws InterruptedException {
+    // Given
+    var amortizationProperties = new AmortizationProperties();
+    amortizationProperties.getWriteBehind().setEnabled(true);
+    amortizationProperties.getWriteBehind().setQueueCapacity(1);
+    amortizationProperties.getWriteBehind().setOfferTimeout(Duration.ZERO);
+    var meterRegistry = new SimpleMeterRegistry();
+    var fullQueueWriter = new WriteBehindScheduleWriter(amortizationProperties,
+        amortizationService, transactionTemplate, new AmortizationMetrics(meterRegistry));
+    // The long schedule keeps the writer busy while the others are queued behind it
+    AmortizationSchedule longSchedule = amortizationService
+        .calculateAmortizationSchedule(createLoanDetails(3_000));
+    List<AmortizationSchedule> shortSchedules = List.of(
+        amortizationService.calculateAmortizationSchedule(createLoanDetails(12)),
+        amortizationService.calculateAmortizationSchedule(createLoanDetails(24)));
+
+    // When
+    fullQueueWriter.start();
+    try {
+      fullQueueWriter.enqueue(longSchedule);
+      shortSchedules.forEach(fullQueueWriter::enqueue);
+      fullQueueWriter.flush();
+    } finally {
+      fullQueueWriter.stop();
+    }
+
+    // Then
+    assertTrue(meterRegistry.counter(AmortizationMetrics.WRITE_BEHIND_FALLBACK_COUNTER).count()
+        >= 1);
+    assertEquals(3, amortizationScheduleRepository.count());
+    assertEquals(3_000 + 12 + 24, amortizationEntryRepository.count());
+  }
+
+  private static LoanDetails createLoanDetails(int monthlyPayments) {
+    var loanDetails = new LoanDetails();
+    loanDetails.setLoanAmount(BigDecimal.valueOf(20000));
+    loanDetails.setDepositAmount(BigDecimal.valueOf(2000));
+    loanDetails.setInterestRate(BigDecimal.valueOf(6.5));
+    loanDetails.setMonthlyPayments(monthlyPayments);
+    return loanDetails;
+  }
+}
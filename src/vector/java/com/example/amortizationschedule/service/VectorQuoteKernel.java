@@ -0,0 +1,54 @@
+package com.example.amortizationschedule.service;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Evaluates the quotes of {@link QuoteEngine} with the Vector API. This class must only be loaded
+ * when the {@code jdk.incubator.vector} module is present. It is the only class that uses the
+ * module, so it is kept in the {@code vector} source set, which is compiled with the module added
+ * while the rest of the application is not.
+ */
+final class VectorQuoteKernel {
+
+  private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+  private static final double RATE_UNITS = 100_000;
+
+  private VectorQuoteKernel() {
+  }
+
+  /**
+   * Quotes the candidates that fill whole vectors, leaving the rest to the scalar loop.
+   *
+   * @param length The number of candidates.
+   * @return The number of candidates quoted.
+   */
+  static int quote(double[] balances, double[] interestRates, double[] terms,
+      double[] monthlyRepayments, double[] totalInterestDue, int length) {
+    int upperBound = SPECIES.loopBound(length);
+    DoubleVector one = DoubleVector.broadcast(SPECIES, 1);
+    for (int i = 0; i < upperBound; i += SPECIES.length()) {
+      // The yearly and monthly rates rounded half up to 5 decimal places, in units of 10^-5
+      DoubleVector yearlyUnits = truncate(DoubleVector.fromArray(SPECIES, interestRates, i)
+          .mul(1_000).add(0.5));
+      DoubleVector monthlyUnits = truncate(yearlyUnits.add(6).div(12));
+      DoubleVector rate = monthlyUnits.div(RATE_UNITS);
+      DoubleVector balance = DoubleVector.fromArray(SPECIES, balances, i);
+      DoubleVector term = DoubleVector.fromArray(SPECIES, terms, i);
+      DoubleVector factor = rate.add(1).lanewise(VectorOperators.POW, term);
+      VectorMask<Double> interestFree = rate.eq(0);
+      DoubleVector payment = balance.mul(rate).div(one.sub(one.div(factor)))
+          .blend(balance.div(term), interestFree);
+      payment.intoArray(monthlyRepayments, i);
+      payment.mul(term).sub(balance).intoArray(totalInterestDue, i);
+    }
+    return upperBound;
+  }
+
+  private static DoubleVector truncate(DoubleVector vector) {
+    return (DoubleVector) vector.convert(VectorOperators.D2L, 0)
+        .convert(VectorOperators.L2D, 0);
+  }
+}